@@ -0,0 +1,86 @@
+package it.unicam.cs.asdl1819.miniproject1.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unicam.cs.asdl1819.miniproject1.CrivelloDiEratostene;
+
+/**
+ * Misura il tempo di {@link CrivelloDiEratostene#isPrime(int)} e
+ * {@link CrivelloDiEratostene#nextPrime(int)} per ogni modalità di
+ * memorizzazione, al variare della capacità e della distribuzione dei numeri
+ * interrogati. Con capacità grandi le interrogazioni casuali escono dalla
+ * cache del processore e il tempo dipende soprattutto dalla compattezza della
+ * tabella.
+ *
+ * Il tempo riportato è quello di una singola interrogazione.
+ *
+ * @author Joel Sina
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CrivelloInterrogazioniBenchmark {
+
+    // Numeri interrogati a ogni invocazione
+    private static final int INTERROGAZIONI = 4096;
+
+    @Param({ "1000000", "100000000" })
+    public int capacita;
+
+    @Param({ "BOOLEANA", "BIT_DISPARI", "RUOTA_30" })
+    public CrivelloDiEratostene.Modalita modalita;
+
+    @Param({ "CASUALI", "PRIMI", "LISCI", "SEMIPRIMI" })
+    public Distribuzione distribuzione;
+
+    private CrivelloDiEratostene crivello;
+    private int[] numeri;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        crivello = new CrivelloDiEratostene(capacita, modalita);
+        //Lascio spazio per il primo successivo all'ultimo numero
+        numeri = distribuzione.interi(INTERROGAZIONI, capacita - 1000);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERROGAZIONI)
+    public int isPrime() {
+        int primi = 0;
+        for (int n : numeri) {
+            if (crivello.isPrime(n)) {
+                primi++;
+            }
+        }
+        return primi;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERROGAZIONI)
+    public long nextPrime() {
+        long somma = 0;
+        for (int n : numeri) {
+            somma += crivello.nextPrime(n);
+        }
+        return somma;
+    }
+
+}
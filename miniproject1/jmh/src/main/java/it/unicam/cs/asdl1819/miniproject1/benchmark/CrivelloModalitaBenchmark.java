@@ -0,0 +1,49 @@
+package it.unicam.cs.asdl1819.miniproject1.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unicam.cs.asdl1819.miniproject1.CrivelloDiEratostene;
+
+/**
+ * Confronta il tempo di costruzione di un {@link CrivelloDiEratostene} nelle
+ * diverse modalità di memorizzazione, da {@code 10^6} a {@code 10^9}. La
+ * modalità {@code AUTOMATICA} è quella usata dal costruttore con il solo
+ * numero e fa da riferimento.
+ *
+ * La modalità {@code BOOLEANA} con capacità {@code 10^9} occupa 1 GB, per cui
+ * la JVM del benchmark parte con un heap di 3 GB.
+ *
+ * @author Joel Sina
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CrivelloModalitaBenchmark {
+
+    @Param({ "1000000", "10000000", "100000000", "1000000000" })
+    public int capacita;
+
+    @Param({ "AUTOMATICA", "BOOLEANA", "BIT_DISPARI", "RUOTA_30" })
+    public CrivelloDiEratostene.Modalita modalita;
+
+    @Benchmark
+    public CrivelloDiEratostene costruzione() {
+        return new CrivelloDiEratostene(capacita, modalita);
+    }
+
+}
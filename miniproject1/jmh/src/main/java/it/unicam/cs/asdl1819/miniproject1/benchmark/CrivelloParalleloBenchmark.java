@@ -0,0 +1,78 @@
+package it.unicam.cs.asdl1819.miniproject1.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unicam.cs.asdl1819.miniproject1.CrivelloDiEratostene;
+
+/**
+ * Misura la scalabilità della costruzione parallela di un
+ * {@link CrivelloDiEratostene} al variare del numero di thread del pool, a
+ * parità di capacità. Il benchmark {@code sequenziale} costruisce la stessa
+ * tabella a bit dei dispari nel thread corrente e fa da riferimento.
+ *
+ * Per misurare da 1 a N core si passano i valori con l'opzione {@code -p}, per
+ * esempio {@code -p parallelismo=1,2,4,8,16}.
+ *
+ * @author Joel Sina
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CrivelloParalleloBenchmark {
+
+    @Param({ "100000000", "1000000000" })
+    public int capacita;
+
+    /**
+     * Pool separato dallo stato principale, così il parametro parallelismo non
+     * moltiplica le esecuzioni del benchmark sequenziale.
+     */
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        @Param({ "1", "2", "4", "8" })
+        public int parallelismo;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void creaPool() {
+            pool = new ForkJoinPool(parallelismo);
+        }
+
+        @TearDown(Level.Trial)
+        public void chiudiPool() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public CrivelloDiEratostene parallelo(Pool p) {
+        return new CrivelloDiEratostene(capacita, p.pool);
+    }
+
+    @Benchmark
+    public CrivelloDiEratostene sequenziale() {
+        return new CrivelloDiEratostene(capacita, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+    }
+
+}
@@ -0,0 +1,130 @@
+package it.unicam.cs.asdl1819.miniproject1.benchmark;
+
+import java.util.SplittableRandom;
+
+import it.unicam.cs.asdl1819.miniproject1.MillerRabin;
+
+/**
+ * Distribuzioni dei numeri dati in input ai benchmark. I numeri vengono
+ * generati con un seme fissato, per cui esecuzioni diverse misurano gli stessi
+ * input.
+ *
+ * @author Joel Sina
+ *
+ */
+public enum Distribuzione {
+
+    /**
+     * Numeri uniformi tra 2 e il massimo.
+     */
+    CASUALI {
+        @Override
+        long genera(SplittableRandom random, long massimo) {
+            return 2 + random.nextLong(massimo - 1);
+        }
+    },
+
+    /**
+     * Numeri primi uniformi tra 2 e il massimo: il caso peggiore per la
+     * divisione per tentativi e per la ricerca del primo successivo.
+     */
+    PRIMI {
+        @Override
+        long genera(SplittableRandom random, long massimo) {
+            long n = 2 + random.nextLong(massimo - 1);
+            while (!MillerRabin.isPrime(n)) {
+                n--;
+            }
+            return n;
+        }
+    },
+
+    /**
+     * Numeri lisci, prodotti di primi minori di 100: hanno molti fattori
+     * piccoli e ognuno si trova subito.
+     */
+    LISCI {
+        @Override
+        long genera(SplittableRandom random, long massimo) {
+            long n = 1;
+            while (true) {
+                int p = PRIMI_PICCOLI[random.nextInt(PRIMI_PICCOLI.length)];
+                if (n > massimo / p) {
+                    return Math.max(n, 2);
+                }
+                n *= p;
+            }
+        }
+    },
+
+    /**
+     * Prodotti di due primi vicini alla radice del massimo: il caso peggiore
+     * per la fattorizzazione, che deve arrivare a un fattore grande quanto la
+     * radice.
+     */
+    SEMIPRIMI {
+        @Override
+        long genera(SplittableRandom random, long massimo) {
+            long radice = (long) Math.sqrt((double) massimo);
+            return primoFino(random, radice) * primoFino(random, radice);
+        }
+    };
+
+    private static final int[] PRIMI_PICCOLI = { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59,
+            61, 67, 71, 73, 79, 83, 89, 97 };
+
+    // Seme comune a tutti i benchmark
+    private static final long SEME = 20181125L;
+
+    /**
+     * Genera un numero della distribuzione minore o uguale al massimo.
+     *
+     * @param random  il generatore da usare
+     * @param massimo il numero più grande ammesso, almeno 16
+     * @return il numero generato
+     */
+    abstract long genera(SplittableRandom random, long massimo);
+
+    /**
+     * Genera i numeri da dare in input a un benchmark.
+     *
+     * @param quanti  quanti numeri generare
+     * @param massimo il numero più grande ammesso, almeno 16
+     * @return i numeri generati, sempre gli stessi a parità di argomenti
+     */
+    public long[] numeri(int quanti, long massimo) {
+        SplittableRandom random = new SplittableRandom(SEME);
+        long[] numeri = new long[quanti];
+        for (int i = 0; i < quanti; i++) {
+            numeri[i] = genera(random, massimo);
+        }
+        return numeri;
+    }
+
+    /**
+     * Genera i numeri da dare in input a un benchmark che accetta solo
+     * {@code int}.
+     *
+     * @param quanti  quanti numeri generare
+     * @param massimo il numero più grande ammesso, almeno 16
+     * @return i numeri generati, sempre gli stessi a parità di argomenti
+     */
+    public int[] interi(int quanti, int massimo) {
+        long[] numeri = numeri(quanti, massimo);
+        int[] interi = new int[quanti];
+        for (int i = 0; i < quanti; i++) {
+            interi[i] = (int) numeri[i];
+        }
+        return interi;
+    }
+
+    // Primo tra la metà del limite e il limite
+    private static long primoFino(SplittableRandom random, long limite) {
+        long n = limite / 2 + random.nextLong(limite - limite / 2);
+        while (!MillerRabin.isPrime(n)) {
+            n--;
+        }
+        return n;
+    }
+
+}
@@ -0,0 +1,78 @@
+package it.unicam.cs.asdl1819.miniproject1.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import it.unicam.cs.asdl1819.miniproject1.Factoriser;
+
+/**
+ * Misura il tempo di fattorizzazione di un {@link Factoriser} al variare della
+ * grandezza e della distribuzione dei numeri. Il benchmark {@code getFactors}
+ * restituisce il multinsieme dei fattori, mentre {@code factorise} restituisce
+ * la fattorizzazione compatta: eseguiti con {@code -prof gc} mostrano quanto
+ * costa in allocazioni il multinsieme.
+ *
+ * Il tempo riportato è quello di un singolo numero.
+ *
+ * @author Joel Sina
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FactoriserBenchmark {
+
+    // Numeri fattorizzati a ogni invocazione
+    private static final int NUMERI = 1024;
+
+    @Param({ "1000000", "1000000000000", "1000000000000000000" })
+    public long massimo;
+
+    @Param({ "CASUALI", "PRIMI", "LISCI", "SEMIPRIMI" })
+    public Distribuzione distribuzione;
+
+    private Factoriser factoriser;
+    private long[] numeri;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        factoriser = new Factoriser();
+        numeri = distribuzione.numeri(NUMERI, massimo);
+        //Il primo uso costruisce il crivello dei primi piccoli, che non va misurato
+        factoriser.getFactors(numeri[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMERI)
+    public void getFactors(Blackhole bh) {
+        for (long n : numeri) {
+            bh.consume(factoriser.getFactors(n));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMERI)
+    public void factorise(Blackhole bh) {
+        for (long n : numeri) {
+            bh.consume(factoriser.factorise(n));
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package it.unicam.cs.asdl1819.miniproject1.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unicam.cs.asdl1819.miniproject1.IntMultiset;
+import it.unicam.cs.asdl1819.miniproject1.Multiset;
+import it.unicam.cs.asdl1819.miniproject1.MyMultiset;
+
+/**
+ * Misura il costo dell'inserimento in blocco in un {@link MyMultiset}: ogni
+ * invocazione aggiunge {@code elementi} numeri, ognuno ripetuto
+ * {@code ripetizioni} volte, a un multinsieme vuoto. Con la mappa dagli
+ * elementi alle frequenze il tempo cresce linearmente con il numero di
+ * elementi distinti.
+ *
+ * Il benchmark {@code ricercaLineare} riproduce la vecchia implementazione,
+ * che cercava ogni elemento scorrendo tutti i nodi, e fa da riferimento: il suo
+ * tempo cresce come il quadrato del numero di elementi distinti. Il benchmark
+ * {@code interi} inserisce gli stessi numeri come {@code int} in un
+ * {@link IntMultiset}, senza oggetti per gli elementi.
+ *
+ * @author Joel Sina
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MultisetBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int elementi;
+
+    @Param({ "1", "4" })
+    public int ripetizioni;
+
+    private Integer[] numeri;
+    private int[] primitivi;
+
+    /*
+     * Nodo della vecchia implementazione: un elemento con la sua frequenza.
+     */
+    private static final class Nodo {
+        private final Integer elemento;
+        private int frequenza;
+
+        Nodo(Integer elemento) {
+            this.elemento = elemento;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        //Gli elementi vengono ripetuti a giri, così ogni giro li ritrova tutti
+        numeri = new Integer[elementi * ripetizioni];
+        for (int i = 0; i < numeri.length; i++) {
+            numeri[i] = Integer.valueOf((i % elementi) * 7919);
+        }
+        primitivi = new int[numeri.length];
+        for (int i = 0; i < numeri.length; i++) {
+            primitivi[i] = numeri[i];
+        }
+    }
+
+    @Benchmark
+    public Multiset<Integer> mappa() {
+        Multiset<Integer> m = new MyMultiset<Integer>();
+        for (Integer n : numeri) {
+            m.add(n);
+        }
+        return m;
+    }
+
+    @Benchmark
+    public IntMultiset interi() {
+        IntMultiset m = new IntMultiset();
+        for (int n : primitivi) {
+            m.addInt(n);
+        }
+        return m;
+    }
+
+    @Benchmark
+    public List<Nodo> ricercaLineare() {
+        List<Nodo> nodi = new ArrayList<Nodo>();
+        for (Integer n : numeri) {
+            Nodo trovato = null;
+            for (Nodo nodo : nodi) {
+                if (nodo.elemento.equals(n)) {
+                    trovato = nodo;
+                    break;
+                }
+            }
+            if (trovato == null) {
+                trovato = new Nodo(n);
+                nodi.add(trovato);
+            }
+            trovato.frequenza++;
+        }
+        return nodi;
+    }
+
+}
@@ -0,0 +1,81 @@
+package it.unicam.cs.asdl1819.miniproject1.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unicam.cs.asdl1819.miniproject1.Multiset;
+import it.unicam.cs.asdl1819.miniproject1.MyMultiset;
+import it.unicam.cs.asdl1819.miniproject1.RankedMultiset;
+
+/**
+ * Misura quanto costa chiedere i 100 elementi più frequenti a un multinsieme
+ * con {@code elementi} elementi distinti, con frequenze distribuite come una
+ * legge di Zipf. Il benchmark {@code heap} usa il metodo predefinito di
+ * {@link Multiset#topK(int)} su un {@link MyMultiset}, che scorre tutte le
+ * voci; {@code indice} usa l'indice per frequenza di {@link RankedMultiset};
+ * {@code ordinamento} copia gli elementi, ne legge la frequenza e li ordina
+ * tutti, come si faceva prima di {@code topK}.
+ *
+ * @author Joel Sina
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TopKBenchmark {
+
+    private static final int K = 100;
+
+    @Param({ "10000", "1000000" })
+    public int elementi;
+
+    private MyMultiset<Integer> mappa;
+    private RankedMultiset<Integer> ordinato;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        mappa = new MyMultiset<Integer>();
+        ordinato = new RankedMultiset<Integer>();
+        for (int i = 1; i <= elementi; i++) {
+            //Frequenza proporzionale a 1/i, almeno 1
+            int frequenza = Math.max(1, 1000000 / i);
+            mappa.add(i * 7919, frequenza);
+            ordinato.add(i * 7919, frequenza);
+        }
+    }
+
+    @Benchmark
+    public List<Multiset.Entry<Integer>> heap() {
+        return mappa.topK(K);
+    }
+
+    @Benchmark
+    public List<Multiset.Entry<Integer>> indice() {
+        return ordinato.topK(K);
+    }
+
+    @Benchmark
+    public List<Integer> ordinamento() {
+        List<Integer> tutti = new ArrayList<Integer>(mappa.elementSet());
+        tutti.sort((a, b) -> Integer.compare(mappa.count(b), mappa.count(a)));
+        return tutti.subList(0, Math.min(K, tutti.size()));
+    }
+
+}
@@ -0,0 +1,313 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fattorizzatore che ricorda le fattorizzazioni già calcolate, per i casi in cui
+ * gli stessi numeri vengono fattorizzati molte volte. La cache tiene al più un
+ * numero fissato di fattorizzazioni e, quando è piena, scarta quella usata meno
+ * di recente (LRU).
+ *
+ * I risultati vengono memorizzati nella forma compatta di {@link Factorisation}
+ * e restituiti come multinsiemi non modificabili condivisi tra tutte le
+ * chiamate sullo stesso numero, per cui una hit non alloca niente. Provare a
+ * modificarli lancia {@link UnsupportedOperationException}.
+ *
+ * La cache è divisa in {@link #SEGMENTI} segmenti indipendenti, ognuno con il
+ * suo lock e la sua parte della capacità, così thread che chiedono numeri
+ * diversi raramente si contendono lo stesso lock. L'ordine LRU è quindi
+ * rispettato all'interno di ogni segmento. Le fattorizzazioni vengono calcolate
+ * fuori dal lock: due thread che chiedono insieme lo stesso numero assente
+ * possono calcolarlo entrambi, ma ne resta in cache uno solo.
+ *
+ * @author Joel Sina
+ *
+ */
+public class CachingFactoriser extends Factoriser {
+
+	/**
+	 * Numero di segmenti in cui è divisa la cache.
+	 */
+	public static final int SEGMENTI = 16;
+
+	/*
+	 * Fattorizzazione in cache, con le viste come multinsieme costruite solo
+	 * quando vengono chieste. Due thread possono costruire la stessa vista
+	 * insieme: ottengono multinsiemi uguali e ne resta uno solo.
+	 */
+	private static final class Voce {
+		private final Factorisation fattorizzazione;
+		private volatile Multiset<Integer> interi;
+		private volatile Multiset<Long> lunghi;
+
+		Voce(Factorisation fattorizzazione) {
+			this.fattorizzazione = fattorizzazione;
+		}
+
+		Multiset<Integer> interi() {
+			Multiset<Integer> m = interi;
+			if (m == null) {
+				m = new UnmodifiableMultiset<Integer>(copiaInteri());
+				interi = m;
+			}
+			return m;
+		}
+
+		IntMultiset copiaInteri() {
+			IntMultiset fattori = new IntMultiset(fattorizzazione.distinctPrimes());
+			for (int i = 0; i < fattorizzazione.distinctPrimes(); i++) {
+				fattori.addInt((int) fattorizzazione.getPrime(i), fattorizzazione.getExponent(i));
+			}
+			return fattori;
+		}
+
+		Multiset<Long> lunghi() {
+			Multiset<Long> m = lunghi;
+			if (m == null) {
+				m = new UnmodifiableMultiset<Long>(fattorizzazione.toMultiset());
+				lunghi = m;
+			}
+			return m;
+		}
+	}
+
+	/*
+	 * Segmento della cache: una LinkedHashMap in ordine di accesso che scarta la
+	 * voce più vecchia quando supera la sua capacità. Va usata solo tenendo il
+	 * lock del segmento.
+	 */
+	private final class Segmento extends LinkedHashMap<Long, Voce> {
+		private static final long serialVersionUID = 1L;
+
+		private final int capacita;
+
+		Segmento(int capacita) {
+			super(16, 0.75f, true);
+			this.capacita = capacita;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Voce> piuVecchia) {
+			if (size() > capacita) {
+				rimozioni.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private final Segmento[] segmenti;
+	private final int capacita;
+
+	private final LongAdder hit = new LongAdder();
+	private final LongAdder miss = new LongAdder();
+	private final LongAdder rimozioni = new LongAdder();
+
+	/**
+	 * Crea un fattorizzatore con una cache della capacità indicata, che usa la
+	 * cache comune dei crivelli.
+	 *
+	 * @param capacita il numero massimo di fattorizzazioni da ricordare
+	 * @throws IllegalArgumentException se la capacità è minore di 1
+	 */
+	public CachingFactoriser(int capacita) {
+		this(capacita, CrivelloCondiviso.comune());
+	}
+
+	/**
+	 * Crea un fattorizzatore con una cache della capacità indicata, che usa la
+	 * cache di crivelli indicata.
+	 *
+	 * @param capacita il numero massimo di fattorizzazioni da ricordare
+	 * @param crivelli la cache da cui prendere i crivelli dei primi
+	 * @throws IllegalArgumentException se la capacità è minore di 1
+	 * @throws NullPointerException     se la cache dei crivelli è nulla
+	 */
+	public CachingFactoriser(int capacita, CrivelloCondiviso crivelli) {
+		super(crivelli);
+		if (capacita < 1) {
+			throw new IllegalArgumentException("La capacità deve essere almeno 1");
+		}
+		this.capacita = capacita;
+		//Con capacità piccole uso meno segmenti, così ognuno ha almeno un posto
+		//e la somma delle capacità dei segmenti è esattamente quella richiesta
+		int numero = Math.min(SEGMENTI, capacita);
+		this.segmenti = new Segmento[numero];
+		for (int i = 0; i < numero; i++) {
+			segmenti[i] = new Segmento(capacita / numero + (i < capacita % numero ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Fattorizza un numero come {@link Factoriser#getFactors(int)}, usando la
+	 * cache. Il multinsieme restituito non è modificabile ed è condiviso con le
+	 * altre chiamate sullo stesso numero.
+	 *
+	 * @param n un numero intero da fattorizzare
+	 * @return il multinsieme non modificabile dei fattori primi di n
+	 * @throws IllegalArgumentException se si chiede di fattorizzare un numero
+	 *                                  minore di 1.
+	 */
+	@Override
+	public Multiset<Integer> getFactors(int n) {
+		return voce(n).interi();
+	}
+
+	/**
+	 * Fattorizza un numero come {@link Factoriser#getIntFactors(int)}, usando la
+	 * cache. Il multinsieme restituito è una copia nuova e modificabile, per
+	 * cui non viene condiviso con le altre chiamate.
+	 *
+	 * @param n un numero intero da fattorizzare
+	 * @return il multinsieme dei fattori primi di n
+	 * @throws IllegalArgumentException se si chiede di fattorizzare un numero
+	 *                                  minore di 1.
+	 */
+	@Override
+	public IntMultiset getIntFactors(int n) {
+		return voce(n).copiaInteri();
+	}
+
+	/**
+	 * Fattorizza un numero come {@link Factoriser#getFactors(long)}, usando la
+	 * cache. Il multinsieme restituito non è modificabile ed è condiviso con le
+	 * altre chiamate sullo stesso numero.
+	 *
+	 * @param n un numero intero da fattorizzare
+	 * @return il multinsieme non modificabile dei fattori primi di n
+	 * @throws IllegalArgumentException se si chiede di fattorizzare un numero
+	 *                                  minore di 1.
+	 */
+	@Override
+	public Multiset<Long> getFactors(long n) {
+		return voce(n).lunghi();
+	}
+
+	/**
+	 * Fattorizza un numero come {@link Factoriser#factorise(long)}, usando la
+	 * cache.
+	 *
+	 * @param n un numero intero da fattorizzare
+	 * @return la fattorizzazione di n
+	 * @throws IllegalArgumentException se si chiede di fattorizzare un numero
+	 *                                  minore di 1.
+	 */
+	@Override
+	public Factorisation factorise(long n) {
+		return voce(n).fattorizzazione;
+	}
+
+	/**
+	 * Restituisce il numero massimo di fattorizzazioni ricordate.
+	 *
+	 * @return la capacità della cache
+	 */
+	public int getCapacity() {
+		return capacita;
+	}
+
+	/**
+	 * Restituisce il numero di fattorizzazioni attualmente in cache.
+	 *
+	 * @return il numero di voci in cache
+	 */
+	public int getSize() {
+		int voci = 0;
+		for (Segmento s : segmenti) {
+			synchronized (s) {
+				voci += s.size();
+			}
+		}
+		return voci;
+	}
+
+	/**
+	 * Restituisce il numero di richieste soddisfatte dalla cache.
+	 *
+	 * @return il numero di hit
+	 */
+	public long getHits() {
+		return hit.sum();
+	}
+
+	/**
+	 * Restituisce il numero di richieste per cui la fattorizzazione non era in
+	 * cache ed è stata calcolata.
+	 *
+	 * @return il numero di miss
+	 */
+	public long getMisses() {
+		return miss.sum();
+	}
+
+	/**
+	 * Restituisce il numero di fattorizzazioni scartate per fare posto a quelle
+	 * nuove.
+	 *
+	 * @return il numero di rimozioni
+	 */
+	public long getEvictions() {
+		return rimozioni.sum();
+	}
+
+	/**
+	 * Restituisce la frazione di richieste soddisfatte dalla cache.
+	 *
+	 * @return il rapporto tra hit e richieste, oppure 0 se non ci sono ancora
+	 *         state richieste
+	 */
+	public double getHitRate() {
+		long h = hit.sum();
+		long richieste = h + miss.sum();
+		return richieste == 0 ? 0 : (double) h / richieste;
+	}
+
+	/**
+	 * Svuota la cache. Le statistiche non vengono azzerate.
+	 */
+	public void clear() {
+		for (Segmento s : segmenti) {
+			synchronized (s) {
+				s.clear();
+			}
+		}
+	}
+
+	//Restituisce la voce di n, calcolandola e mettendola in cache se manca
+	private Voce voce(long n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Stai cercando di fattorizzare un numero minore di 1");
+		}
+		Long chiave = n;
+		Segmento s = segmenti[segmento(n)];
+		synchronized (s) {
+			Voce v = s.get(chiave);
+			if (v != null) {
+				hit.increment();
+				return v;
+			}
+		}
+		miss.increment();
+		//Calcolo fuori dal lock, così gli altri thread possono usare il segmento
+		Voce nuova = new Voce(super.factorise(n));
+		synchronized (s) {
+			//Se un altro thread l'ha inserita nel frattempo tengo la sua
+			Voce v = s.get(chiave);
+			if (v != null) {
+				return v;
+			}
+			s.put(chiave, nuova);
+		}
+		return nuova;
+	}
+
+	//Sceglie il segmento mescolando i bit del numero, così anche numeri con la
+	//stessa parte bassa finiscono in segmenti diversi
+	private int segmento(long n) {
+		long h = n * 0x9E3779B97F4A7C15L;
+		return (int) ((h >>> 32) % segmenti.length);
+	}
+
+}
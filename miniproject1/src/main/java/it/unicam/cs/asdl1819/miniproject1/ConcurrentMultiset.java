@@ -0,0 +1,371 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Multiset che può essere usato da più thread insieme senza sincronizzazione
+ * esterna, pensato per i contatori di frequenza condivisi. Ogni elemento ha un
+ * contatore atomico in una {@link ConcurrentHashMap} e le operazioni lo
+ * aggiornano con cicli di compare-and-set, senza lock: thread che modificano
+ * elementi diversi non si ostacolano mai, e anche sullo stesso elemento nessun
+ * thread resta bloccato.
+ *
+ * Un contatore che arriva a 0 viene tolto dalla mappa. Un thread che nel
+ * frattempo trova quel contatore a 0 lo considera morto e lo sostituisce con uno
+ * nuovo, per cui nessun aggiornamento va perso.
+ *
+ * Il numero totale di occorrenze è tenuto in un {@link LongAdder}, così
+ * {@link #size()} non serializza chi scrive. Quando ci sono scritture in corso
+ * il valore è approssimato: può non comprendere gli aggiornamenti appena fatti
+ * o comprenderli solo in parte. Senza scritture in corso è esatto. Per lo
+ * stesso motivo {@link #equals(Object)} e {@link #hashCode()} hanno senso solo
+ * su un multiset non modificato nel frattempo.
+ *
+ * L'iteratore e {@link #elementSet()} sono debolmente consistenti, come quelli
+ * di {@link ConcurrentHashMap}: non lanciano mai
+ * {@link java.util.ConcurrentModificationException}, mostrano ogni elemento al
+ * più una volta con la frequenza che ha quando l'iteratore ci arriva e possono
+ * mostrare o no le modifiche fatte dopo la loro creazione.
+ *
+ * @author Joel Sina
+ *
+ * @param <E> il tipo degli elementi del multiset
+ */
+public class ConcurrentMultiset<E> implements Multiset<E> {
+
+	private final ConcurrentMap<E, AtomicInteger> contatori = new ConcurrentHashMap<E, AtomicInteger>();
+	private final LongAdder occorrenze = new LongAdder();
+
+	/**
+	 * Crea un multiset vuoto.
+	 */
+	public ConcurrentMultiset() {
+	}
+
+	/**
+	 * Restituisce il numero totale di occorrenze. Con scritture in corso il
+	 * valore è approssimato.
+	 *
+	 * @return il numero di occorrenze, al massimo {@code Integer.MAX_VALUE}
+	 */
+	public int size() {
+		long n = occorrenze.sum();
+		return (int) Math.max(0, Math.min(Integer.MAX_VALUE, n));
+	}
+
+	public int count(Object element) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		AtomicInteger contatore = contatori.get(element);
+		return contatore == null ? 0 : contatore.get();
+	}
+
+	public int add(E element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il numero deve essere maggiore di 0");
+		}
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		if (occurrences == 0) {
+			return count(element);
+		}
+		while (true) {
+			AtomicInteger contatore = contatori.get(element);
+			if (contatore == null) {
+				contatore = contatori.putIfAbsent(element, new AtomicInteger(occurrences));
+				if (contatore == null) {
+					occorrenze.add(occurrences);
+					return 0;
+				}
+			}
+			while (true) {
+				int precedente = contatore.get();
+				if (precedente == 0) {
+					//Contatore morto, che sta per essere tolto: lo sostituisco
+					if (contatori.replace(element, contatore, new AtomicInteger(occurrences))) {
+						occorrenze.add(occurrences);
+						return 0;
+					}
+					//Un altro thread l'ha già tolto o sostituito: ricomincio dalla mappa
+					break;
+				}
+				if ((long) precedente + occurrences > Integer.MAX_VALUE) {
+					throw new IllegalArgumentException("Questo elemento ha già il numero massimo degli elementi!");
+				}
+				if (contatore.compareAndSet(precedente, precedente + occurrences)) {
+					occorrenze.add(occurrences);
+					return precedente;
+				}
+			}
+		}
+	}
+
+	public void add(E element) {
+		add(element, 1);
+	}
+
+	public int remove(Object element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il secondo parametro non può essere negativo!");
+		}
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		AtomicInteger contatore = contatori.get(element);
+		if (contatore == null) {
+			return 0;
+		}
+		while (true) {
+			int precedente = contatore.get();
+			if (precedente == 0 || occurrences == 0) {
+				return precedente;
+			}
+			int nuovo = Math.max(0, precedente - occurrences);
+			if (contatore.compareAndSet(precedente, nuovo)) {
+				if (nuovo == 0) {
+					//Tolgo il contatore solo se è ancora quello nella mappa
+					contatori.remove(element, contatore);
+				}
+				occorrenze.add(nuovo - precedente);
+				return precedente;
+			}
+		}
+	}
+
+	public boolean remove(Object element) {
+		return remove(element, 1) > 0;
+	}
+
+	public int setCount(E element, int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Il secondo parametro non può essere negativo!");
+		}
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		while (true) {
+			AtomicInteger contatore = contatori.get(element);
+			if (contatore == null) {
+				if (count == 0) {
+					return 0;
+				}
+				contatore = contatori.putIfAbsent(element, new AtomicInteger(count));
+				if (contatore == null) {
+					occorrenze.add(count);
+					return 0;
+				}
+			}
+			while (true) {
+				int precedente = contatore.get();
+				if (precedente == 0) {
+					if (count == 0) {
+						return 0;
+					}
+					if (contatori.replace(element, contatore, new AtomicInteger(count))) {
+						occorrenze.add(count);
+						return 0;
+					}
+					break;
+				}
+				if (contatore.compareAndSet(precedente, count)) {
+					if (count == 0) {
+						contatori.remove(element, contatore);
+					}
+					occorrenze.add(count - precedente);
+					return precedente;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restituisce una copia degli elementi presenti. Con scritture in corso la
+	 * copia può comprendere o no le modifiche fatte mentre viene costruita.
+	 *
+	 * @return l'insieme degli elementi distinti
+	 */
+	public Set<E> elementSet() {
+		Set<E> elementi = new HashSet<E>();
+		for (Map.Entry<E, AtomicInteger> voce : contatori.entrySet()) {
+			if (voce.getValue().get() > 0) {
+				elementi.add(voce.getKey());
+			}
+		}
+		return elementi;
+	}
+
+	/**
+	 * Restituisce un iteratore debolmente consistente su tutte le occorrenze.
+	 * La frequenza di ogni elemento viene letta quando l'iteratore ci arriva.
+	 *
+	 * @return un iteratore sul multiset
+	 */
+	public Iterator<E> iterator() {
+		final Iterator<Map.Entry<E, AtomicInteger>> iter = contatori.entrySet().iterator();
+		return new Iterator<E>() {
+			private E elemento;
+			private int rimanenti = 0;
+
+			public boolean hasNext() {
+				//Salto i contatori arrivati a 0 nel frattempo
+				while (rimanenti == 0 && iter.hasNext()) {
+					Map.Entry<E, AtomicInteger> voce = iter.next();
+					elemento = voce.getKey();
+					rimanenti = voce.getValue().get();
+				}
+				return rimanenti > 0;
+			}
+
+			public E next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException("Tentativo di ottenere il prossimo elemento che non esiste");
+				}
+				rimanenti--;
+				return elemento;
+			}
+		};
+	}
+
+	/**
+	 * Esegue un'azione su ogni elemento distinto con la frequenza che ha quando
+	 * viene raggiunto, in modo debolmente consistente come l'iteratore.
+	 *
+	 * @param action l'azione da eseguire
+	 * @throws NullPointerException se l'azione è nulla
+	 */
+	@Override
+	public void forEachEntry(ObjIntConsumer<? super E> action) {
+		if (action == null) {
+			throw new NullPointerException("L'azione non può essere nulla");
+		}
+		for (Map.Entry<E, AtomicInteger> voce : contatori.entrySet()) {
+			int frequenza = voce.getValue().get();
+			if (frequenza > 0) {
+				action.accept(voce.getKey(), frequenza);
+			}
+		}
+	}
+
+	/**
+	 * Restituisce uno spliterator debolmente consistente sulle voci, che si
+	 * divide come quello di {@link ConcurrentHashMap}. Ogni voce ha la frequenza
+	 * che l'elemento ha quando viene raggiunto.
+	 *
+	 * @return uno spliterator sulle voci del multiset
+	 */
+	@Override
+	public Spliterator<Multiset.Entry<E>> entrySpliterator() {
+		return new SpliteratoreVoci<E>(contatori.entrySet().spliterator());
+	}
+
+	/*
+	 * Trasforma le voci della mappa in voci del multiset, saltando i contatori
+	 * arrivati a 0.
+	 */
+	private static final class SpliteratoreVoci<E> implements Spliterator<Multiset.Entry<E>> {
+		private final Spliterator<Map.Entry<E, AtomicInteger>> voci;
+		private Multiset.Entry<E> trovata;
+
+		SpliteratoreVoci(Spliterator<Map.Entry<E, AtomicInteger>> voci) {
+			this.voci = voci;
+		}
+
+		public boolean tryAdvance(Consumer<? super Multiset.Entry<E>> action) {
+			trovata = null;
+			while (voci.tryAdvance(this::leggi)) {
+				if (trovata != null) {
+					action.accept(trovata);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void leggi(Map.Entry<E, AtomicInteger> voce) {
+			int frequenza = voce.getValue().get();
+			if (frequenza > 0) {
+				trovata = new VoceMultiset<E>(voce.getKey(), frequenza);
+			}
+		}
+
+		public Spliterator<Multiset.Entry<E>> trySplit() {
+			Spliterator<Map.Entry<E, AtomicInteger>> altra = voci.trySplit();
+			return altra == null ? null : new SpliteratoreVoci<E>(altra);
+		}
+
+		public long estimateSize() {
+			return voci.estimateSize();
+		}
+
+		public int characteristics() {
+			return DISTINCT | NONNULL | CONCURRENT;
+		}
+	}
+
+	public boolean contains(Object element) {
+		return count(element) > 0;
+	}
+
+	/**
+	 * Toglie tutti gli elementi presenti. Gli elementi aggiunti da altri thread
+	 * durante l'operazione possono restare.
+	 */
+	public void clear() {
+		for (E elemento : contatori.keySet()) {
+			setCount(elemento, 0);
+		}
+	}
+
+	public boolean isEmpty() {
+		//Guardo i contatori e non size(), che con scritture in corso è approssimato
+		return !iterator().hasNext();
+	}
+
+	@Override
+	public int hashCode() {
+		//Stessa regola di MyMultiset
+		int result = 0;
+		for (Map.Entry<E, AtomicInteger> voce : contatori.entrySet()) {
+			int frequenza = voce.getValue().get();
+			if (frequenza > 0) {
+				result += voce.getKey().hashCode() ^ frequenza;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!Multisets.confrontabile(obj)) {
+			return false;
+		}
+		Multiset<?> other = (Multiset<?>) obj;
+		if (size() != other.size()) {
+			return false;
+		}
+		for (Map.Entry<E, AtomicInteger> voce : contatori.entrySet()) {
+			int frequenza = voce.getValue().get();
+			if (frequenza > 0 && other.count(voce.getKey()) != frequenza) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,152 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+/**
+ * Calcolo della funzione {@code pi(x)}, il numero di primi minori o uguali a
+ * {@code x}, senza setacciare tutti i numeri fino a {@code x}. Si usa il metodo
+ * combinatorio di Lucy_Hedgehog, una variante del metodo di Legendre: per ogni
+ * valore {@code v = x / i} (divisione intera) si tiene il numero di interi
+ * dispari da 3 a {@code v} non ancora cancellati, e per ogni primo {@code p}
+ * si tolgono quelli che hanno {@code p} come fattore minimo. I valori distinti
+ * di {@code x / i} sono circa {@code 2 sqrt(x)}, per cui la memoria è
+ * {@code O(sqrt(x))} e il tempo {@code O(x^(3/4) / log x)}: per
+ * {@code x = 10^12} bastano pochi MB e qualche centinaio di millisecondi.
+ *
+ * Rispetto alla versione più semplice il calcolo è accelerato in tre modi,
+ * come nella variante di min_25:
+ * <ul>
+ * <li>si contano solo i dispari, per cui 2 non va setacciato e bastano i
+ * valori {@code x / i} con {@code i} dispari;</li>
+ * <li>dopo il primo {@code p} si tengono solo i valori {@code x / i} con
+ * {@code i} senza fattori minori o uguali a {@code p}, gli unici che servono
+ * ancora, e l'elenco si accorcia a ogni passo;</li>
+ * <li>si setaccia solo con i primi fino a {@code x^(1/4)}; il contributo dei
+ * primi tra {@code x^(1/4)} e {@code sqrt(x)} si ottiene in forma chiusa dai
+ * conteggi, che a quel punto sono esatti per tutti i valori fino a
+ * {@code sqrt(x)}.</li>
+ * </ul>
+ *
+ * I primi fino a {@code x^(1/4)} vengono presi dalla cache comune dei crivelli
+ * {@link CrivelloCondiviso#comune()}.
+ *
+ * @author Joel Sina
+ *
+ */
+public final class ContatorePrimi {
+
+	/**
+	 * Numero più grande accettato da {@link #primeCount(long)}. Con questo
+	 * valore servono circa 90 MB di memoria ausiliaria e qualche secondo; oltre,
+	 * memoria e tempo crescerebbero rispettivamente come {@code sqrt(x)} e
+	 * {@code x^(3/4)}.
+	 */
+	public static final long MASSIMO = 100000000000000L;
+
+	private ContatorePrimi() {
+	}
+
+	/**
+	 * Conta i numeri primi minori o uguali a un numero dato.
+	 *
+	 * @param x il numero fino a cui contare
+	 * @return il numero di primi da {@code 2} a {@code x}, 0 se {@code x} è
+	 *         minore di 2
+	 * @throws IllegalArgumentException se {@code x} supera {@link #MASSIMO}
+	 */
+	public static long primeCount(long x) {
+		if (x > MASSIMO) {
+			throw new IllegalArgumentException("Il numero non può superare " + MASSIMO);
+		}
+		if (x < 2) {
+			return 0;
+		}
+		int radice = (int) CrivelloSegmentato.radice(x);
+		int ultimo = (radice - 1) >>> 1;
+
+		//piccoli[j] conta i dispari da 3 a 2j+1 non cancellati; all'inizio sono j
+		int[] piccoli = new int[ultimo + 1];
+		//ruvidi sono gli i dispari fino alla radice ancora utili e grandi[k] conta
+		//i dispari da 3 a x / ruvidi[k] non cancellati
+		int[] ruvidi = new int[ultimo + 1];
+		long[] grandi = new long[ultimo + 1];
+		for (int j = 0; j <= ultimo; j++) {
+			piccoli[j] = j;
+			ruvidi[j] = 2 * j + 1;
+			grandi[j] = (x / (2 * j + 1) - 1) >> 1;
+		}
+		int quanti = ultimo + 1;
+		// scarta[i] vale true per i dispari che hanno già un fattore tra i primi usati
+		boolean[] scarta = new boolean[radice + 1];
+
+		//Primi dispari già usati per setacciare
+		int usati = 0;
+		int radiceQuarta = (int) CrivelloSegmentato.radice(radice);
+		for (int p : CrivelloCondiviso.comune().crivello(Math.max(2, radiceQuarta)).primi()) {
+			if (p == 2) {
+				continue;
+			}
+			long quadrato = (long) p * p;
+			if (quadrato * quadrato > x) {
+				break;
+			}
+			scarta[p] = true;
+			for (long i = quadrato; i <= radice; i += 2 * p) {
+				scarta[(int) i] = true;
+			}
+
+			//Aggiorno i valori grandi e tengo solo gli i che restano utili. La
+			//posizione di i*p, se c'è, è maggiore di k e quindi non ancora riscritta
+			int nuovi = 0;
+			for (int k = 0; k < quanti; k++) {
+				int i = ruvidi[k];
+				if (scarta[i]) {
+					continue;
+				}
+				long d = (long) i * p;
+				long cancellati = d <= radice
+						? grandi[piccoli[(int) ((d - 1) >> 1)] - usati]
+						: piccoli[(int) ((x / d - 1) >> 1)];
+				grandi[nuovi] = grandi[k] - cancellati + usati;
+				ruvidi[nuovi] = i;
+				nuovi++;
+			}
+			quanti = nuovi;
+
+			//Aggiorno i valori piccoli v >= p^2 a blocchi con lo stesso quoziente
+			//m = v / p, dal più grande, così ogni m letto non è ancora aggiornato
+			for (int m = radice / p; m >= p; m--) {
+				int cancellati = piccoli[(m - 1) >> 1] - usati;
+				int inizio = m * p;
+				int fine = Math.min(radice, inizio + p - 1);
+				for (int j = (fine - 1) >> 1; j >= inizio >> 1; j--) {
+					piccoli[j] -= cancellati;
+				}
+			}
+			usati++;
+		}
+
+		//Ora ruvidi contiene 1 e poi i primi tra x^(1/4) e la radice, e i conteggi
+		//piccoli sono esatti. Per ogni primo p rimasto il passo del crivello
+		//toglierebbe S(x / p) - (primi dispari minori di p), dove S(x / p) è
+		//grandi[l] meno i contributi dei primi q < p con q^2 <= x / p
+		long dispari = grandi[0];
+		for (int l = 1; l < quanti; l++) {
+			dispari -= grandi[l] - (usati + l - 1);
+		}
+		for (int l = 1; l < quanti; l++) {
+			long q = ruvidi[l];
+			long limite = x / (q * q);
+			if (limite <= q) {
+				break;
+			}
+			//Ultima posizione di un primo p <= limite tra i ruvidi
+			int e = piccoli[(int) ((limite - 1) >> 1)] - usati;
+			long primiMinori = usati + l - 1;
+			for (int k = l + 1; k <= e; k++) {
+				dispari += piccoli[(int) ((x / (q * ruvidi[k]) - 1) >> 1)] - primiMinori;
+			}
+		}
+		//Aggiungo il primo 2
+		return dispari + 1;
+	}
+
+}
@@ -0,0 +1,479 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Multiset approssimato per flussi con moltissimi elementi distinti, basato su
+ * un Count-Min Sketch: una tabella di {@code profondità} righe di
+ * {@code larghezza} contatori, in cui ogni elemento corrisponde a un contatore
+ * per riga scelto con una funzione hash diversa. La memoria è fissata alla
+ * costruzione e non dipende da quanti elementi vengono aggiunti.
+ *
+ * La frequenza stimata di un elemento è il minimo dei suoi contatori.
+ * Aggiungendo occorrenze si usa l'aggiornamento conservativo: si alzano solo i
+ * contatori che restano sotto la nuova stima, il che riduce molto l'errore
+ * rispetto all'incremento di tutti i contatori. Con errore {@code epsilon} e
+ * confidenza {@code 1 - delta}, la larghezza è {@code ceil(e / epsilon)} e la
+ * profondità {@code ceil(ln(1 / delta))}.
+ *
+ * Rispetto al contratto di {@link Multiset} ci sono queste differenze:
+ * <ul>
+ * <li>{@link #count(Object)} non è mai minore della frequenza vera e, con
+ * probabilità almeno {@code 1 - delta}, la supera al più di
+ * {@code epsilon * totalCount()}. Anche un elemento mai aggiunto può avere
+ * frequenza stimata positiva, e così {@link #contains(Object)} può dare falsi
+ * positivi ma mai falsi negativi. Due elementi con lo stesso
+ * {@code hashCode()} hanno sempre la stessa stima;</li>
+ * <li>le frequenze stimate si fermano a {@code Integer.MAX_VALUE} invece di
+ * lanciare un'eccezione;</li>
+ * <li>le occorrenze non si possono togliere, perché con l'aggiornamento
+ * conservativo non si sa quali contatori abbassare: {@code remove} e
+ * {@code setCount} lanciano {@link UnsupportedOperationException}, mentre
+ * {@link #clear()} azzera tutto;</li>
+ * <li>gli elementi non vengono memorizzati, per cui {@link #elementSet()},
+ * {@link #iterator()} e i metodi sulle voci lanciano
+ * {@link UnsupportedOperationException}. Se alla costruzione si indica un
+ * numero di candidati, il multiset tiene da parte gli elementi con le stime più
+ * alte e {@link #topK(int)} restituisce i più frequenti tra questi;</li>
+ * <li>{@link #size()} è esatto, ma è limitato a {@code Integer.MAX_VALUE}: il
+ * totale vero è {@link #totalCount()};</li>
+ * <li>due sketch sono uguali solo se hanno gli stessi parametri e gli stessi
+ * contatori.</li>
+ * </ul>
+ *
+ * Le funzioni hash dipendono solo dalla riga e da {@code hashCode()}, per cui
+ * sketch con la stessa larghezza e profondità, anche costruiti su macchine
+ * diverse, si possono unire con {@link #merge(CountMinMultiset)}. Il multiset
+ * non è sincronizzato: con più thread conviene usarne uno per thread e unirli
+ * alla fine.
+ *
+ * @author Joel Sina
+ *
+ * @param <E> il tipo degli elementi del multiset
+ */
+public class CountMinMultiset<E> implements Multiset<E> {
+
+	// Costante usata per mescolare i bit di hashCode(), da SplitMix64
+	private static final long MESCOLA = 0x9E3779B97F4A7C15L;
+
+	private final int larghezza;
+	private final int profondita;
+	// Riga per riga: il contatore j della riga i è in tabella[i * larghezza + j]
+	private final int[] tabella;
+	// Posizioni dell'elemento corrente, riusate da un'operazione all'altra
+	private final int[] posizioni;
+	private long totale = 0;
+
+	private final int capacita;
+	// Elementi con le stime più alte, con la stima che avevano all'ultimo aggiornamento
+	private final Map<E, Integer> candidati;
+	// Mai maggiore della stima più bassa tra i candidati
+	private int minimo = Integer.MAX_VALUE;
+
+	/**
+	 * Crea uno sketch vuoto con l'errore e la confidenza dati, senza tenere
+	 * traccia degli elementi più frequenti.
+	 *
+	 * @param epsilon l'errore massimo, in rapporto al numero totale di
+	 *                occorrenze
+	 * @param delta   la probabilità che l'errore sia superato
+	 * @throws IllegalArgumentException se {@code epsilon} o {@code delta} non
+	 *                                  sono compresi strettamente tra 0 e 1,
+	 *                                  o se la tabella sarebbe troppo grande
+	 */
+	public CountMinMultiset(double epsilon, double delta) {
+		this(epsilon, delta, 0);
+	}
+
+	/**
+	 * Crea uno sketch vuoto con l'errore e la confidenza dati, che tiene da
+	 * parte fino a {@code candidati} elementi con le stime più alte per
+	 * {@link #topK(int)}.
+	 *
+	 * @param epsilon   l'errore massimo, in rapporto al numero totale di
+	 *                  occorrenze
+	 * @param delta     la probabilità che l'errore sia superato
+	 * @param candidati quanti elementi frequenti tenere da parte, anche 0
+	 * @throws IllegalArgumentException se {@code epsilon} o {@code delta} non
+	 *                                  sono compresi strettamente tra 0 e 1,
+	 *                                  se {@code candidati} è negativo o se la
+	 *                                  tabella sarebbe troppo grande
+	 */
+	public CountMinMultiset(double epsilon, double delta, int candidati) {
+		this(larghezza(epsilon), profondita(delta), candidati);
+	}
+
+	/**
+	 * Crea uno sketch vuoto con le dimensioni date. Serve per ricostruire uno
+	 * sketch con le stesse dimensioni di un altro, da unire o da rileggere.
+	 *
+	 * @param larghezza  il numero di contatori per riga
+	 * @param profondita il numero di righe
+	 * @param candidati  quanti elementi frequenti tenere da parte, anche 0
+	 * @throws IllegalArgumentException se le dimensioni sono minori di 1, se
+	 *                                  {@code candidati} è negativo o se la
+	 *                                  tabella sarebbe troppo grande
+	 */
+	public CountMinMultiset(int larghezza, int profondita, int candidati) {
+		if (larghezza < 1 || profondita < 1) {
+			throw new IllegalArgumentException("Larghezza e profondità devono essere almeno 1");
+		}
+		if ((long) larghezza * profondita > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("La tabella sarebbe troppo grande");
+		}
+		if (candidati < 0) {
+			throw new IllegalArgumentException("Il numero di candidati non può essere negativo");
+		}
+		this.larghezza = larghezza;
+		this.profondita = profondita;
+		this.tabella = new int[larghezza * profondita];
+		this.posizioni = new int[profondita];
+		this.capacita = candidati;
+		this.candidati = new HashMap<E, Integer>();
+	}
+
+	private static int larghezza(double epsilon) {
+		if (!(epsilon > 0 && epsilon < 1)) {
+			throw new IllegalArgumentException("L'errore deve essere compreso tra 0 e 1");
+		}
+		double larghezza = Math.ceil(Math.E / epsilon);
+		if (larghezza > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("La tabella sarebbe troppo grande");
+		}
+		return (int) larghezza;
+	}
+
+	private static int profondita(double delta) {
+		if (!(delta > 0 && delta < 1)) {
+			throw new IllegalArgumentException("La probabilità deve essere compresa tra 0 e 1");
+		}
+		return (int) Math.max(1, Math.ceil(Math.log(1 / delta)));
+	}
+
+	/**
+	 * Restituisce il numero di contatori per riga.
+	 *
+	 * @return la larghezza della tabella
+	 */
+	public int getWidth() {
+		return larghezza;
+	}
+
+	/**
+	 * Restituisce il numero di righe, cioè di funzioni hash.
+	 *
+	 * @return la profondità della tabella
+	 */
+	public int getDepth() {
+		return profondita;
+	}
+
+	/**
+	 * Restituisce quanti elementi frequenti vengono tenuti da parte.
+	 *
+	 * @return il numero massimo di candidati per {@link #topK(int)}
+	 */
+	public int getCandidates() {
+		return capacita;
+	}
+
+	/**
+	 * Restituisce il numero totale di occorrenze aggiunte, senza il limite di
+	 * {@link #size()}.
+	 *
+	 * @return il numero totale di occorrenze
+	 */
+	public long totalCount() {
+		return totale;
+	}
+
+	/*
+	 * Calcola in posizioni l'indice nella tabella del contatore dell'elemento
+	 * per ogni riga. Da un hash a 64 bit se ne ricavano due a 32 e la riga i
+	 * usa h1 + i * h2, che basta per le garanzie del Count-Min.
+	 */
+	private void posiziona(Object elemento) {
+		long x = elemento.hashCode() * MESCOLA;
+		x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+		x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+		x ^= x >>> 31;
+		int h1 = (int) x;
+		int h2 = (int) (x >>> 32) | 1;
+		for (int i = 0; i < profondita; i++) {
+			posizioni[i] = i * larghezza + Math.floorMod(h1 + i * h2, larghezza);
+		}
+	}
+
+	private int stima() {
+		int stima = Integer.MAX_VALUE;
+		for (int p : posizioni) {
+			stima = Math.min(stima, tabella[p]);
+		}
+		return stima;
+	}
+
+	public int size() {
+		return (int) Math.min(Integer.MAX_VALUE, totale);
+	}
+
+	/**
+	 * Restituisce la frequenza stimata di un elemento, mai minore di quella
+	 * vera.
+	 *
+	 * @param element l'elemento
+	 * @return la frequenza stimata di {@code element}
+	 * @throws NullPointerException se l'elemento è nullo
+	 */
+	public int count(Object element) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		posiziona(element);
+		return stima();
+	}
+
+	/**
+	 * Aggiunge occorrenze di un elemento con l'aggiornamento conservativo. Le
+	 * stime si fermano a {@code Integer.MAX_VALUE}.
+	 *
+	 * @param element     l'elemento
+	 * @param occurrences il numero di occorrenze da aggiungere, anche 0
+	 * @return la frequenza stimata dell'elemento prima dell'operazione
+	 * @throws IllegalArgumentException se {@code occurrences} è negativo
+	 * @throws NullPointerException     se l'elemento è nullo
+	 */
+	public int add(E element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il numero deve essere maggiore di 0");
+		}
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		posiziona(element);
+		int precedente = stima();
+		if (occurrences == 0) {
+			return precedente;
+		}
+		int nuova = (int) Math.min(Integer.MAX_VALUE, (long) precedente + occurrences);
+		//Alzo solo i contatori sotto la nuova stima: gli altri sono già abbastanza alti
+		for (int p : posizioni) {
+			if (tabella[p] < nuova) {
+				tabella[p] = nuova;
+			}
+		}
+		totale += occurrences;
+		candida(element, nuova);
+		return precedente;
+	}
+
+	public void add(E element) {
+		add(element, 1);
+	}
+
+	/*
+	 * Aggiorna i candidati con la nuova stima di un elemento. Il minimo
+	 * memorizzato è solo un limite inferiore: quando una stima lo supera si
+	 * cerca il candidato più basso scorrendoli tutti, cosa che con flussi
+	 * sbilanciati succede di rado.
+	 */
+	private void candida(E elemento, int stima) {
+		if (capacita == 0) {
+			return;
+		}
+		if (candidati.containsKey(elemento) || candidati.size() < capacita) {
+			candidati.put(elemento, stima);
+			minimo = Math.min(minimo, stima);
+			return;
+		}
+		if (stima <= minimo) {
+			return;
+		}
+		E peggiore = null;
+		int primo = Integer.MAX_VALUE;
+		int secondo = Integer.MAX_VALUE;
+		for (Map.Entry<E, Integer> voce : candidati.entrySet()) {
+			int valore = voce.getValue();
+			if (valore < primo) {
+				secondo = primo;
+				primo = valore;
+				peggiore = voce.getKey();
+			} else if (valore < secondo) {
+				secondo = valore;
+			}
+		}
+		if (stima <= primo) {
+			minimo = primo;
+			return;
+		}
+		candidati.remove(peggiore);
+		candidati.put(elemento, stima);
+		minimo = Math.min(secondo, stima);
+	}
+
+	/**
+	 * Non supportato: con l'aggiornamento conservativo le occorrenze non si
+	 * possono togliere.
+	 *
+	 * @throws UnsupportedOperationException sempre
+	 */
+	public int remove(Object element, int occurrences) {
+		throw new UnsupportedOperationException("Non si possono togliere occorrenze da uno sketch");
+	}
+
+	/**
+	 * Non supportato: con l'aggiornamento conservativo le occorrenze non si
+	 * possono togliere.
+	 *
+	 * @throws UnsupportedOperationException sempre
+	 */
+	public boolean remove(Object element) {
+		throw new UnsupportedOperationException("Non si possono togliere occorrenze da uno sketch");
+	}
+
+	/**
+	 * Non supportato: con l'aggiornamento conservativo le occorrenze non si
+	 * possono togliere.
+	 *
+	 * @throws UnsupportedOperationException sempre
+	 */
+	public int setCount(E element, int occurrences) {
+		throw new UnsupportedOperationException("Non si possono togliere occorrenze da uno sketch");
+	}
+
+	/**
+	 * Non supportato: lo sketch non memorizza gli elementi.
+	 *
+	 * @throws UnsupportedOperationException sempre
+	 */
+	public Set<E> elementSet() {
+		throw new UnsupportedOperationException("Lo sketch non memorizza gli elementi");
+	}
+
+	/**
+	 * Non supportato: lo sketch non memorizza gli elementi.
+	 *
+	 * @throws UnsupportedOperationException sempre
+	 */
+	public Iterator<E> iterator() {
+		throw new UnsupportedOperationException("Lo sketch non memorizza gli elementi");
+	}
+
+	/**
+	 * Restituisce i {@code k} elementi con le stime più alte tra i candidati
+	 * tenuti da parte, con la loro frequenza stimata attuale. Un elemento con
+	 * frequenza vera molto più alta di {@code totalCount() / candidati} è tra
+	 * i candidati con alta probabilità; per gli altri il risultato è solo
+	 * indicativo.
+	 *
+	 * @param k il numero di elementi da restituire
+	 * @return le voci dei più frequenti tra i candidati, in ordine non
+	 *         crescente di frequenza stimata
+	 * @throws IllegalArgumentException      se {@code k} è negativo
+	 * @throws UnsupportedOperationException se lo sketch non tiene candidati
+	 */
+	@Override
+	public List<Multiset.Entry<E>> topK(int k) {
+		if (k < 0) {
+			throw new IllegalArgumentException("Il numero di elementi non può essere negativo");
+		}
+		if (capacita == 0) {
+			throw new UnsupportedOperationException("Lo sketch non tiene traccia degli elementi frequenti");
+		}
+		List<Multiset.Entry<E>> voci = new ArrayList<Multiset.Entry<E>>(candidati.size());
+		for (E elemento : candidati.keySet()) {
+			voci.add(new VoceMultiset<E>(elemento, count(elemento)));
+		}
+		voci.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+		return voci.size() > k ? new ArrayList<Multiset.Entry<E>>(voci.subList(0, k)) : voci;
+	}
+
+	/**
+	 * Aggiunge a questo sketch tutte le occorrenze di un altro con le stesse
+	 * dimensioni, sommando i contatori. Le stime restano mai minori delle
+	 * frequenze vere dell'unione dei due flussi, con errore al più
+	 * {@code epsilon} per il totale complessivo. I candidati vengono scelti di
+	 * nuovo tra quelli dei due sketch.
+	 *
+	 * @param altro lo sketch da aggiungere, che non cambia
+	 * @throws IllegalArgumentException se le dimensioni sono diverse
+	 * @throws NullPointerException     se l'altro sketch è nullo
+	 */
+	public void merge(CountMinMultiset<? extends E> altro) {
+		if (altro == null) {
+			throw new NullPointerException("Lo sketch non può essere nullo");
+		}
+		if (altro.larghezza != larghezza || altro.profondita != profondita) {
+			throw new IllegalArgumentException("Gli sketch devono avere le stesse dimensioni");
+		}
+		List<E> elementi = new ArrayList<E>(candidati.keySet());
+		elementi.addAll(altro.candidati.keySet());
+		for (int i = 0; i < tabella.length; i++) {
+			tabella[i] = (int) Math.min(Integer.MAX_VALUE, (long) tabella[i] + altro.tabella[i]);
+		}
+		totale += altro.totale;
+		candidati.clear();
+		minimo = Integer.MAX_VALUE;
+		for (E elemento : elementi) {
+			candida(elemento, count(elemento));
+		}
+	}
+
+	/**
+	 * Determina se la frequenza stimata di un elemento è positiva. Può dare
+	 * falsi positivi ma mai falsi negativi.
+	 *
+	 * @param element l'elemento
+	 * @return {@code true} se l'elemento potrebbe essere stato aggiunto
+	 * @throws NullPointerException se l'elemento è nullo
+	 */
+	public boolean contains(Object element) {
+		return count(element) > 0;
+	}
+
+	public void clear() {
+		Arrays.fill(tabella, 0);
+		totale = 0;
+		candidati.clear();
+		minimo = Integer.MAX_VALUE;
+	}
+
+	public boolean isEmpty() {
+		return totale == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(tabella);
+	}
+
+	/**
+	 * Due sketch sono uguali se hanno le stesse dimensioni, lo stesso totale e
+	 * gli stessi contatori. Uno sketch non è mai uguale a un multiset esatto, e
+	 * le implementazioni esatte a loro volta non considerano mai uguale uno
+	 * sketch, così l'uguaglianza resta simmetrica.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CountMinMultiset)) {
+			return false;
+		}
+		CountMinMultiset<?> other = (CountMinMultiset<?>) obj;
+		return larghezza == other.larghezza && profondita == other.profondita && totale == other.totale
+				&& Arrays.equals(tabella, other.tabella);
+	}
+
+	@Override
+	public String toString() {
+		return "CountMinMultiset[" + larghezza + "x" + profondita + ", " + totale + " occorrenze]";
+	}
+
+}
@@ -0,0 +1,130 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache thread-safe di un {@link CrivelloDiEratostene} da riusare tra più
+ * chiamate e più thread, per esempio dal {@link Factoriser}. Chi ha bisogno dei
+ * primi fino a un certo numero chiede un crivello con almeno quella capacità:
+ * se quello in cache basta viene restituito subito, altrimenti ne viene
+ * costruito uno nuovo di capacità almeno doppia, così il numero di
+ * ricostruzioni resta logaritmico nella capacità massima richiesta.
+ *
+ * La lettura del crivello corrente non prende lock; solo la crescita è
+ * sincronizzata, in modo che un solo thread alla volta costruisca il nuovo
+ * crivello mentre gli altri continuano a usare quello vecchio se basta.
+ *
+ * @author Joel Sina
+ *
+ */
+public final class CrivelloCondiviso {
+
+	/**
+	 * Capacità del primo crivello costruito dalla cache comune.
+	 */
+	public static final int CAPACITA_INIZIALE = 1 << 10;
+
+	// Cache usata dai fattorizzatori creati senza indicarne una
+	private static final CrivelloCondiviso COMUNE = new CrivelloCondiviso(CAPACITA_INIZIALE);
+
+	// Crivello corrente, sostituito solo da uno più grande
+	private volatile CrivelloDiEratostene crivello;
+
+	private final LongAdder hit = new LongAdder();
+	private final LongAdder miss = new LongAdder();
+	private final LongAdder crescite = new LongAdder();
+
+	/**
+	 * Crea una cache che parte da un crivello della capacità indicata.
+	 *
+	 * @param capacitaIniziale la capacità del primo crivello, almeno 2
+	 * @throws IllegalArgumentException se la capacità è minore di 2
+	 */
+	public CrivelloCondiviso(int capacitaIniziale) {
+		this.crivello = new CrivelloDiEratostene(capacitaIniziale);
+	}
+
+	/**
+	 * Restituisce la cache condivisa da tutto il processo.
+	 *
+	 * @return la cache comune
+	 */
+	public static CrivelloCondiviso comune() {
+		return COMUNE;
+	}
+
+	/**
+	 * Restituisce un crivello con capacità almeno pari a quella richiesta,
+	 * facendo crescere la cache se necessario.
+	 *
+	 * @param capacitaMinima la capacità minima richiesta
+	 * @return un crivello con capacità maggiore o uguale a {@code capacitaMinima}
+	 * @throws IllegalArgumentException se la capacità richiesta è minore di 2
+	 */
+	public CrivelloDiEratostene crivello(int capacitaMinima) {
+		if (capacitaMinima < 2) {
+			throw new IllegalArgumentException("La capacità deve essere almeno 2");
+		}
+		CrivelloDiEratostene c = this.crivello;
+		if (c.getCapacity() >= capacitaMinima) {
+			hit.increment();
+			return c;
+		}
+		miss.increment();
+		return cresci(capacitaMinima);
+	}
+
+	/**
+	 * Restituisce la capacità del crivello attualmente in cache.
+	 *
+	 * @return la capacità corrente
+	 */
+	public int getCapacity() {
+		return crivello.getCapacity();
+	}
+
+	/**
+	 * Restituisce il numero di richieste soddisfatte dal crivello già in cache.
+	 *
+	 * @return il numero di hit
+	 */
+	public long getHits() {
+		return hit.sum();
+	}
+
+	/**
+	 * Restituisce il numero di richieste per cui il crivello in cache era troppo
+	 * piccolo.
+	 *
+	 * @return il numero di miss
+	 */
+	public long getMisses() {
+		return miss.sum();
+	}
+
+	/**
+	 * Restituisce quante volte è stato costruito un crivello più grande. Può
+	 * essere minore dei miss, perché richieste contemporanee aspettano la stessa
+	 * crescita.
+	 *
+	 * @return il numero di crescite
+	 */
+	public long getGrowths() {
+		return crescite.sum();
+	}
+
+	private synchronized CrivelloDiEratostene cresci(int capacitaMinima) {
+		//Un altro thread può aver già fatto crescere il crivello mentre aspettavo
+		CrivelloDiEratostene c = this.crivello;
+		if (c.getCapacity() >= capacitaMinima) {
+			return c;
+		}
+		//Raddoppio senza superare Integer.MAX_VALUE
+		int doppio = (int) Math.min(Integer.MAX_VALUE, 2L * c.getCapacity());
+		c = new CrivelloDiEratostene(Math.max(capacitaMinima, doppio));
+		crescite.increment();
+		this.crivello = c;
+		return c;
+	}
+
+}
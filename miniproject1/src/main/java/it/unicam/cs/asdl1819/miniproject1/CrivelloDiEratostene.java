@@ -1,8 +1,16 @@
 package it.unicam.cs.asdl1819.miniproject1;
 
 import java.util.TreeSet; // Utilizzare questa classe per il SortedSet
-import java.util.Iterator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
 import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * Il crivello di Eratostene è un modo per determinare tutti i numeri primi da
@@ -14,44 +22,163 @@ import java.util.SortedSet;
 
 public class CrivelloDiEratostene {
 
-	//Dichiaro un array di tipo booleano
-	public boolean[] primeArray;
-	public int n;
+	/**
+	 * Capacità oltre la quale la modalità {@link Modalita#AUTOMATICA} sceglie la
+	 * tabella a bit dei soli dispari.
+	 */
+	public static final int SOGLIA_BIT_DISPARI = 1 << 20;
+
+	/**
+	 * Modi in cui il crivello può memorizzare la tabella dei numeri primi.
+	 */
+	public enum Modalita {
+		/**
+		 * Un {@code boolean} per ogni numero da {@code 0} alla capacità.
+		 */
+		BOOLEANA,
+		/**
+		 * Un bit per ogni numero dispari, circa 16 volte meno memoria della
+		 * modalità {@link #BOOLEANA}.
+		 */
+		BIT_DISPARI,
+		/**
+		 * Un bit per ogni numero primo con 30, cioè un byte ogni 30 numeri: circa
+		 * il 47% di memoria in meno della modalità {@link #BIT_DISPARI} e meno
+		 * multipli da cancellare durante la costruzione.
+		 */
+		RUOTA_30,
+		/**
+		 * {@link #BOOLEANA} fino a {@link CrivelloDiEratostene#SOGLIA_BIT_DISPARI},
+		 * {@link #BIT_DISPARI} oltre.
+		 */
+		AUTOMATICA
+	}
+
+	//Tabella con l'informazione di primalità, scelta in base alla modalità
+	private final TabellaPrimalita tabella;
+	private final Modalita modalita;
+	private final int n;
+	//Array dei primi, costruito solo quando viene richiesto
+	private volatile int[] primi;
+
 	/**
 	 * Costruisce il crivello di Eratostene fino a un certo numero. Il numero deve
-	 * essere almeno 2.
+	 * essere almeno 2. La rappresentazione della tabella viene scelta in
+	 * modalità {@link Modalita#AUTOMATICA}.
 	 * 
 	 * @param n numero di entrate nel crivello
 	 * 
 	 * @throws IllegalArgumentException se il numero {@code n} è minore di {@code 2}
 	 */
 	public CrivelloDiEratostene(int n) {
+		this(n, Modalita.AUTOMATICA);
+	}
+
+	/**
+	 * Costruisce il crivello di Eratostene fino a un certo numero usando la
+	 * rappresentazione indicata. Il numero deve essere almeno 2.
+	 * 
+	 * @param n        numero di entrate nel crivello
+	 * @param modalita il modo in cui memorizzare la tabella
+	 * 
+	 * @throws IllegalArgumentException se il numero {@code n} è minore di {@code 2}
+	 *                                  oppure se la modalità è
+	 *                                  {@link Modalita#BOOLEANA} e {@code n} è
+	 *                                  {@code Integer.MAX_VALUE}
+	 * @throws NullPointerException     se la modalità è nulla
+	 */
+	public CrivelloDiEratostene(int n, Modalita modalita) {
 		if (n < 2) {
 			throw new IllegalArgumentException("Il numero deve essere almeno 2");
 		}
+		if (modalita == null) {
+			throw new NullPointerException("La modalità non può essere nulla");
+		}
 		
 		this.n=n;
-		//Creo l'array con dimensione n+1
-		primeArray = new boolean[n+1];
-		
-		//Scorro tutto l'array impostandolo tutto a true
-		for (int i = 1; i <= n; i++) {
-            primeArray[i] = true;
-        }
-		
-		//Scorro fino a quando i*i è minore o uguale a n
-		//Controllo che l'array in quella posizione sia true, in caso positivo
-		//tutti i multipli di quel numero vengono impostati a false
-		
-		//L'indice viene usato per capire se l'elemento è primo o no in base al valore true o false
-		for (int i = 2; i <= Math.sqrt(n); i++) {
-            if (primeArray[i]) {
-                for (int j = i; i*j <= n; j++) {
-                    primeArray[i*j] = false;
-                }
-            }
-        }
+		if (modalita == Modalita.AUTOMATICA) {
+			modalita = n > SOGLIA_BIT_DISPARI ? Modalita.BIT_DISPARI : Modalita.BOOLEANA;
+		}
+		if (modalita == Modalita.BOOLEANA) {
+			//L'array booleano ha n+1 elementi, quindi non può arrivare a Integer.MAX_VALUE
+			if (n == Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Capacità troppo grande per la modalità booleana");
+			}
+			this.tabella = new TabellaBooleana(n);
+		} else if (modalita == Modalita.RUOTA_30) {
+			this.tabella = new TabellaRuota30(n);
+		} else {
+			this.tabella = new TabellaBitDispari(n);
+		}
+		this.modalita = modalita;
+	}
+
+	/**
+	 * Costruisce il crivello di Eratostene fino a un certo numero dividendo la
+	 * tabella in segmenti indipendenti che vengono setacciati in parallelo sul
+	 * pool indicato. La tabella viene sempre memorizzata in modalità
+	 * {@link Modalita#BIT_DISPARI}. Il numero deve essere almeno 2.
+	 * 
+	 * @param n    numero di entrate nel crivello
+	 * @param pool il pool su cui eseguire il crivello; il suo livello di
+	 *             parallelismo determina quanti segmenti vengono setacciati
+	 *             contemporaneamente
+	 * 
+	 * @throws IllegalArgumentException se il numero {@code n} è minore di {@code 2}
+	 * @throws NullPointerException     se il pool è nullo
+	 */
+	public CrivelloDiEratostene(int n, ForkJoinPool pool) {
+		if (n < 2) {
+			throw new IllegalArgumentException("Il numero deve essere almeno 2");
+		}
+		if (pool == null) {
+			throw new NullPointerException("Il pool non può essere nullo");
+		}
 		
+		this.n=n;
+		this.tabella = new TabellaBitDispari(n, pool);
+		this.modalita = Modalita.BIT_DISPARI;
+	}
+
+	//Crivello su una tabella già pronta, per esempio letta da un file
+	private CrivelloDiEratostene(TabellaPrimalita tabella, Modalita modalita) {
+		this.n = tabella.capacita();
+		this.tabella = tabella;
+		this.modalita = modalita;
+	}
+
+	/**
+	 * Apre un crivello salvato con {@link #save(Path)}. Il file viene mappato in
+	 * memoria in sola lettura invece di essere letto o ricalcolato, per cui
+	 * l'apertura richiede pochi millisecondi anche per le capacità più grandi, e
+	 * più processi che aprono lo stesso file ne condividono le pagine in
+	 * memoria. Il crivello ottenuto è in modalità {@link Modalita#BIT_DISPARI}.
+	 * 
+	 * @param file il file da aprire
+	 * @return il crivello memorizzato nel file
+	 * @throws IOException se il file non può essere letto o non contiene un
+	 *                     crivello in un formato supportato
+	 */
+	public static CrivelloDiEratostene open(Path file) throws IOException {
+		return new CrivelloDiEratostene(TabellaBitDispariMappata.apri(file), Modalita.BIT_DISPARI);
+	}
+
+	/**
+	 * Salva questo crivello in un file binario che può essere riaperto con
+	 * {@link #open(Path)}. Il file contiene un'intestazione con la versione del
+	 * formato e la tabella a bit dei dispari con il suo indice, circa un bit ogni
+	 * due numeri. Se la tabella di questo crivello non è in modalità
+	 * {@link Modalita#BIT_DISPARI} viene prima ricalcolata in quella forma. Un
+	 * file già esistente viene sostituito.
+	 * 
+	 * @param file il file in cui salvare il crivello
+	 * @throws IOException se il file non può essere scritto
+	 */
+	public void save(Path file) throws IOException {
+		TabellaBitDispariAstratta t = tabella instanceof TabellaBitDispariAstratta
+				? (TabellaBitDispariAstratta) tabella
+				: new TabellaBitDispari(n);
+		TabellaBitDispariMappata.scrivi(t, file);
 	}
 
 	/**
@@ -69,15 +196,62 @@ public class CrivelloDiEratostene {
 			throw new IllegalArgumentException("Il numero deve essere almeno 2");
 		}
 		
-		// Scorro la lista, se l'array in quella posizione è true e l'indice è maggiore
-		//della variabile n allora ritorno l'indice
-		for(int i = 1; i<primeArray.length;i++) {
-			if(this.primeArray[i] && i>n) {
-				return i;
-			}
+		//La tabella trova il primo successivo con il suo indice, senza scorrere dall'inizio
+		return tabella.successivo(n);
+	}
+
+	/**
+	 * Cerca nel crivello il numero primo precedente a un numero dato.
+	 * 
+	 * @param n il numero da cui partire
+	 * @return il più grande numero primo minore di {@code n} oppure -1 se non ci
+	 *         sono numeri primi minori di {@code n}
+	 * @throws IllegalArgumentException se il numero passato {@code n} eccede la
+	 *                                  capacità di questo crivello o se è un numero
+	 *                                  minore di 1.
+	 */
+	public int previousPrime(int n) {
+		if(!(n<=this.getCapacity()) || n<1) {
+			throw new IllegalArgumentException("Il numero deve essere compreso tra 1 e la capacità");
 		}
 		
-		return -1;
+		return tabella.precedente(n);
+	}
+
+	/**
+	 * Conta i numeri primi minori o uguali a un numero dato, cioè calcola la
+	 * funzione {@code pi(n)}. Per convenzione il numero primo {@code 1} non viene
+	 * contato, come in {@link #getPrimes()}.
+	 * 
+	 * @param n il numero fino a cui contare
+	 * @return il numero di primi da {@code 2} a {@code n}
+	 * @throws IllegalArgumentException se il numero passato {@code n} eccede la
+	 *                                  capacità di questo crivello o se è un numero
+	 *                                  minore di 1.
+	 */
+	public int primeCount(int n) {
+		if(!(n<=this.getCapacity()) || n<1) {
+			throw new IllegalArgumentException("Il numero deve essere compreso tra 1 e la capacità");
+		}
+		
+		return tabella.conta(n);
+	}
+
+	/**
+	 * Restituisce il k-esimo numero primo di questo crivello, contando
+	 * {@code 2} come il primo.
+	 * 
+	 * @param k la posizione del numero primo cercato
+	 * @return il k-esimo numero primo oppure -1 se questo crivello contiene meno
+	 *         di {@code k} numeri primi
+	 * @throws IllegalArgumentException se {@code k} è minore di 1
+	 */
+	public int nthPrime(int k) {
+		if (k < 1) {
+			throw new IllegalArgumentException("La posizione deve essere almeno 1");
+		}
+		
+		return tabella.ennesimo(k);
 	}
 
 	/**
@@ -90,18 +264,71 @@ public class CrivelloDiEratostene {
 		
 		SortedSet<Integer> crivello = new TreeSet<Integer>();
 		
-		//Scorro tutta la lista e se l'array nella posizione "i" è true allora lo aggiungo 
-		//nel TreeSet e si restituisce tutto alla fine
-		
-		for (int i = 2; i <= n; i++) {
-            if (primeArray[i]) {
-            	crivello.add(i);
-            }
-        }
+		//Scorro l'array dei primi e li aggiungo nel TreeSet
+		for (int p : primi()) {
+			crivello.add(p);
+		}
 
 		return crivello;
 	}
 
+	/**
+	 * Restituisce i numeri primi calcolati attraverso questo crivello in un array
+	 * ordinato in modo crescente, senza il numero {@code 1}. L'array dei primi
+	 * viene costruito alla prima richiesta e poi riusato, per cui ogni chiamata
+	 * costa solo la copia dell'array, che il chiamante può modificare.
+	 * 
+	 * @return un array con i numeri primi di questo crivello
+	 */
+	public int[] primesAsIntArray() {
+		return primi().clone();
+	}
+
+	/**
+	 * Restituisce uno stream ordinato dei numeri primi calcolati attraverso
+	 * questo crivello, senza il numero {@code 1}. Lo stream è pigro: se l'array
+	 * dei primi non è ancora stato costruito i primi vengono letti direttamente
+	 * dalla tabella man mano che servono. Lo stream può essere reso parallelo con
+	 * {@link IntStream#parallel()} e in quel caso viene diviso sulla tabella.
+	 * 
+	 * @return uno stream dei numeri primi di questo crivello
+	 */
+	public IntStream primes() {
+		return StreamSupport.intStream(spliteratorePrimi(), false);
+	}
+
+	/**
+	 * Restituisce un iteratore che presenta in ordine crescente i numeri primi
+	 * calcolati attraverso questo crivello, senza il numero {@code 1} e senza
+	 * convertirli in {@code Integer}.
+	 * 
+	 * @return un iteratore sui numeri primi di questo crivello
+	 */
+	public PrimitiveIterator.OfInt primeIterator() {
+		return Spliterators.iterator(spliteratorePrimi());
+	}
+
+	/*
+	 * Restituisce l'array dei primi condiviso con questo crivello, costruendolo
+	 * alla prima chiamata. Non deve essere modificato, per cui è usato solo
+	 * all'interno del package. Se due thread lo costruiscono insieme ottengono
+	 * array uguali e ne resta in memoria uno solo.
+	 */
+	int[] primi() {
+		int[] p = this.primi;
+		if (p == null) {
+			p = tabella.elenco();
+			this.primi = p;
+		}
+		return p;
+	}
+
+	//Usa l'array dei primi se è già stato costruito, altrimenti legge dalla tabella
+	private Spliterator.OfInt spliteratorePrimi() {
+		int[] p = this.primi;
+		return p != null ? Arrays.spliterator(p) : tabella.spliteratore();
+	}
+
 	/**
 	 * Restituisce la capacità di questo crivello, cioè il numero massimo di
 	 * entrate.
@@ -113,9 +340,22 @@ public class CrivelloDiEratostene {
 		return this.n;
 	}
 
+	/**
+	 * Restituisce la modalità con cui è memorizzata la tabella di questo
+	 * crivello. Non è mai {@link Modalita#AUTOMATICA}, perché in quel caso viene
+	 * restituita la modalità effettivamente scelta.
+	 * 
+	 * @return la modalità di memorizzazione di questo crivello
+	 */
+	public Modalita getModalita() {
+		return this.modalita;
+	}
+
 	/**
 	 * Controlla se un numero è primo. Può rispondere solo se il numero passato come
-	 * parametro è minore o uguale alla capacità di questo crivello.
+	 * parametro è minore o uguale alla capacità di questo crivello; la risposta
+	 * viene letta dalla tabella in tempo costante. Per i numeri oltre la capacità
+	 * si può usare {@link #isPrime(long)}.
 	 * 
 	 * @param n il numero da controllare
 	 * @return true se il numero passato è primo
@@ -128,26 +368,31 @@ public class CrivelloDiEratostene {
 			throw new IllegalArgumentException("Il numero deve essere almeno 2");
 		}
 		
-		//Controllo subito se 2 è primo, in caso affermativo allora ritorno true
-		//in quanto ritornerebbe false dall'if successivo
-		if(n==2) {
-			return true;
-		}
-		
-		if (n % 2 == 0) {
-			return false;
+		//Rispondo direttamente dalla tabella; 1 è primo per la convenzione del crivello
+		return n == 1 || tabella.isPrimo(n);
+	}
+
+	/**
+	 * Controlla se un numero qualsiasi, anche oltre la capacità di questo
+	 * crivello, è primo. Fino alla capacità la risposta viene letta dalla
+	 * tabella in tempo costante, oltre viene usato il test deterministico di
+	 * {@link MillerRabin}. Come in {@link #isPrime(int)} il numero {@code 1} è
+	 * considerato primo.
+	 * 
+	 * @param n il numero da controllare
+	 * @return true se il numero passato è primo
+	 * @throws IllegalArgumentException se il numero passato {@code n} è minore di
+	 *                                  1.
+	 */
+	public boolean isPrime(long n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Il numero deve essere almeno 1");
 		}
 		
-		// se il numero non è divisible per 2 allora cerchiamo tutti i dispari
-		//se la divisione del numero con l'indice restituisce 0 allora il numero non è primo
-		//altrimenti una volta finito il for si ritorna il true finale del metodo
-		for (int i = 3; i <= Math.sqrt(n); i += 2) {
-			if (n % i == 0) {
-				return false;
-			}
+		if (n <= this.getCapacity()) {
+			return this.isPrime((int) n);
 		}
-		
-		return true;
+		return MillerRabin.isPrime(n);
 	}
 
 
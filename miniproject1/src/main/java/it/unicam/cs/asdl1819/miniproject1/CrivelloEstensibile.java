@@ -0,0 +1,301 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Arrays;
+
+/**
+ * Crivello di Eratostene senza capacità fissa: invece di lanciare un'eccezione
+ * per i numeri oltre quelli già setacciati, aggiunge in fondo i segmenti che
+ * mancano. I segmenti già calcolati restano dove sono e non vengono mai
+ * modificati, e i primi base usati per setacciare quelli nuovi vengono letti
+ * dal primo segmento, per cui una crescita costa solo il crivello dei numeri
+ * nuovi.
+ *
+ * Ogni segmento memorizza {@link #NUMERI_SEGMENTO} numeri come in
+ * {@link TabellaBitDispari}, un bit per ogni dispari, in
+ * {@link TabellaBitDispari#PAROLE_SEGMENTO} parole. L'elenco dei segmenti e i
+ * conteggi dei primi che li precedono formano uno stato immutabile pubblicato
+ * attraverso un campo volatile: chi cresce il crivello costruisce uno stato
+ * nuovo che condivide i segmenti vecchi e lo pubblica solo quando è completo.
+ * Per questo le letture non prendono lock e vedono sempre un crivello
+ * coerente, mentre le crescite sono serializzate.
+ *
+ * Qui si usa la definizione matematica, per cui a differenza di
+ * {@link CrivelloDiEratostene} il numero {@code 1} non è primo.
+ *
+ * @author Joel Sina
+ *
+ */
+public final class CrivelloEstensibile {
+
+	/**
+	 * Numeri coperti da ogni segmento. La capacità del crivello è sempre un
+	 * multiplo di questo numero meno 1, al massimo {@code Integer.MAX_VALUE}.
+	 */
+	public static final int NUMERI_SEGMENTO = TabellaBitDispari.PAROLE_SEGMENTO << 7;
+
+	// Bit di un segmento, uno per ogni dispari
+	private static final int BIT_SEGMENTO = NUMERI_SEGMENTO >>> 1;
+
+	// Numero massimo di segmenti, che arrivano fino a Integer.MAX_VALUE
+	private static final int MASSIMO_SEGMENTI = (int) (((long) Integer.MAX_VALUE + 1) / NUMERI_SEGMENTO);
+
+	/*
+	 * Stato immutabile del crivello: i segmenti e, per ognuno, il numero di
+	 * primi dispari nei segmenti precedenti.
+	 */
+	private static final class Stato {
+		private final long[][] segmenti;
+		private final int[] primiPrima;
+
+		Stato(long[][] segmenti, int[] primiPrima) {
+			this.segmenti = segmenti;
+			this.primiPrima = primiPrima;
+		}
+
+		int capacita() {
+			return (int) ((long) segmenti.length * NUMERI_SEGMENTO - 1);
+		}
+	}
+
+	// Primi dispari fino alla radice di Integer.MAX_VALUE, letti dal primo segmento
+	private final int[] primiBase;
+
+	private volatile Stato stato;
+
+	/**
+	 * Crea un crivello con il solo primo segmento, cioè con capacità
+	 * {@code NUMERI_SEGMENTO - 1}.
+	 */
+	public CrivelloEstensibile() {
+		//Il primo segmento arriva oltre la radice di Integer.MAX_VALUE, quindi
+		//basta setacciarlo con i primi fino alla sua radice
+		long[] primo = new long[TabellaBitDispari.PAROLE_SEGMENTO];
+		CrivelloSegmentato.setacciaSegmento(primo, 0, primo.length, 0,
+				TabellaBitDispari.primiDispari((int) CrivelloSegmentato.radice(NUMERI_SEGMENTO)));
+		this.stato = new Stato(new long[][] { primo }, new int[] { 0 });
+
+		int radice = (int) CrivelloSegmentato.radice(Integer.MAX_VALUE);
+		int[] primi = new int[radice];
+		int quanti = 0;
+		for (int p = successivo(stato, 2); p <= radice; p = successivo(stato, p)) {
+			primi[quanti++] = p;
+		}
+		this.primiBase = Arrays.copyOf(primi, quanti);
+	}
+
+	/**
+	 * Crea un crivello che copre subito almeno i numeri fino a quello indicato.
+	 *
+	 * @param capacitaIniziale il numero più grande da setacciare subito
+	 * @throws IllegalArgumentException se la capacità è minore di 1
+	 */
+	public CrivelloEstensibile(int capacitaIniziale) {
+		this();
+		ensureCapacity(capacitaIniziale);
+	}
+
+	/**
+	 * Restituisce il numero più grande già setacciato. Le interrogazioni fino a
+	 * questo numero non fanno crescere il crivello.
+	 *
+	 * @return la capacità corrente
+	 */
+	public int getCapacity() {
+		return stato.capacita();
+	}
+
+	/**
+	 * Fa crescere il crivello, se necessario, in modo che copra almeno i numeri
+	 * fino a quello indicato. I segmenti già presenti non vengono ricalcolati.
+	 *
+	 * @param n il numero più grande da coprire
+	 * @throws IllegalArgumentException se il numero è minore di 1
+	 */
+	public void ensureCapacity(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Il numero deve essere almeno 1");
+		}
+		copri(n);
+	}
+
+	/**
+	 * Controlla se un numero è primo, facendo crescere il crivello se il numero
+	 * supera la capacità corrente.
+	 *
+	 * @param n il numero da controllare
+	 * @return true se {@code n} è primo
+	 * @throws IllegalArgumentException se il numero è minore di 1
+	 */
+	public boolean isPrime(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Il numero deve essere almeno 1");
+		}
+		if ((n & 1) == 0) {
+			return n == 2;
+		}
+		return !composto(copri(n), n >>> 1);
+	}
+
+	/**
+	 * Cerca il numero primo successivo a un numero dato, facendo crescere il
+	 * crivello finché non lo trova.
+	 *
+	 * @param n il numero da cui partire
+	 * @return il più piccolo primo maggiore di {@code n}, oppure -1 se non ci
+	 *         sono primi tra {@code n} e {@code Integer.MAX_VALUE}
+	 * @throws IllegalArgumentException se il numero è minore di 1
+	 */
+	public int nextPrime(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Il numero deve essere almeno 1");
+		}
+		Stato s = copri(n);
+		int p = successivo(s, n);
+		//Se lo stato corrente finisce prima del successivo aggiungo un segmento alla volta
+		while (p == -1 && s.capacita() < Integer.MAX_VALUE) {
+			int fine = s.capacita();
+			s = copri(fine + 1);
+			p = successivo(s, fine);
+		}
+		return p;
+	}
+
+	/**
+	 * Cerca il numero primo precedente a un numero dato, facendo crescere il
+	 * crivello se il numero supera la capacità corrente.
+	 *
+	 * @param n il numero da cui partire
+	 * @return il più grande primo minore di {@code n}, oppure -1 se non ci sono
+	 *         primi minori di {@code n}
+	 * @throws IllegalArgumentException se il numero è minore di 1
+	 */
+	public int previousPrime(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Il numero deve essere almeno 1");
+		}
+		if (n <= 3) {
+			return n == 3 ? 2 : -1;
+		}
+		Stato s = copri(n);
+		//Indice dell'ultimo dispari strettamente minore di n
+		int bit = (n - 2) >>> 1;
+		int segmento = bit / BIT_SEGMENTO;
+		int parola = (bit % BIT_SEGMENTO) >>> 6;
+		long primi = ~s.segmenti[segmento][parola] & (-1L >>> (63 - (bit & 63)));
+		while (primi == 0) {
+			if (--parola < 0) {
+				if (--segmento < 0) {
+					return 2;
+				}
+				parola = TabellaBitDispari.PAROLE_SEGMENTO - 1;
+			}
+			primi = ~s.segmenti[segmento][parola];
+		}
+		return numero(segmento, parola, 63 - Long.numberOfLeadingZeros(primi));
+	}
+
+	/**
+	 * Conta i numeri primi minori o uguali a un numero dato, facendo crescere il
+	 * crivello se il numero supera la capacità corrente.
+	 *
+	 * @param n il numero fino a cui contare
+	 * @return il numero di primi da {@code 2} a {@code n}
+	 * @throws IllegalArgumentException se il numero è minore di 1
+	 */
+	public int primeCount(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Il numero deve essere almeno 1");
+		}
+		if (n < 2) {
+			return 0;
+		}
+		Stato s = copri(n);
+		//Indice dell'ultimo dispari minore o uguale a n
+		int bit = (n - 1) >>> 1;
+		int segmento = bit / BIT_SEGMENTO;
+		int parola = (bit % BIT_SEGMENTO) >>> 6;
+		long[] parole = s.segmenti[segmento];
+		//Parto dai primi dei segmenti precedenti, più 1 per il primo 2
+		int primi = 1 + s.primiPrima[segmento];
+		for (int w = 0; w < parola; w++) {
+			primi += Long.bitCount(~parole[w]);
+		}
+		return primi + Long.bitCount(~parole[parola] & (-1L >>> (63 - (bit & 63))));
+	}
+
+	//Restituisce uno stato che copre almeno n, facendo crescere il crivello se serve
+	private Stato copri(int n) {
+		Stato s = this.stato;
+		if (n <= s.capacita()) {
+			return s;
+		}
+		return cresci(n);
+	}
+
+	private synchronized Stato cresci(int n) {
+		//Un altro thread può aver già fatto crescere il crivello mentre aspettavo
+		Stato vecchio = this.stato;
+		if (n <= vecchio.capacita()) {
+			return vecchio;
+		}
+		int numeroSegmenti = (int) Math.min(MASSIMO_SEGMENTI, ((long) n + 1 + NUMERI_SEGMENTO - 1) / NUMERI_SEGMENTO);
+		long[][] segmenti = Arrays.copyOf(vecchio.segmenti, numeroSegmenti);
+		int[] primiPrima = Arrays.copyOf(vecchio.primiPrima, numeroSegmenti);
+		//Setaccio solo i segmenti nuovi; i vecchi sono condivisi con lo stato precedente
+		for (int i = vecchio.segmenti.length; i < numeroSegmenti; i++) {
+			long[] parole = new long[TabellaBitDispari.PAROLE_SEGMENTO];
+			CrivelloSegmentato.setacciaSegmento(parole, 0, parole.length, (long) i * BIT_SEGMENTO, primiBase);
+			segmenti[i] = parole;
+			primiPrima[i] = primiPrima[i - 1] + primiDispari(segmenti[i - 1]);
+		}
+		Stato nuovo = new Stato(segmenti, primiPrima);
+		this.stato = nuovo;
+		return nuovo;
+	}
+
+	//Primo strettamente maggiore di k tra quelli dello stato, oppure -1
+	private static int successivo(Stato s, int k) {
+		if (k < 2) {
+			return 2;
+		}
+		//Primo dispari strettamente maggiore di k, in long per evitare l'overflow
+		long bit = ((long) k + 1) >>> 1;
+		int segmento = (int) (bit / BIT_SEGMENTO);
+		if (segmento >= s.segmenti.length) {
+			return -1;
+		}
+		int parola = (int) (bit % BIT_SEGMENTO) >>> 6;
+		long primi = ~s.segmenti[segmento][parola] & (-1L << bit);
+		while (primi == 0) {
+			if (++parola == TabellaBitDispari.PAROLE_SEGMENTO) {
+				if (++segmento == s.segmenti.length) {
+					return -1;
+				}
+				parola = 0;
+			}
+			primi = ~s.segmenti[segmento][parola];
+		}
+		return numero(segmento, parola, Long.numberOfTrailingZeros(primi));
+	}
+
+	//Restituisce true se il dispari di indice i è composto
+	private static boolean composto(Stato s, int i) {
+		long[] parole = s.segmenti[i / BIT_SEGMENTO];
+		return (parole[(i % BIT_SEGMENTO) >>> 6] & (1L << i)) != 0;
+	}
+
+	//Numero rappresentato da un bit di una parola di un segmento
+	private static int numero(int segmento, int parola, int bit) {
+		return (int) (((long) segmento * BIT_SEGMENTO + ((long) parola << 6) + bit) * 2 + 1);
+	}
+
+	//Numero di primi dispari in un segmento
+	private static int primiDispari(long[] parole) {
+		int primi = 0;
+		for (long w : parole) {
+			primi += Long.bitCount(~w);
+		}
+		return primi;
+	}
+
+}
@@ -0,0 +1,156 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Arrays;
+
+/**
+ * Crivello lineare che calcola in una sola passata, per tutti i numeri fino a
+ * un limite, il numero dei divisori, la somma dei divisori e la funzione phi di
+ * Eulero. Sono funzioni moltiplicative, per cui il valore di {@code p*i}, con
+ * {@code p} il fattore minimo di {@code p*i}, si ricava in tempo costante da
+ * quello di {@code i}: basta sapere con che esponente {@code p} compare in
+ * {@code i} e quanto vale la parte di {@code i} senza {@code p}. In tutto il
+ * crivello costa {@code O(n)} e nessuna fattorizzazione o multinsieme.
+ *
+ * Dopo la costruzione ogni valore si legge da un array in tempo costante. Le
+ * tabelle occupano 16 byte per ogni numero fino al limite (due {@code int} e un
+ * {@code long}), più 5 byte per numero usati solo durante la costruzione. Per
+ * numeri singoli o sparsi conviene invece {@link Factoriser#factorise(long)}
+ * seguita da {@link Factorisation#divisorCount()},
+ * {@link Factorisation#divisorSum()} e {@link Factorisation#totient()}.
+ *
+ * @author Joel Sina
+ *
+ */
+public final class CrivelloMoltiplicativo {
+
+	private final int limite;
+	private final int[] divisori;
+	private final long[] sommaDivisori;
+	private final int[] phi;
+
+	/**
+	 * Costruisce le tabelle delle funzioni per tutti i numeri da 1 al limite.
+	 *
+	 * @param limite il numero più grande di cui calcolare le funzioni
+	 * @throws IllegalArgumentException se il limite è minore di 1 o uguale a
+	 *                                  {@code Integer.MAX_VALUE}
+	 */
+	public CrivelloMoltiplicativo(int limite) {
+		if (limite < 1 || limite == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Il limite deve essere compreso tra 1 e Integer.MAX_VALUE - 1");
+		}
+		this.limite = limite;
+		this.divisori = new int[limite + 1];
+		this.sommaDivisori = new long[limite + 1];
+		this.phi = new int[limite + 1];
+		divisori[1] = 1;
+		sommaDivisori[1] = 1;
+		phi[1] = 1;
+
+		//esponente[i] è l'esponente del fattore minimo p di i e potenza[i] è
+		//p^esponente[i]; potenza[i] == 0 vuol dire che i non è ancora stato
+		//marcato, cioè che è primo
+		byte[] esponente = new byte[limite + 1];
+		int[] potenza = new int[limite + 1];
+		int[] primi = new int[16];
+		int quanti = 0;
+		for (int i = 2; i <= limite; i++) {
+			if (potenza[i] == 0) {
+				esponente[i] = 1;
+				potenza[i] = i;
+				divisori[i] = 2;
+				sommaDivisori[i] = (long) i + 1;
+				phi[i] = i - 1;
+				if (i > limite / 2) {
+					continue;
+				}
+				if (quanti == primi.length) {
+					primi = Arrays.copyOf(primi, quanti * 2);
+				}
+				primi[quanti++] = i;
+			}
+			//Ogni composto p*i viene calcolato una sola volta, dal suo fattore minimo p
+			for (int j = 0; j < quanti; j++) {
+				int p = primi[j];
+				if ((long) p * i > limite) {
+					break;
+				}
+				int k = p * i;
+				if (i % p != 0) {
+					//p non divide i: le funzioni si moltiplicano
+					esponente[k] = 1;
+					potenza[k] = p;
+					divisori[k] = 2 * divisori[i];
+					sommaDivisori[k] = (p + 1) * sommaDivisori[i];
+					phi[k] = (p - 1) * phi[i];
+				} else {
+					//p è il fattore minimo di i: cambia solo il termine di p.
+					//Con i = p^e m vale sigma(p i) = p sigma(i) + sigma(m)
+					int e = esponente[i];
+					esponente[k] = (byte) (e + 1);
+					potenza[k] = potenza[i] * p;
+					divisori[k] = divisori[i] / (e + 1) * (e + 2);
+					sommaDivisori[k] = p * sommaDivisori[i] + sommaDivisori[i / potenza[i]];
+					phi[k] = p * phi[i];
+					//I primi successivi non sono il fattore minimo di i*p
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restituisce il numero più grande di cui sono state calcolate le funzioni.
+	 *
+	 * @return il limite di questo crivello
+	 */
+	public int getLimit() {
+		return limite;
+	}
+
+	/**
+	 * Restituisce il numero dei divisori positivi di un numero.
+	 *
+	 * @param n il numero
+	 * @return il numero dei divisori di {@code n}
+	 * @throws IllegalArgumentException se {@code n} è minore di 1 o maggiore
+	 *                                  del limite
+	 */
+	public int divisorCount(int n) {
+		controlla(n);
+		return divisori[n];
+	}
+
+	/**
+	 * Restituisce la somma dei divisori positivi di un numero.
+	 *
+	 * @param n il numero
+	 * @return la somma dei divisori di {@code n}
+	 * @throws IllegalArgumentException se {@code n} è minore di 1 o maggiore
+	 *                                  del limite
+	 */
+	public long divisorSum(int n) {
+		controlla(n);
+		return sommaDivisori[n];
+	}
+
+	/**
+	 * Restituisce la funzione phi di Eulero di un numero.
+	 *
+	 * @param n il numero
+	 * @return quanti numeri da 1 a {@code n} sono primi con {@code n}
+	 * @throws IllegalArgumentException se {@code n} è minore di 1 o maggiore
+	 *                                  del limite
+	 */
+	public int totient(int n) {
+		controlla(n);
+		return phi[n];
+	}
+
+	private void controlla(int n) {
+		if (n < 1 || n > limite) {
+			throw new IllegalArgumentException("Il numero deve essere compreso tra 1 e il limite");
+		}
+	}
+
+}
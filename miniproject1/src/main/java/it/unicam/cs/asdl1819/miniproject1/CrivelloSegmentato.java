@@ -0,0 +1,286 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Crivello di Eratostene segmentato per trovare i numeri primi in intervalli
+ * {@code [from, to]} arbitrari, anche molto oltre {@code Integer.MAX_VALUE}.
+ *
+ * L'intervallo viene diviso in blocchi di dimensione fissa, scelta in modo che
+ * un blocco stia nella cache L1/L2 del processore. Ogni blocco memorizza solo i
+ * numeri dispari, un bit ciascuno come in {@link TabellaBitDispari}, e viene
+ * setacciato con i primi base fino a {@code sqrt(to)}, calcolati una volta con
+ * un {@link CrivelloDiEratostene}. La memoria usata dipende quindi solo dalla
+ * dimensione del blocco e da {@code sqrt(to)}, non dalla lunghezza
+ * dell'intervallo, tranne che per {@link #primesBetween(long, long)} che deve
+ * restituire tutti i primi trovati.
+ *
+ * Un oggetto di questa classe non è thread-safe, perché riusa il blocco e i
+ * primi base tra una chiamata e l'altra.
+ *
+ * @author Joel Sina
+ *
+ */
+public class CrivelloSegmentato {
+
+	/**
+	 * Dimensione predefinita di un blocco in byte, pari a una cache L1 dati
+	 * tipica.
+	 */
+	public static final int DIMENSIONE_BLOCCO_PREDEFINITA = 1 << 15;
+
+	/**
+	 * Dimensione massima di un blocco in byte, 128 MB. Con blocchi più grandi il
+	 * numero di bit di un blocco e gli indici dei bit calcolati come
+	 * {@code int} supererebbero {@code Integer.MAX_VALUE}.
+	 */
+	public static final int DIMENSIONE_BLOCCO_MASSIMA = 1 << 27;
+
+	/**
+	 * Numero più grande che può essere richiesto, scelto in modo che i primi
+	 * base stiano in un {@link CrivelloDiEratostene}.
+	 */
+	public static final long MASSIMO = (long) Integer.MAX_VALUE * Integer.MAX_VALUE;
+
+	// Blocco riusato per ogni segmento, bit a 1 se il dispari è composto
+	private final long[] blocco;
+
+	// Primi dispari fino a limiteBase, calcolati solo quando servono più grandi
+	private int[] primiBase = new int[0];
+	private long limiteBase = 0;
+
+	/**
+	 * Crea un crivello segmentato con blocchi di
+	 * {@link #DIMENSIONE_BLOCCO_PREDEFINITA} byte.
+	 */
+	public CrivelloSegmentato() {
+		this(DIMENSIONE_BLOCCO_PREDEFINITA);
+	}
+
+	/**
+	 * Crea un crivello segmentato con blocchi della dimensione indicata.
+	 *
+	 * @param dimensioneBlocco la dimensione di un blocco in byte, arrotondata per
+	 *                         eccesso a un multiplo di 8
+	 * @throws IllegalArgumentException se la dimensione non è positiva o supera
+	 *                                  {@link #DIMENSIONE_BLOCCO_MASSIMA}
+	 */
+	public CrivelloSegmentato(int dimensioneBlocco) {
+		if (dimensioneBlocco < 1 || dimensioneBlocco > DIMENSIONE_BLOCCO_MASSIMA) {
+			throw new IllegalArgumentException("La dimensione del blocco deve essere compresa tra 1 e "
+					+ DIMENSIONE_BLOCCO_MASSIMA);
+		}
+		this.blocco = new long[(dimensioneBlocco + 7) >>> 3];
+	}
+
+	/**
+	 * Passa a un'azione, in ordine crescente, tutti i numeri primi compresi
+	 * nell'intervallo {@code [from, to]}. Usa memoria costante rispetto alla
+	 * lunghezza dell'intervallo.
+	 *
+	 * @param from   inizio dell'intervallo, incluso
+	 * @param to     fine dell'intervallo, inclusa
+	 * @param azione l'azione da eseguire su ogni primo
+	 * @throws IllegalArgumentException se {@code from} è negativo o se {@code to}
+	 *                                  supera {@link #MASSIMO}
+	 * @throws NullPointerException     se l'azione è nulla
+	 */
+	public void forEachPrime(long from, long to, final LongConsumer azione) {
+		if (azione == null) {
+			throw new NullPointerException("L'azione non può essere nulla");
+		}
+		controllaIntervallo(from, to);
+		if (from <= 2 && to >= 2) {
+			azione.accept(2);
+		}
+		setaccia(from, to, new Visitatore() {
+			public void visita(long[] parole, long primoBit, int numeroBit) {
+				for (int w = 0; w << 6 < numeroBit; w++) {
+					long primi = ~parole[w];
+					if ((w + 1) << 6 > numeroBit) {
+						primi &= (1L << numeroBit) - 1;
+					}
+					while (primi != 0) {
+						long bit = primoBit + (w << 6) + Long.numberOfTrailingZeros(primi);
+						azione.accept(2 * bit + 1);
+						primi &= primi - 1;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Conta i numeri primi compresi nell'intervallo {@code [from, to]} senza
+	 * memorizzarli.
+	 *
+	 * @param from inizio dell'intervallo, incluso
+	 * @param to   fine dell'intervallo, inclusa
+	 * @return il numero di primi nell'intervallo
+	 * @throws IllegalArgumentException se {@code from} è negativo o se {@code to}
+	 *                                  supera {@link #MASSIMO}
+	 */
+	public long countPrimes(long from, long to) {
+		controllaIntervallo(from, to);
+		final long[] conta = new long[1];
+		if (from <= 2 && to >= 2) {
+			conta[0]++;
+		}
+		setaccia(from, to, new Visitatore() {
+			public void visita(long[] parole, long primoBit, int numeroBit) {
+				//Conto i bit a 0 una parola alla volta
+				int piene = numeroBit >>> 6;
+				for (int w = 0; w < piene; w++) {
+					conta[0] += Long.bitCount(~parole[w]);
+				}
+				if ((numeroBit & 63) != 0) {
+					conta[0] += Long.bitCount(~parole[piene] & ((1L << numeroBit) - 1));
+				}
+			}
+		});
+		return conta[0];
+	}
+
+	/**
+	 * Restituisce i numeri primi compresi nell'intervallo {@code [from, to]} in
+	 * ordine crescente. A differenza degli altri metodi la memoria usata è
+	 * proporzionale al numero di primi trovati.
+	 *
+	 * @param from inizio dell'intervallo, incluso
+	 * @param to   fine dell'intervallo, inclusa
+	 * @return un array ordinato con i primi nell'intervallo
+	 * @throws IllegalArgumentException se {@code from} è negativo o se {@code to}
+	 *                                  supera {@link #MASSIMO}
+	 */
+	public long[] primesBetween(long from, long to) {
+		final long[][] primi = { new long[16] };
+		final int[] quanti = new int[1];
+		forEachPrime(from, to, new LongConsumer() {
+			public void accept(long p) {
+				if (quanti[0] == primi[0].length) {
+					primi[0] = Arrays.copyOf(primi[0], quanti[0] * 2);
+				}
+				primi[0][quanti[0]++] = p;
+			}
+		});
+		return Arrays.copyOf(primi[0], quanti[0]);
+	}
+
+	/*
+	 * Riceve i blocchi già setacciati: il bit j di parole rappresenta il dispari
+	 * 2*(primoBit+j)+1 e vale 1 se è composto. Sono validi solo i primi
+	 * numeroBit bit.
+	 */
+	private interface Visitatore {
+		void visita(long[] parole, long primoBit, int numeroBit);
+	}
+
+	//Setaccia i dispari in [from, to] un blocco alla volta
+	private void setaccia(long from, long to, Visitatore visitatore) {
+		if (from > to || to < 3) {
+			return;
+		}
+		aggiornaPrimiBase(radice(to));
+		//Indice del primo dispari >= from e dell'ultimo dispari <= to
+		long bit = from >>> 1;
+		long ultimoBit = (to - 1) >>> 1;
+		long bitBlocco = (long) blocco.length << 6;
+		while (bit <= ultimoBit) {
+			int numeroBit = (int) Math.min(bitBlocco, ultimoBit - bit + 1);
+			int numeroParole = (numeroBit + 63) >>> 6;
+			Arrays.fill(blocco, 0, numeroParole, 0L);
+			setacciaSegmento(blocco, 0, numeroParole, bit, primiBase);
+			visitatore.visita(blocco, bit, numeroBit);
+			bit += numeroBit;
+		}
+	}
+
+	/**
+	 * Marca come composti i dispari di un segmento. Il bit {@code j} delle
+	 * parole da {@code primaParola} a {@code primaParola + numeroParole - 1}
+	 * rappresenta il dispari {@code 2*(primoBit+j)+1}. Il numero {@code 1} viene
+	 * marcato come non primo; i primi base devono essere dispari, in ordine
+	 * crescente e comprendere tutti quelli fino alla radice dell'ultimo numero
+	 * del segmento.
+	 *
+	 * @param parole       le parole da setacciare, inizialmente a 0
+	 * @param primaParola  la prima parola del segmento
+	 * @param numeroParole il numero di parole del segmento
+	 * @param primoBit     l'indice del dispari rappresentato dal primo bit
+	 * @param primiBase    i primi dispari con cui setacciare
+	 */
+	static void setacciaSegmento(long[] parole, int primaParola, int numeroParole, long primoBit,
+			int[] primiBase) {
+		long bitSegmento = (long) numeroParole << 6;
+		long inizio = 2 * primoBit + 1;
+		long fine = 2 * (primoBit + bitSegmento) - 1;
+		long base = (long) primaParola << 6;
+		if (primoBit == 0) {
+			parole[primaParola] |= 1L;
+		}
+		for (int p : primiBase) {
+			long quadrato = (long) p * p;
+			if (quadrato > fine) {
+				break;
+			}
+			//Primo multiplo dispari di p nel segmento, non inferiore a p*p
+			long m = Math.max(quadrato, (inizio + p - 1) / p * p);
+			if ((m & 1) == 0) {
+				m += p;
+			}
+			//Tra due multipli dispari consecutivi ci sono p bit
+			for (long j = ((m - 1) >>> 1) - primoBit; j < bitSegmento; j += p) {
+				long b = base + j;
+				parole[(int) (b >>> 6)] |= 1L << b;
+			}
+		}
+	}
+
+	//Calcola i primi dispari fino a limite, se quelli già calcolati non bastano
+	private void aggiornaPrimiBase(long limite) {
+		if (limite <= limiteBase) {
+			return;
+		}
+		int[] primi = new int[16];
+		int quanti = 0;
+		if (limite >= 3) {
+			CrivelloDiEratostene c = new CrivelloDiEratostene((int) limite);
+			for (int p = c.nextPrime(2); p != -1; p = c.nextPrime(p)) {
+				if (quanti == primi.length) {
+					primi = Arrays.copyOf(primi, quanti * 2);
+				}
+				primi[quanti++] = p;
+			}
+		}
+		this.primiBase = Arrays.copyOf(primi, quanti);
+		this.limiteBase = limite;
+	}
+
+	/**
+	 * Calcola la parte intera della radice quadrata di un numero non negativo.
+	 *
+	 * @param x il numero di cui calcolare la radice
+	 * @return il più grande {@code r} tale che {@code r*r <= x}
+	 */
+	static long radice(long x) {
+		long r = (long) Math.sqrt((double) x);
+		while (r * r > x) {
+			r--;
+		}
+		while ((r + 1) * (r + 1) <= x) {
+			r++;
+		}
+		return r;
+	}
+
+	private static void controllaIntervallo(long from, long to) {
+		if (from < 0) {
+			throw new IllegalArgumentException("L'inizio dell'intervallo non può essere negativo");
+		}
+		if (to > MASSIMO) {
+			throw new IllegalArgumentException("La fine dell'intervallo supera il massimo consentito");
+		}
+	}
+
+}
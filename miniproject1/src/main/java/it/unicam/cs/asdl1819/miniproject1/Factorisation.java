@@ -0,0 +1,231 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Arrays;
+
+/**
+ * Fattorizzazione compatta e immutabile di un numero: i fattori primi distinti
+ * in ordine crescente e i rispettivi esponenti, in due array paralleli. Occupa
+ * pochi byte per fattore invece di un nodo e un oggetto {@code Long} come un
+ * {@link MyMultiset}, per cui è adatta a restituire i risultati di molte
+ * fattorizzazioni insieme.
+ *
+ * @author Joel Sina
+ *
+ */
+public final class Factorisation {
+
+	private final long numero;
+	private final long[] primi;
+	private final int[] esponenti;
+
+	/**
+	 * Crea una fattorizzazione. Gli array vengono copiati.
+	 *
+	 * @param numero    il numero fattorizzato
+	 * @param primi     i fattori primi distinti in ordine crescente
+	 * @param esponenti gli esponenti dei fattori, nello stesso ordine
+	 * @throws IllegalArgumentException se gli array hanno lunghezze diverse
+	 * @throws NullPointerException     se uno degli array è nullo
+	 */
+	public Factorisation(long numero, long[] primi, int[] esponenti) {
+		if (primi.length != esponenti.length) {
+			throw new IllegalArgumentException("Primi ed esponenti devono avere la stessa lunghezza");
+		}
+		this.numero = numero;
+		this.primi = primi.clone();
+		this.esponenti = esponenti.clone();
+	}
+
+	/**
+	 * Restituisce il numero fattorizzato.
+	 *
+	 * @return il numero di cui questa è la fattorizzazione
+	 */
+	public long getNumber() {
+		return numero;
+	}
+
+	/**
+	 * Restituisce il numero di fattori primi distinti.
+	 *
+	 * @return il numero di fattori primi distinti, 0 per il numero 1
+	 */
+	public int distinctPrimes() {
+		return primi.length;
+	}
+
+	/**
+	 * Restituisce l'i-esimo fattore primo distinto, in ordine crescente.
+	 *
+	 * @param i la posizione del fattore, da 0
+	 * @return l'i-esimo fattore primo
+	 * @throws IndexOutOfBoundsException se {@code i} non è una posizione valida
+	 */
+	public long getPrime(int i) {
+		return primi[i];
+	}
+
+	/**
+	 * Restituisce l'esponente dell'i-esimo fattore primo distinto.
+	 *
+	 * @param i la posizione del fattore, da 0
+	 * @return l'esponente dell'i-esimo fattore primo
+	 * @throws IndexOutOfBoundsException se {@code i} non è una posizione valida
+	 */
+	public int getExponent(int i) {
+		return esponenti[i];
+	}
+
+	/**
+	 * Restituisce una copia dei fattori primi distinti in ordine crescente.
+	 *
+	 * @return i fattori primi distinti
+	 */
+	public long[] getPrimes() {
+		return primi.clone();
+	}
+
+	/**
+	 * Restituisce una copia degli esponenti, nello stesso ordine dei fattori.
+	 *
+	 * @return gli esponenti dei fattori primi
+	 */
+	public int[] getExponents() {
+		return esponenti.clone();
+	}
+
+	/**
+	 * Converte questa fattorizzazione nel multinsieme dei fattori primi
+	 * restituito da {@link Factoriser#getFactors(long)}.
+	 *
+	 * @return un nuovo multinsieme con i fattori primi e le loro molteplicità
+	 */
+	public Multiset<Long> toMultiset() {
+		Multiset<Long> fattori = new MyMultiset<Long>();
+		for (int i = 0; i < primi.length; i++) {
+			fattori.add(primi[i], esponenti[i]);
+		}
+		return fattori;
+	}
+
+	/**
+	 * Calcola il numero dei divisori positivi del numero, cioè il prodotto di
+	 * {@code e+1} su tutti gli esponenti {@code e}.
+	 *
+	 * @return il numero dei divisori, 1 per il numero 1
+	 */
+	public int divisorCount() {
+		int divisori = 1;
+		for (int e : esponenti) {
+			divisori *= e + 1;
+		}
+		return divisori;
+	}
+
+	/**
+	 * Calcola la somma dei divisori positivi del numero, cioè il prodotto di
+	 * {@code 1 + p + ... + p^e} su tutti i fattori {@code p^e}.
+	 *
+	 * @return la somma dei divisori, 1 per il numero 1
+	 * @throws ArithmeticException se la somma non sta in un {@code long}
+	 */
+	public long divisorSum() {
+		long somma = 1;
+		for (int i = 0; i < primi.length; i++) {
+			//1 + p + ... + p^e con lo schema di Horner
+			long termine = 1;
+			for (int j = 0; j < esponenti[i]; j++) {
+				termine = Math.addExact(Math.multiplyExact(termine, primi[i]), 1);
+			}
+			somma = Math.multiplyExact(somma, termine);
+		}
+		return somma;
+	}
+
+	/**
+	 * Calcola la funzione phi di Eulero del numero, cioè quanti numeri da 1 al
+	 * numero sono primi con esso: il prodotto di {@code p^(e-1) (p-1)} su tutti
+	 * i fattori {@code p^e}.
+	 *
+	 * @return il valore di phi, 1 per il numero 1
+	 */
+	public long totient() {
+		long phi = 1;
+		for (int i = 0; i < primi.length; i++) {
+			phi *= primi[i] - 1;
+			for (int j = 1; j < esponenti[i]; j++) {
+				phi *= primi[i];
+			}
+		}
+		return phi;
+	}
+
+	/**
+	 * Restituisce tutti i divisori positivi del numero in ordine crescente,
+	 * generati dalla fattorizzazione senza provare divisioni.
+	 *
+	 * @return un nuovo array con i divisori, lungo {@link #divisorCount()}
+	 */
+	public long[] divisors() {
+		long[] divisori = new long[divisorCount()];
+		divisori[0] = 1;
+		int quanti = 1;
+		//Per ogni fattore moltiplico i divisori già trovati per p, p^2, ..., p^e
+		for (int i = 0; i < primi.length; i++) {
+			int precedenti = quanti;
+			long potenza = 1;
+			for (int j = 0; j < esponenti[i]; j++) {
+				potenza *= primi[i];
+				for (int k = 0; k < precedenti; k++) {
+					divisori[quanti++] = divisori[k] * potenza;
+				}
+			}
+		}
+		Arrays.sort(divisori);
+		return divisori;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(esponenti);
+		result = prime * result + (int) (numero ^ (numero >>> 32));
+		result = prime * result + Arrays.hashCode(primi);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Factorisation other = (Factorisation) obj;
+		if (numero != other.numero)
+			return false;
+		if (!Arrays.equals(primi, other.primi))
+			return false;
+		if (!Arrays.equals(esponenti, other.esponenti))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder().append(numero).append(" =");
+		if (primi.length == 0) {
+			s.append(" 1");
+		}
+		for (int i = 0; i < primi.length; i++) {
+			s.append(i == 0 ? " " : " * ").append(primi[i]);
+			if (esponenti[i] > 1) {
+				s.append('^').append(esponenti[i]);
+			}
+		}
+		return s.toString();
+	}
+
+}
@@ -1,7 +1,10 @@
 package it.unicam.cs.asdl1819.miniproject1;
 
-import java.util.Iterator;
-import java.util.SortedSet;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Un fattorizzatore è un agente che fattorizza un qualsiasi numero naturale nei
@@ -11,6 +14,38 @@ import java.util.SortedSet;
  *
  */
 public class Factoriser {
+
+    /**
+     * Limite fino a cui {@link #getFactors(long)} prova i divisori primi prima di
+     * passare al metodo rho di Pollard.
+     */
+    public static final int LIMITE_DIVISIONI = 1 << 12;
+
+    //Cache da cui prendere il crivello dei primi, condivisa tra i fattorizzatori
+    private final CrivelloCondiviso crivelli;
+
+    /**
+     * Crea un fattorizzatore che usa la cache comune dei crivelli
+     * {@link CrivelloCondiviso#comune()}, condivisa da tutto il processo.
+     */
+    public Factoriser() {
+        this(CrivelloCondiviso.comune());
+    }
+
+    /**
+     * Crea un fattorizzatore che prende i numeri primi dalla cache di crivelli
+     * indicata.
+     * 
+     * @param crivelli la cache da cui prendere il crivello
+     * @throws NullPointerException se la cache è nulla
+     */
+    public Factoriser(CrivelloCondiviso crivelli) {
+        if (crivelli == null) {
+            throw new NullPointerException("La cache dei crivelli non può essere nulla");
+        }
+        this.crivelli = crivelli;
+    }
+
     /**
      * Fattorizza un numero restituendo il multinsieme dei suoi fattori primi. La
      * molteplicità di ogni fattore primo esprime quante volte il fattore stesso
@@ -25,35 +60,50 @@ public class Factoriser {
      */
 
     public Multiset<Integer> getFactors(int n) {
+        return getIntFactors(n);
+    }
+
+    /**
+     * Fattorizza un numero come {@link #getFactors(int)}, restituendo i fattori
+     * in un {@link IntMultiset}, che li memorizza come {@code int} senza creare
+     * un oggetto per ogni fattore.
+     * 
+     * @param n un numero intero da fattorizzare
+     * @return il multinsieme dei fattori primi di n
+     * @throws IllegalArgumentException se si chiede di fattorizzare un numero
+     *                                  minore di 1.
+     */
+    public IntMultiset getIntFactors(int n) {
     	if(n<1) {
     		throw new IllegalArgumentException("Stai cercando di fattorizzare un numero minore di 1");
     	}
-    	MyMultiset<Integer> fattori = new MyMultiset<Integer>();
+    	IntMultiset fattori = new IntMultiset();
     	
     	 if(n==1) {
          	return fattori;
          }
     	 
-    	//Creo un crivello passando come numero il parametro n sotto radice quadrata.
+    	//Chiedo alla cache un crivello che arrivi almeno a n sotto radice quadrata.
     	//Si utilizza inoltre Math.ceil per ottenere il più piccolo double che è maggiore del valore
     	// Il tutto viene castato ad un intero
-    	CrivelloDiEratostene c = new CrivelloDiEratostene((int)Math.ceil(Math.sqrt(n)));
-    	//Ricevo i numeri primi dal crivello
-        SortedSet<Integer> s = c.getPrimes();
-        //Creo l'iterator per scorrere la lista
-        Iterator<Integer> iter = s.iterator();
+    	CrivelloDiEratostene c = crivelli.crivello((int)Math.ceil(Math.sqrt(n)));
+    	//Ricevo i numeri primi dal crivello come array di int, senza costruire un TreeSet
+        int[] primi = c.primi();
         
         boolean next = false;
-        //Scorro finché esiste un prossimo elemento
-        while(iter.hasNext()) {
-        	Integer item = iter.next();
+        //Scorro i numeri primi finché il loro quadrato non supera quello che resta di n:
+        //il crivello della cache può essere più grande del necessario
+        for(int item : primi) {
+        	if((long) item * item > n) {
+        		break;
+        	}
         	next = false;
         	//Scorro finché il flag next è diverso da false quindi true, per inserire
         	//l'elemento più volte. Appena si va nell'else si esce dal ciclo e si prende il prossimo
-        	//numero contenuto nel SortedSet resituito dal crivello
+        	//numero primo restituito dal crivello
         	while(!next) {
         		if(n%item == 0) {
-            		fattori.add(item);
+            		fattori.addInt(item);
             		n /= item;
             	}else {
             		next = true;
@@ -63,10 +113,297 @@ public class Factoriser {
         
         //Se alla fine del ciclo, n è diverso da 1 allora lo aggiungiamo
         if(n != 1) {
-        	fattori.add(n);
+        	fattori.addInt(n);
         }
         
         return fattori;
     }
 
+    /**
+     * Fattorizza un numero {@code long} restituendo il multinsieme dei suoi
+     * fattori primi, con le stesse convenzioni di {@link #getFactors(int)}. I
+     * fattori minori di {@link #LIMITE_DIVISIONI} vengono trovati per divisione;
+     * quello che resta viene spezzato con il metodo rho di Pollard nella
+     * variante di Brent finché il test di {@link MillerRabin} non dice che i
+     * pezzi sono primi. In questo modo si possono fattorizzare anche numeri
+     * molto più grandi di {@code Integer.MAX_VALUE}, come i semiprimi con due
+     * fattori dello stesso ordine di grandezza.
+     * 
+     * @param n un numero intero da fattorizzare
+     * @return il multinsieme dei fattori primi di n
+     * @throws IllegalArgumentException se si chiede di fattorizzare un numero
+     *                                  minore di 1.
+     */
+    public Multiset<Long> getFactors(long n) {
+        return factorise(n).toMultiset();
+    }
+
+    /**
+     * Fattorizza un numero {@code long} come {@link #getFactors(long)}, ma
+     * restituisce la fattorizzazione in forma compatta, con i fattori primi
+     * distinti in ordine crescente e i loro esponenti.
+     * 
+     * @param n un numero intero da fattorizzare
+     * @return la fattorizzazione di n
+     * @throws IllegalArgumentException se si chiede di fattorizzare un numero
+     *                                  minore di 1.
+     */
+    public Factorisation factorise(long n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Stai cercando di fattorizzare un numero minore di 1");
+        }
+        return fattorizza(n, crivelli.crivello(LIMITE_DIVISIONI).primi(), LIMITE_DIVISIONI);
+    }
+
+    /**
+     * Fattorizza tutti i numeri di un array, dividendo il lavoro tra più thread
+     * di un {@link ForkJoinPool}. L'array viene diviso ricorsivamente in
+     * intervalli piccoli, così i thread che finiscono prima rubano il lavoro
+     * rimasto agli altri anche quando alcuni numeri costano molto più degli
+     * altri. Tutti i thread usano lo stesso crivello, preso una volta sola dalla
+     * cache prima di iniziare.
+     *
+     * Il parallelismo viene limitato al numero di processori disponibili. Il
+     * pool viene creato alla prima chiamata con un certo parallelismo e
+     * riusato in quelle successive, o è il pool comune se ha il parallelismo
+     * richiesto; per usare un pool proprio c'è
+     * {@link #factoriseAll(int[], ForkJoinPool)}.
+     * 
+     * @param numeri       i numeri da fattorizzare
+     * @param parallelismo il numero di thread da usare, al più il numero di
+     *                     processori; con 1 il lavoro viene fatto nel thread
+     *                     corrente
+     * @return le fattorizzazioni, nello stesso ordine dei numeri
+     * @throws IllegalArgumentException se uno dei numeri è minore di 1 o se il
+     *                                  parallelismo è minore di 1
+     * @throws NullPointerException     se l'array è nullo
+     */
+    public Factorisation[] factoriseAll(int[] numeri, int parallelismo) {
+        return fattorizzaInteri(numeri, pool(parallelismo));
+    }
+
+    /**
+     * Fattorizza tutti i numeri di un array come
+     * {@link #factoriseAll(int[], int)}, eseguendo il lavoro nel pool
+     * indicato, che resta di chi lo passa e non viene chiuso.
+     * 
+     * @param numeri i numeri da fattorizzare
+     * @param pool   il pool su cui eseguire le fattorizzazioni
+     * @return le fattorizzazioni, nello stesso ordine dei numeri
+     * @throws IllegalArgumentException se uno dei numeri è minore di 1
+     * @throws NullPointerException     se l'array o il pool sono nulli
+     */
+    public Factorisation[] factoriseAll(int[] numeri, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullPointerException("Il pool non può essere nullo");
+        }
+        return fattorizzaInteri(numeri, pool);
+    }
+
+    //Con un pool null il lavoro viene fatto nel thread corrente
+    private Factorisation[] fattorizzaInteri(int[] numeri, ForkJoinPool pool) {
+        if (numeri == null) {
+            throw new NullPointerException("L'array dei numeri non può essere nullo");
+        }
+        long[] numeriLong = new long[numeri.length];
+        int massimo = 1;
+        for (int i = 0; i < numeri.length; i++) {
+            numeriLong[i] = numeri[i];
+            massimo = Math.max(massimo, numeri[i]);
+        }
+        //Con un crivello fino alla radice del massimo non serve mai il metodo rho
+        int radice = Math.max(2, (int) CrivelloSegmentato.radice(massimo) + 1);
+        return fattorizzaTutti(numeriLong, crivelli.crivello(radice).primi(), radice, pool);
+    }
+
+    /**
+     * Fattorizza tutti i numeri di un array di {@code long} come
+     * {@link #factoriseAll(int[], int)}, usando per ogni numero lo stesso
+     * procedimento di {@link #getFactors(long)}.
+     * 
+     * @param numeri       i numeri da fattorizzare
+     * @param parallelismo il numero di thread da usare, al più il numero di
+     *                     processori; con 1 il lavoro viene fatto nel thread
+     *                     corrente
+     * @return le fattorizzazioni, nello stesso ordine dei numeri
+     * @throws IllegalArgumentException se uno dei numeri è minore di 1 o se il
+     *                                  parallelismo è minore di 1
+     * @throws NullPointerException     se l'array è nullo
+     */
+    public Factorisation[] factoriseAll(long[] numeri, int parallelismo) {
+        return fattorizzaLunghi(numeri, pool(parallelismo));
+    }
+
+    /**
+     * Fattorizza tutti i numeri di un array di {@code long} come
+     * {@link #factoriseAll(long[], int)}, eseguendo il lavoro nel pool
+     * indicato, che resta di chi lo passa e non viene chiuso.
+     * 
+     * @param numeri i numeri da fattorizzare
+     * @param pool   il pool su cui eseguire le fattorizzazioni
+     * @return le fattorizzazioni, nello stesso ordine dei numeri
+     * @throws IllegalArgumentException se uno dei numeri è minore di 1
+     * @throws NullPointerException     se l'array o il pool sono nulli
+     */
+    public Factorisation[] factoriseAll(long[] numeri, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullPointerException("Il pool non può essere nullo");
+        }
+        return fattorizzaLunghi(numeri, pool);
+    }
+
+    //Con un pool null il lavoro viene fatto nel thread corrente
+    private Factorisation[] fattorizzaLunghi(long[] numeri, ForkJoinPool pool) {
+        if (numeri == null) {
+            throw new NullPointerException("L'array dei numeri non può essere nullo");
+        }
+        return fattorizzaTutti(numeri, crivelli.crivello(LIMITE_DIVISIONI).primi(), LIMITE_DIVISIONI, pool);
+    }
+
+    //Numero di elementi sotto cui un compito non viene più diviso
+    private static final int SOGLIA_COMPITO = 64;
+
+    /*
+     * Il crivello della cache può andare oltre il limite, se altri lo hanno
+     * ingrandito: ogni numero viene diviso solo per i primi fino al limite.
+     */
+    private static Factorisation[] fattorizzaTutti(long[] numeri, int[] primi, int limite, ForkJoinPool pool) {
+        //Controllo tutti i numeri prima di iniziare, così un errore non lascia lavoro a metà
+        for (long n : numeri) {
+            if (n < 1) {
+                throw new IllegalArgumentException("Stai cercando di fattorizzare un numero minore di 1");
+            }
+        }
+        Factorisation[] risultato = new Factorisation[numeri.length];
+        if (pool == null) {
+            for (int i = 0; i < numeri.length; i++) {
+                risultato[i] = fattorizza(numeri[i], primi, limite);
+            }
+            return risultato;
+        }
+        pool.invoke(new FattorizzaIntervallo(numeri, primi, limite, risultato, 0, numeri.length));
+        return risultato;
+    }
+
+    //Pool già creati, al più uno per ogni parallelismo fino al numero di processori
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOL = new ConcurrentHashMap<Integer, ForkJoinPool>();
+
+    /*
+     * Restituisce un pool con il parallelismo richiesto, limitato al numero di
+     * processori, creandolo solo la prima volta: chi chiama factoriseAll molte
+     * volte non paga ogni volta la creazione e la chiusura dei thread. Se
+     * basta, si usa il pool comune. I thread dei pool sono daemon e si
+     * chiudono da soli quando restano inattivi. Con parallelismo 1 restituisce
+     * null, cioè lavoro nel thread corrente.
+     */
+    private static ForkJoinPool pool(int parallelismo) {
+        if (parallelismo < 1) {
+            throw new IllegalArgumentException("Il parallelismo deve essere almeno 1");
+        }
+        int thread = Math.min(parallelismo, Runtime.getRuntime().availableProcessors());
+        if (thread == 1) {
+            return null;
+        }
+        if (thread == ForkJoinPool.getCommonPoolParallelism()) {
+            return ForkJoinPool.commonPool();
+        }
+        return POOL.computeIfAbsent(thread, ForkJoinPool::new);
+    }
+
+    /*
+     * Compito che fattorizza i numeri da inizio a fine escluso, dividendosi a
+     * metà finché l'intervallo non è sotto la soglia. Ogni compito scrive in
+     * posizioni diverse del risultato.
+     */
+    private static final class FattorizzaIntervallo extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] numeri;
+        private final int[] primi;
+        private final int limite;
+        private final Factorisation[] risultato;
+        private final int inizio;
+        private final int fine;
+
+        FattorizzaIntervallo(long[] numeri, int[] primi, int limite, Factorisation[] risultato, int inizio,
+                int fine) {
+            this.numeri = numeri;
+            this.primi = primi;
+            this.limite = limite;
+            this.risultato = risultato;
+            this.inizio = inizio;
+            this.fine = fine;
+        }
+
+        @Override
+        protected void compute() {
+            if (fine - inizio <= SOGLIA_COMPITO) {
+                for (int i = inizio; i < fine; i++) {
+                    risultato[i] = fattorizza(numeri[i], primi, limite);
+                }
+                return;
+            }
+            int meta = (inizio + fine) >>> 1;
+            invokeAll(new FattorizzaIntervallo(numeri, primi, limite, risultato, inizio, meta),
+                    new FattorizzaIntervallo(numeri, primi, limite, risultato, meta, fine));
+        }
+    }
+
+    /*
+     * Fattorizza n provando prima i divisori primi dati fino a limite, in ordine
+     * crescente, e spezzando con il metodo rho quello che resta. Il limite
+     * serve perché il crivello della cache condivisa può essere molto più
+     * grande del necessario, se altri lo hanno ingrandito: senza, il costo
+     * dipenderebbe da loro. Un long ha al massimo 15 fattori primi distinti e,
+     * dopo i divisori piccoli, al massimo 63 fattori contando le ripetizioni.
+     */
+    static Factorisation fattorizza(long n, int[] primi, int limite) {
+        long numero = n;
+        long[] fattori = new long[64];
+        int[] esponenti = new int[64];
+        int quanti = 0;
+
+        //Tolgo prima i fattori piccoli, che sono i più frequenti
+        for (int p : primi) {
+            if (p > limite || (long) p * p > n) {
+                break;
+            }
+            if (n % p == 0) {
+                int molteplicita = 0;
+                do {
+                    n /= p;
+                    molteplicita++;
+                } while (n % p == 0);
+                fattori[quanti] = p;
+                esponenti[quanti++] = molteplicita;
+            }
+        }
+
+        //Quello che resta, se non è 1, ha solo fattori più grandi dei divisori provati
+        if (n != 1) {
+            long[] grandi = new long[64];
+            int quantiGrandi = spezza(n, grandi, 0);
+            Arrays.sort(grandi, 0, quantiGrandi);
+            for (int i = 0; i < quantiGrandi; i++) {
+                if (i > 0 && grandi[i] == grandi[i - 1]) {
+                    esponenti[quanti - 1]++;
+                } else {
+                    fattori[quanti] = grandi[i];
+                    esponenti[quanti++] = 1;
+                }
+            }
+        }
+        return new Factorisation(numero, Arrays.copyOf(fattori, quanti), Arrays.copyOf(esponenti, quanti));
+    }
+
+    //Aggiunge ai pezzi i fattori primi di n a partire da quanti; restituisce il nuovo numero di pezzi
+    private static int spezza(long n, long[] pezzi, int quanti) {
+        if (MillerRabin.isPrime(n)) {
+            pezzi[quanti] = n;
+            return quanti + 1;
+        }
+        long d = PollardRho.fattore(n);
+        return spezza(n / d, pezzi, spezza(d, pezzi, quanti));
+    }
+
 }
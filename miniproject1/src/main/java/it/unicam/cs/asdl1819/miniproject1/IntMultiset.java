@@ -0,0 +1,573 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Multiset di interi memorizzato in una tabella hash a indirizzamento aperto
+ * senza oggetti: due array paralleli con gli elementi e le loro frequenze, in
+ * cui una frequenza 0 indica una posizione libera. Le collisioni si risolvono
+ * con la scansione lineare e le rimozioni spostano indietro gli elementi
+ * successivi, per cui non servono marcatori di posizioni cancellate. La
+ * tabella è tenuta piena al più per metà e occupa 16 byte per elemento
+ * distinto, contro gli oltre 80 di un elemento di {@link MyMultiset} con il
+ * suo {@code Integer}.
+ *
+ * Oltre ai metodi di {@link Multiset}, che accettano e restituiscono
+ * {@code Integer}, offre gli stessi metodi sugli {@code int} ({@link #addInt},
+ * {@link #countInt}, ...), un iteratore e {@link #forEachEntryInt} che non
+ * creano oggetti. Uguaglianza e
+ * codice hash seguono le regole di {@link MyMultiset}, per cui un
+ * {@code IntMultiset} è uguale a qualsiasi multiset con gli stessi elementi e
+ * le stesse frequenze.
+ *
+ * @author Joel Sina
+ *
+ */
+public class IntMultiset implements Multiset<Integer> {
+
+	/**
+	 * Azione da eseguire su un elemento distinto e la sua frequenza, senza
+	 * convertirli in oggetti.
+	 */
+	@FunctionalInterface
+	public interface IntEntryConsumer {
+		/**
+		 * Esegue l'azione.
+		 *
+		 * @param element l'elemento
+		 * @param count   la sua frequenza
+		 */
+		void accept(int element, int count);
+	}
+
+	// Capacità minima della tabella, sempre una potenza di 2
+	private static final int CAPACITA_MINIMA = 8;
+
+	private int[] elementi;
+	private int[] frequenze;
+	private int distinti = 0;
+	private int size = 0;
+
+	/**
+	 * Crea un multiset vuoto.
+	 */
+	public IntMultiset() {
+		this(CAPACITA_MINIMA / 2);
+	}
+
+	/**
+	 * Crea un multiset vuoto con una tabella abbastanza grande da contenere il
+	 * numero di elementi distinti indicato senza essere ingrandita.
+	 *
+	 * @param distintiAttesi il numero di elementi distinti previsto
+	 * @throws IllegalArgumentException se il numero è negativo o troppo grande
+	 */
+	public IntMultiset(int distintiAttesi) {
+		if (distintiAttesi < 0 || distintiAttesi > 1 << 29) {
+			throw new IllegalArgumentException("Numero di elementi distinti non valido: " + distintiAttesi);
+		}
+		int capacita = CAPACITA_MINIMA;
+		while (capacita < 2 * distintiAttesi) {
+			capacita <<= 1;
+		}
+		this.elementi = new int[capacita];
+		this.frequenze = new int[capacita];
+	}
+
+	/**
+	 * Restituisce il numero di occorrenze di un intero in questo multiset.
+	 *
+	 * @param element l'intero di cui contare le occorrenze
+	 * @return il numero di occorrenze, eventualmente 0
+	 */
+	public int countInt(int element) {
+		return frequenze[posizione(element)];
+	}
+
+	/**
+	 * Aggiunge un certo numero di occorrenze di un intero.
+	 *
+	 * @param element     l'intero da aggiungere
+	 * @param occurrences il numero di occorrenze da aggiungere, eventualmente 0
+	 * @return il numero di occorrenze prima dell'operazione
+	 * @throws IllegalArgumentException se le occorrenze sono negative o se
+	 *                                  l'intero supererebbe
+	 *                                  {@code Integer.MAX_VALUE} occorrenze
+	 */
+	public int addInt(int element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il numero deve essere maggiore di 0");
+		}
+		int i = posizione(element);
+		int precedente = frequenze[i];
+		if ((long) precedente + occurrences > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Questo elemento ha già il numero massimo degli elementi!");
+		}
+		if (occurrences == 0) {
+			return precedente;
+		}
+		if (precedente == 0) {
+			//Posizione libera: inserisco l'elemento nuovo, ingrandendo prima la
+			//tabella se sarebbe piena per più di metà
+			if (2 * (distinti + 1) > elementi.length) {
+				ingrandisci();
+				i = posizione(element);
+			}
+			elementi[i] = element;
+			distinti++;
+		}
+		frequenze[i] = precedente + occurrences;
+		size += occurrences;
+		return precedente;
+	}
+
+	/**
+	 * Aggiunge una occorrenza di un intero.
+	 *
+	 * @param element l'intero da aggiungere
+	 * @throws IllegalArgumentException se l'intero ha già
+	 *                                  {@code Integer.MAX_VALUE} occorrenze
+	 */
+	public void addInt(int element) {
+		addInt(element, 1);
+	}
+
+	/**
+	 * Toglie un certo numero di occorrenze di un intero. Se il multiset ne
+	 * contiene meno, le toglie tutte.
+	 *
+	 * @param element     l'intero da togliere
+	 * @param occurrences il numero di occorrenze da togliere, eventualmente 0
+	 * @return il numero di occorrenze prima dell'operazione
+	 * @throws IllegalArgumentException se le occorrenze sono negative
+	 */
+	public int removeInt(int element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il secondo parametro non può essere negativo!");
+		}
+		int i = posizione(element);
+		int precedente = frequenze[i];
+		if (precedente == 0 || occurrences == 0) {
+			return precedente;
+		}
+		if (occurrences >= precedente) {
+			cancella(i);
+			size -= precedente;
+		} else {
+			frequenze[i] = precedente - occurrences;
+			size -= occurrences;
+		}
+		return precedente;
+	}
+
+	/**
+	 * Imposta il numero di occorrenze di un intero, aggiungendone o togliendone
+	 * quante servono.
+	 *
+	 * @param element l'intero da modificare
+	 * @param count   il numero di occorrenze voluto
+	 * @return il numero di occorrenze prima dell'operazione
+	 * @throws IllegalArgumentException se il numero è negativo
+	 */
+	public int setCountInt(int element, int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Il secondo parametro non può essere negativo!");
+		}
+		int precedente = countInt(element);
+		if (count > precedente) {
+			addInt(element, count - precedente);
+		} else {
+			removeInt(element, precedente - count);
+		}
+		return precedente;
+	}
+
+	/**
+	 * Controlla se il multiset contiene almeno una occorrenza di un intero.
+	 *
+	 * @param element l'intero da cercare
+	 * @return true se l'intero è presente
+	 */
+	public boolean containsInt(int element) {
+		return countInt(element) > 0;
+	}
+
+	/**
+	 * Restituisce il numero di elementi distinti del multiset.
+	 *
+	 * @return il numero di elementi con almeno una occorrenza
+	 */
+	public int distinctElements() {
+		return distinti;
+	}
+
+	/**
+	 * Restituisce un iteratore sugli interi del multiset che non crea oggetti
+	 * se usato con {@link PrimitiveIterator.OfInt#nextInt()}. Le occorrenze di
+	 * uno stesso intero vengono restituite di seguito.
+	 *
+	 * @return un iteratore su tutte le occorrenze
+	 */
+	public PrimitiveIterator.OfInt intIterator() {
+		return new PrimitiveIterator.OfInt() {
+			private int posizione = -1; //Posizione dell'elemento corrente nella tabella
+			private int rimanenti = 0; //Occorrenze dell'elemento corrente ancora da mostrare
+			private int restituiti = 0;
+
+			public boolean hasNext() {
+				return restituiti < size;
+			}
+
+			public int nextInt() {
+				if (!hasNext()) {
+					throw new NoSuchElementException("Tentativo di ottenere il prossimo elemento che non esiste");
+				}
+				while (rimanenti == 0) {
+					rimanenti = frequenze[++posizione];
+				}
+				rimanenti--;
+				restituiti++;
+				return elementi[posizione];
+			}
+		};
+	}
+
+	/**
+	 * Esegue un'azione su ogni elemento distinto con la sua frequenza, senza
+	 * creare oggetti.
+	 *
+	 * @param action l'azione da eseguire
+	 * @throws NullPointerException se l'azione è nulla
+	 */
+	public void forEachEntryInt(IntEntryConsumer action) {
+		if (action == null) {
+			throw new NullPointerException("L'azione non può essere nulla");
+		}
+		for (int i = 0; i < elementi.length; i++) {
+			if (frequenze[i] != 0) {
+				action.accept(elementi[i], frequenze[i]);
+			}
+		}
+	}
+
+	@Override
+	public void forEachEntry(ObjIntConsumer<? super Integer> action) {
+		if (action == null) {
+			throw new NullPointerException("L'azione non può essere nulla");
+		}
+		for (int i = 0; i < elementi.length; i++) {
+			if (frequenze[i] != 0) {
+				action.accept(elementi[i], frequenze[i]);
+			}
+		}
+	}
+
+	/**
+	 * Aggiunge tutte le occorrenze di un altro multiset. Se anche l'altro è un
+	 * {@code IntMultiset} gli elementi non vengono convertiti in oggetti.
+	 *
+	 * @param other il multiset di cui aggiungere le occorrenze
+	 * @return true se il multiset è cambiato
+	 * @throws IllegalArgumentException se un elemento supererebbe
+	 *                                  {@code Integer.MAX_VALUE} occorrenze
+	 * @throws NullPointerException     se l'altro multiset è nullo
+	 */
+	@Override
+	public boolean addAll(Multiset<? extends Integer> other) {
+		if (!(other instanceof IntMultiset)) {
+			return Multiset.super.addAll(other);
+		}
+		IntMultiset interi = (IntMultiset) other;
+		if (interi == this) {
+			//Raddoppio le frequenze senza scorrere la tabella mentre cambia
+			interi = new IntMultiset(distinti);
+			interi.addAll(this);
+		}
+		interi.forEachEntryInt(this::addInt);
+		return !interi.isEmpty();
+	}
+
+	/**
+	 * Restituisce una vista in sola lettura delle voci del multiset. Ogni voce
+	 * viene creata quando l'iteratore ci arriva, con la frequenza di quel
+	 * momento.
+	 *
+	 * @return la vista delle voci del multiset
+	 */
+	@Override
+	public Set<Multiset.Entry<Integer>> entrySet() {
+		return new AbstractSet<Multiset.Entry<Integer>>() {
+			@Override
+			public int size() {
+				return distinti;
+			}
+
+			@Override
+			public Iterator<Multiset.Entry<Integer>> iterator() {
+				return Spliterators.iterator(entrySpliterator());
+			}
+
+			@Override
+			public Spliterator<Multiset.Entry<Integer>> spliterator() {
+				return entrySpliterator();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				if (!(o instanceof Multiset.Entry)) {
+					return false;
+				}
+				Multiset.Entry<?> voce = (Multiset.Entry<?>) o;
+				return voce.getElement() instanceof Integer && voce.getCount() > 0
+						&& countInt((Integer) voce.getElement()) == voce.getCount();
+			}
+		};
+	}
+
+	/**
+	 * Restituisce uno spliterator sulle voci che si divide a metà sulla
+	 * tabella, così le voci possono essere elaborate in parallelo.
+	 *
+	 * @return uno spliterator sulle voci del multiset
+	 */
+	@Override
+	public Spliterator<Multiset.Entry<Integer>> entrySpliterator() {
+		return new SpliteratoreVoci(0, elementi.length);
+	}
+
+	/*
+	 * Spliterator sulle voci nelle posizioni della tabella da inizio a fine
+	 * escluso.
+	 */
+	private final class SpliteratoreVoci implements Spliterator<Multiset.Entry<Integer>> {
+		private int inizio;
+		private final int fine;
+
+		SpliteratoreVoci(int inizio, int fine) {
+			this.inizio = inizio;
+			this.fine = fine;
+		}
+
+		public boolean tryAdvance(Consumer<? super Multiset.Entry<Integer>> action) {
+			while (inizio < fine) {
+				int i = inizio++;
+				if (frequenze[i] != 0) {
+					action.accept(new VoceMultiset<Integer>(elementi[i], frequenze[i]));
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public Spliterator<Multiset.Entry<Integer>> trySplit() {
+			int meta = (inizio + fine) >>> 1;
+			if (meta - inizio < 64) {
+				return null;
+			}
+			SpliteratoreVoci prima = new SpliteratoreVoci(inizio, meta);
+			inizio = meta;
+			return prima;
+		}
+
+		public long estimateSize() {
+			//Le voci sono sparse in modo uniforme nella tabella
+			return (long) distinti * (fine - inizio) / elementi.length;
+		}
+
+		public int characteristics() {
+			return DISTINCT | NONNULL;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int count(Object element) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		return element instanceof Integer ? countInt((Integer) element) : 0;
+	}
+
+	public int add(Integer element, int occurrences) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		return addInt(element, occurrences);
+	}
+
+	public void add(Integer element) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		addInt(element, 1);
+	}
+
+	public int remove(Object element, int occurrences) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il secondo parametro non può essere negativo!");
+		}
+		return element instanceof Integer ? removeInt((Integer) element, occurrences) : 0;
+	}
+
+	public boolean remove(Object element) {
+		return remove(element, 1) > 0;
+	}
+
+	public int setCount(Integer element, int occurrences) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		return setCountInt(element, occurrences);
+	}
+
+	public Set<Integer> elementSet() {
+		Set<Integer> insieme = new HashSet<Integer>(2 * distinti);
+		for (int i = 0; i < elementi.length; i++) {
+			if (frequenze[i] != 0) {
+				insieme.add(elementi[i]);
+			}
+		}
+		return insieme;
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		return intIterator();
+	}
+
+	public boolean contains(Object element) {
+		return count(element) > 0;
+	}
+
+	public void clear() {
+		Arrays.fill(frequenze, 0);
+		distinti = 0;
+		size = 0;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		//Stessa regola di MyMultiset: Integer.hashCode(e) è e stesso
+		int result = 0;
+		for (int i = 0; i < elementi.length; i++) {
+			if (frequenze[i] != 0) {
+				result += elementi[i] ^ frequenze[i];
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!Multisets.confrontabile(obj)) {
+			return false;
+		}
+		Multiset<?> other = (Multiset<?>) obj;
+		if (size != other.size()) {
+			return false;
+		}
+		//Con la stessa size basta che ogni elemento abbia la stessa frequenza nell'altro
+		IntMultiset interi = obj instanceof IntMultiset ? (IntMultiset) obj : null;
+		for (int i = 0; i < elementi.length; i++) {
+			if (frequenze[i] != 0) {
+				int altra = interi != null ? interi.countInt(elementi[i]) : other.count(elementi[i]);
+				if (altra != frequenze[i]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < elementi.length; i++) {
+			if (frequenze[i] != 0) {
+				if (sb.length() > 1) {
+					sb.append(", ");
+				}
+				sb.append(elementi[i]).append(" x ").append(frequenze[i]);
+			}
+		}
+		return sb.append(']').toString();
+	}
+
+	//Posizione dell'elemento nella tabella, oppure la posizione libera in cui andrebbe inserito
+	private int posizione(int element) {
+		int maschera = elementi.length - 1;
+		int i = hash(element) & maschera;
+		while (frequenze[i] != 0 && elementi[i] != element) {
+			i = (i + 1) & maschera;
+		}
+		return i;
+	}
+
+	//Mescola i bit dell'elemento, così anche interi con la stessa parte bassa
+	//finiscono in posizioni diverse
+	private static int hash(int element) {
+		int h = element * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	//Libera la posizione i spostando indietro gli elementi successivi della
+	//stessa sequenza che starebbero prima della posizione liberata
+	private void cancella(int i) {
+		int maschera = elementi.length - 1;
+		int libera = i;
+		int j = (i + 1) & maschera;
+		while (frequenze[j] != 0) {
+			int ideale = hash(elementi[j]) & maschera;
+			//L'elemento in j può andare in libera solo se la sua posizione ideale
+			//non sta nell'intervallo circolare (libera, j]
+			if (((j - ideale) & maschera) >= ((j - libera) & maschera)) {
+				elementi[libera] = elementi[j];
+				frequenze[libera] = frequenze[j];
+				libera = j;
+			}
+			j = (j + 1) & maschera;
+		}
+		frequenze[libera] = 0;
+		distinti--;
+	}
+
+	//Raddoppia la tabella reinserendo tutti gli elementi
+	private void ingrandisci() {
+		if (elementi.length == 1 << 30) {
+			throw new IllegalStateException("Il multiset ha troppi elementi distinti");
+		}
+		int[] vecchiElementi = elementi;
+		int[] vecchieFrequenze = frequenze;
+		elementi = new int[vecchiElementi.length * 2];
+		frequenze = new int[vecchiElementi.length * 2];
+		for (int i = 0; i < vecchiElementi.length; i++) {
+			if (vecchieFrequenze[i] != 0) {
+				int j = posizione(vecchiElementi[i]);
+				elementi[j] = vecchiElementi[i];
+				frequenze[j] = vecchieFrequenze[i];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fattorizzatore pensato per fattorizzare moltissimi numeri minori di un limite
+ * fissato. Alla costruzione esegue un crivello lineare che memorizza il più
+ * piccolo fattore primo di ogni numero fino al limite; dopo di che la
+ * fattorizzazione di un numero è solo una catena di accessi alla tabella, uno
+ * per ogni fattore primo, cioè {@code O(log n)}.
+ *
+ * La tabella è compatta: memorizza solo i numeri dispari, perché per i pari il
+ * fattore minimo è sempre 2, e usa un {@code char} per numero, perché il più
+ * piccolo fattore di un numero composto minore di {@code 2^32} è minore della
+ * sua radice e quindi sta in 16 bit. Per i primi viene memorizzato 0. In tutto
+ * la tabella occupa circa un byte per ogni numero fino al limite.
+ *
+ * I numeri oltre il limite vengono fattorizzati come in {@link Factoriser}.
+ *
+ * @author Joel Sina
+ *
+ */
+public class LinearSieveFactoriser extends Factoriser {
+
+	// fattoreMinimo[i] è il più piccolo fattore primo di 2i+1, oppure 0 se è primo
+	private final char[] fattoreMinimo;
+	private final int limite;
+
+	/**
+	 * Costruisce il fattorizzatore calcolando la tabella dei fattori minimi fino
+	 * al limite indicato. Per i numeri oltre il limite usa la cache comune dei
+	 * crivelli.
+	 *
+	 * @param limite il numero più grande fattorizzato con la tabella
+	 * @throws IllegalArgumentException se il limite è minore di 2
+	 */
+	public LinearSieveFactoriser(int limite) {
+		this(limite, CrivelloCondiviso.comune());
+	}
+
+	/**
+	 * Costruisce il fattorizzatore calcolando la tabella dei fattori minimi fino
+	 * al limite indicato. Per i numeri oltre il limite usa la cache di crivelli
+	 * indicata.
+	 *
+	 * @param limite   il numero più grande fattorizzato con la tabella
+	 * @param crivelli la cache di crivelli per i numeri oltre il limite
+	 * @throws IllegalArgumentException se il limite è minore di 2
+	 * @throws NullPointerException     se la cache è nulla
+	 */
+	public LinearSieveFactoriser(int limite, CrivelloCondiviso crivelli) {
+		super(crivelli);
+		if (limite < 2) {
+			throw new IllegalArgumentException("Il limite deve essere almeno 2");
+		}
+		this.limite = limite;
+		this.fattoreMinimo = new char[(int) (((long) limite + 1) >>> 1)];
+
+		//Crivello lineare sui soli dispari: ogni composto viene marcato una sola
+		//volta, dal suo fattore minimo. Servono solo i primi fino alla radice del
+		//limite e i numeri fino a limite/3, perché oltre non ci sono multipli da marcare
+		int[] primi = new int[16];
+		int quanti = 0;
+		int radice = (int) CrivelloSegmentato.radice(limite);
+		for (int i = 3; i <= limite / 3; i += 2) {
+			int minimo = fattoreMinimo[i >>> 1];
+			if (minimo == 0) {
+				minimo = i;
+				if (i <= radice) {
+					if (quanti == primi.length) {
+						primi = Arrays.copyOf(primi, quanti * 2);
+					}
+					primi[quanti++] = i;
+				}
+			}
+			//Marco p*i per ogni primo p non maggiore del fattore minimo di i
+			for (int j = 0; j < quanti; j++) {
+				int p = primi[j];
+				if (p > minimo || (long) p * i > limite) {
+					break;
+				}
+				fattoreMinimo[(p * i) >>> 1] = (char) p;
+			}
+		}
+	}
+
+	/**
+	 * Restituisce il numero più grande che viene fattorizzato con la tabella.
+	 *
+	 * @return il limite di questo fattorizzatore
+	 */
+	public int getLimit() {
+		return limite;
+	}
+
+	/**
+	 * Restituisce il più piccolo fattore primo di un numero.
+	 *
+	 * @param n il numero di cui cercare il fattore minimo
+	 * @return il più piccolo fattore primo di {@code n}, oppure {@code n} stesso
+	 *         se è primo
+	 * @throws IllegalArgumentException se {@code n} è minore di 2 o maggiore del
+	 *                                  limite
+	 */
+	public int smallestPrimeFactor(int n) {
+		if (n < 2 || n > limite) {
+			throw new IllegalArgumentException("Il numero deve essere compreso tra 2 e il limite");
+		}
+		return fattoreMinimoDi(n);
+	}
+
+	/**
+	 * Fattorizza un numero come {@link Factoriser#getIntFactors(int)}. Se il
+	 * numero non supera il limite ogni fattore viene letto dalla tabella in
+	 * tempo costante. Anche {@link #getFactors(int)} passa da qui.
+	 *
+	 * @param n un numero intero da fattorizzare
+	 * @return il multinsieme dei fattori primi di n
+	 * @throws IllegalArgumentException se si chiede di fattorizzare un numero
+	 *                                  minore di 1.
+	 */
+	@Override
+	public IntMultiset getIntFactors(int n) {
+		if (n > limite) {
+			return super.getIntFactors(n);
+		}
+		if (n < 1) {
+			throw new IllegalArgumentException("Stai cercando di fattorizzare un numero minore di 1");
+		}
+		IntMultiset fattori = new IntMultiset();
+		//Ogni passo legge il fattore minimo di quello che resta e lo toglie con
+		//tutta la sua molteplicità
+		while (n > 1) {
+			int p = fattoreMinimoDi(n);
+			int molteplicita = 0;
+			do {
+				n /= p;
+				molteplicita++;
+			} while (n % p == 0);
+			fattori.addInt(p, molteplicita);
+		}
+		return fattori;
+	}
+
+	/**
+	 * Fattorizza tutti i numeri di un array con una sola passata, restituendo i
+	 * multinsiemi dei fattori nello stesso ordine dei numeri.
+	 *
+	 * @param numeri i numeri da fattorizzare
+	 * @return la lista dei multinsiemi dei fattori primi, uno per numero
+	 * @throws IllegalArgumentException se uno dei numeri è minore di 1
+	 * @throws NullPointerException     se l'array è nullo
+	 */
+	public List<Multiset<Integer>> getFactors(int[] numeri) {
+		if (numeri == null) {
+			throw new NullPointerException("L'array dei numeri non può essere nullo");
+		}
+		List<Multiset<Integer>> risultato = new ArrayList<Multiset<Integer>>(numeri.length);
+		for (int n : numeri) {
+			risultato.add(getFactors(n));
+		}
+		return risultato;
+	}
+
+	//Fattore minimo di un numero tra 2 e il limite
+	private int fattoreMinimoDi(int n) {
+		if ((n & 1) == 0) {
+			return 2;
+		}
+		int p = fattoreMinimo[n >>> 1];
+		return p == 0 ? n : p;
+	}
+
+}
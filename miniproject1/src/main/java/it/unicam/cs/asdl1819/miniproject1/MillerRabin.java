@@ -0,0 +1,145 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+/**
+ * Test di primalità di Miller-Rabin in versione deterministica per numeri
+ * {@code int} e {@code long}. Per questi intervalli sono noti insiemi finiti di
+ * basi che non ammettono falsi positivi, per cui il risultato è sempre esatto e
+ * il test costa {@code O(log n)} moltiplicazioni modulari per base.
+ *
+ * A differenza di {@link CrivelloDiEratostene} qui si usa la definizione
+ * matematica, per cui {@code 1} non è primo.
+ *
+ * @author Joel Sina
+ *
+ */
+public final class MillerRabin {
+
+	// Basi sufficienti per tutti i numeri minori di 2^32
+	private static final int[] BASI_INT = { 2, 7, 61 };
+
+	// Basi sufficienti per tutti i numeri minori di 2^64 (Jim Sinclair)
+	private static final long[] BASI_LONG = { 2, 325, 9375, 28178, 450775, 9780504, 1795265022 };
+
+	// Piccoli primi provati per divisione prima del test vero e proprio
+	private static final int[] PICCOLI_PRIMI = { 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47 };
+
+	private MillerRabin() {
+	}
+
+	/**
+	 * Controlla se un numero {@code int} è primo.
+	 *
+	 * @param n il numero da controllare
+	 * @return true se {@code n} è primo; false se è composto, 1, 0 o negativo
+	 */
+	public static boolean isPrime(int n) {
+		if (n < 2) {
+			return false;
+		}
+		if (n < 4) {
+			return true;
+		}
+		if (!superaDivisioni(n)) {
+			return n <= PICCOLI_PRIMI[PICCOLI_PRIMI.length - 1] && isPiccoloPrimo(n);
+		}
+		//Scrivo n-1 come d*2^s con d dispari
+		int s = Integer.numberOfTrailingZeros(n - 1);
+		long d = (n - 1) >>> s;
+		for (int a : BASI_INT) {
+			if (a % n == 0) {
+				continue;
+			}
+			//Con n < 2^31 i prodotti stanno in un long
+			long x = potenza(a, d, n);
+			if (x == 1 || x == n - 1) {
+				continue;
+			}
+			boolean testimone = true;
+			for (int i = 1; i < s && testimone; i++) {
+				x = x * x % n;
+				testimone = x != n - 1;
+			}
+			if (testimone) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Controlla se un numero {@code long} è primo.
+	 *
+	 * @param n il numero da controllare
+	 * @return true se {@code n} è primo; false se è composto, 1, 0 o negativo
+	 */
+	public static boolean isPrime(long n) {
+		if (n <= Integer.MAX_VALUE) {
+			return isPrime((int) Math.max(n, 0));
+		}
+		if (!superaDivisioni(n)) {
+			return false;
+		}
+		//Scrivo n-1 come d*2^s con d dispari
+		int s = Long.numberOfTrailingZeros(n - 1);
+		long d = (n - 1) >>> s;
+		Montgomery m = new Montgomery(n);
+		long uno = m.uno();
+		long menoUno = n - uno;
+		for (long a : BASI_LONG) {
+			a %= n;
+			if (a == 0) {
+				continue;
+			}
+			long x = m.potenza(m.daNormale(a), d);
+			if (x == uno || x == menoUno) {
+				continue;
+			}
+			boolean testimone = true;
+			for (int i = 1; i < s && testimone; i++) {
+				x = m.moltiplica(x, x);
+				testimone = x != menoUno;
+			}
+			if (testimone) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//Restituisce false se n è pari o divisibile per uno dei piccoli primi
+	private static boolean superaDivisioni(long n) {
+		if ((n & 1) == 0) {
+			return false;
+		}
+		for (int p : PICCOLI_PRIMI) {
+			if (n % p == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isPiccoloPrimo(int n) {
+		for (int p : PICCOLI_PRIMI) {
+			if (p == n) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//Potenza modulare per moduli minori di 2^31
+	private static long potenza(long base, long esponente, long modulo) {
+		long risultato = 1;
+		base %= modulo;
+		while (esponente != 0) {
+			if ((esponente & 1) != 0) {
+				risultato = risultato * base % modulo;
+			}
+			base = base * base % modulo;
+			esponente >>>= 1;
+		}
+		return risultato;
+	}
+
+}
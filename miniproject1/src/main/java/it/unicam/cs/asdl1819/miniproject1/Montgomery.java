@@ -0,0 +1,168 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+/**
+ * Aritmetica modulare su 64 bit in forma di Montgomery, per un modulo dispari
+ * fissato. Un numero {@code a} viene rappresentato da {@code a*R mod n} con
+ * {@code R = 2^64}: in questa forma il prodotto modulare richiede solo
+ * moltiplicazioni e shift, senza la divisione a 128 bit che servirebbe per
+ * calcolare {@code a*b mod n} direttamente.
+ *
+ * Il modulo deve essere dispari e positivo, quindi minore di {@code 2^63}; in
+ * questo modo tutti i risultati intermedi stanno in un {@code long} senza
+ * segno.
+ *
+ * @author Joel Sina
+ *
+ */
+final class Montgomery {
+
+	// Il modulo
+	private final long n;
+	// -n^-1 mod 2^64
+	private final long nMeno;
+	// R mod n, cioè 1 in forma di Montgomery
+	private final long uno;
+	// R^2 mod n, serve per portare un numero in forma di Montgomery
+	private final long r2;
+
+	/**
+	 * Prepara l'aritmetica modulo {@code n}.
+	 *
+	 * @param n il modulo, dispari e positivo
+	 * @throws IllegalArgumentException se il modulo è pari o non positivo
+	 */
+	Montgomery(long n) {
+		if (n <= 0 || (n & 1) == 0) {
+			throw new IllegalArgumentException("Il modulo deve essere dispari e positivo");
+		}
+		this.n = n;
+		//Metodo di Newton: ogni passo raddoppia i bit corretti dell'inverso,
+		//partendo dai 3 bit di n che è già l'inverso di se stesso modulo 8
+		long inverso = n;
+		for (int i = 0; i < 5; i++) {
+			inverso *= 2 - n * inverso;
+		}
+		this.nMeno = -inverso;
+		this.uno = Long.remainderUnsigned(-n, n);
+		//Raddoppio R mod n altre 64 volte per ottenere R^2 mod n
+		long r = uno;
+		for (int i = 0; i < 64; i++) {
+			r <<= 1;
+			if (Long.compareUnsigned(r, n) >= 0) {
+				r -= n;
+			}
+		}
+		this.r2 = r;
+	}
+
+	/**
+	 * Restituisce il modulo.
+	 *
+	 * @return il modulo di questa aritmetica
+	 */
+	long modulo() {
+		return n;
+	}
+
+	/**
+	 * Restituisce il numero 1 in forma di Montgomery.
+	 *
+	 * @return {@code R mod n}
+	 */
+	long uno() {
+		return uno;
+	}
+
+	/**
+	 * Porta un numero in forma di Montgomery.
+	 *
+	 * @param a un numero tra 0 e il modulo escluso
+	 * @return {@code a*R mod n}
+	 */
+	long daNormale(long a) {
+		return moltiplica(a, r2);
+	}
+
+	/**
+	 * Riporta un numero dalla forma di Montgomery alla forma normale.
+	 *
+	 * @param a un numero in forma di Montgomery
+	 * @return il numero rappresentato da {@code a}
+	 */
+	long aNormale(long a) {
+		return riduci(0, a);
+	}
+
+	/**
+	 * Moltiplica due numeri in forma di Montgomery.
+	 *
+	 * @param a il primo fattore in forma di Montgomery
+	 * @param b il secondo fattore in forma di Montgomery
+	 * @return il prodotto modulo {@code n} in forma di Montgomery
+	 */
+	long moltiplica(long a, long b) {
+		return riduci(moltiplicaAlto(a, b), a * b);
+	}
+
+	/**
+	 * Eleva a potenza un numero in forma di Montgomery.
+	 *
+	 * @param base      la base in forma di Montgomery
+	 * @param esponente l'esponente, non negativo
+	 * @return la potenza modulo {@code n} in forma di Montgomery
+	 */
+	long potenza(long base, long esponente) {
+		long risultato = uno;
+		while (esponente != 0) {
+			if ((esponente & 1) != 0) {
+				risultato = moltiplica(risultato, base);
+			}
+			base = moltiplica(base, base);
+			esponente >>>= 1;
+		}
+		return risultato;
+	}
+
+	/**
+	 * Somma due numeri modulo {@code n}; la somma non dipende dalla forma in cui
+	 * sono rappresentati.
+	 *
+	 * @param a il primo addendo, tra 0 e il modulo escluso
+	 * @param b il secondo addendo, tra 0 e il modulo escluso
+	 * @return {@code (a+b) mod n}
+	 */
+	long somma(long a, long b) {
+		//Con n < 2^63 la somma non supera 2^64 come numero senza segno
+		long s = a + b;
+		return Long.compareUnsigned(s, n) >= 0 ? s - n : s;
+	}
+
+	/*
+	 * Riduzione di Montgomery del numero a 128 bit (alto, basso): restituisce
+	 * (alto*2^64 + basso) * R^-1 mod n, purché il numero sia minore di n*R.
+	 */
+	private long riduci(long alto, long basso) {
+		long m = basso * nMeno;
+		//basso + m*n è divisibile per 2^64, quindi il riporto c'è solo se basso != 0
+		long t = alto + moltiplicaAlto(m, n) + (basso != 0 ? 1 : 0);
+		return Long.compareUnsigned(t, n) >= 0 ? t - n : t;
+	}
+
+	/**
+	 * Calcola i 64 bit alti del prodotto senza segno di due {@code long}.
+	 *
+	 * @param x il primo fattore, senza segno
+	 * @param y il secondo fattore, senza segno
+	 * @return la parte alta del prodotto a 128 bit
+	 */
+	static long moltiplicaAlto(long x, long y) {
+		long x0 = x & 0xFFFFFFFFL;
+		long x1 = x >>> 32;
+		long y0 = y & 0xFFFFFFFFL;
+		long y1 = y >>> 32;
+		long t = x1 * y0 + ((x0 * y0) >>> 32);
+		long u = x0 * y1 + (t & 0xFFFFFFFFL);
+		return x1 * y1 + (t >>> 32) + (u >>> 32);
+	}
+
+}
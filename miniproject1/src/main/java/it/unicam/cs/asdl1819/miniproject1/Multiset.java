@@ -1,7 +1,17 @@
 package it.unicam.cs.asdl1819.miniproject1;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A multiset (also called bag) is a set in which the elements have a count (or
@@ -25,6 +35,33 @@ import java.util.Set;
  *            heterogeneous types is needed, {@code Object} can be used as type.
  */
 public interface Multiset<E> {
+
+    /**
+     * An element of a multiset together with its count. Two entries are equal
+     * if they have equal elements and equal counts; the hash code of an entry
+     * is {@code element.hashCode() ^ count}, so that the hash code of a
+     * multiset is the sum of the hash codes of its entries.
+     *
+     * @param <E>
+     *            the type of the element
+     */
+    public interface Entry<E> {
+        /**
+         * Returns the element of this entry.
+         *
+         * @return the element, never {@code null}
+         */
+        public E getElement();
+
+        /**
+         * Returns the count of the element in the multiset. Entries returned
+         * by a view may reflect later changes to the multiset.
+         *
+         * @return the count of the element, positive for entries obtained
+         *         while the element was in the multiset
+         */
+        public int getCount();
+    }
     /**
      * Returns the total number of elements in this multiset counting all the
      * occurrences. For instance, {@code [1,2,3,1,4].size()} must return five by
@@ -173,6 +210,211 @@ public interface Multiset<E> {
      */
     public boolean isEmpty();
 
+    /**
+     * Returns the set of the entries of this multiset, one for each distinct
+     * element. The set cannot be modified. Going through the entries costs
+     * {@code O(distinct elements)} instead of {@code O(size())} like the
+     * iterator.
+     *
+     * The default implementation builds a snapshot from {@link #elementSet()}
+     * and {@link #count(Object)}; implementations usually return a read-only
+     * view instead.
+     *
+     * @return the set of entries of this multiset
+     */
+    public default Set<Entry<E>> entrySet() {
+        Set<Entry<E>> entries = new HashSet<Entry<E>>();
+        for (E element : elementSet()) {
+            int count = count(element);
+            if (count > 0) {
+                entries.add(new VoceMultiset<E>(element, count));
+            }
+        }
+        return Collections.unmodifiableSet(entries);
+    }
+
+    /**
+     * Performs an action once for each distinct element of this multiset,
+     * passing the element and its count. Implementations should not allocate
+     * an object for each element.
+     *
+     * @param action
+     *                   the action to perform on each element and count
+     * @throws NullPointerException
+     *                                  if {@code action} is null
+     */
+    public default void forEachEntry(ObjIntConsumer<? super E> action) {
+        if (action == null) {
+            throw new NullPointerException("L'azione non può essere nulla");
+        }
+        for (Entry<E> entry : entrySet()) {
+            action.accept(entry.getElement(), entry.getCount());
+        }
+    }
+
+    /**
+     * Returns a spliterator over the entries of this multiset. It can be split
+     * to process the distinct elements in parallel.
+     *
+     * @return a spliterator over the entries of this multiset
+     */
+    public default Spliterator<Entry<E>> entrySpliterator() {
+        return entrySet().spliterator();
+    }
+
+    /**
+     * Returns a stream of the entries of this multiset. The stream is
+     * sequential; call {@code parallel()} on it to process the distinct
+     * elements in parallel.
+     *
+     * @return a stream over the entries of this multiset
+     */
+    public default Stream<Entry<E>> entryStream() {
+        return StreamSupport.stream(entrySpliterator(), false);
+    }
+
+    /**
+     * Adds to this multiset all the occurrences of the elements of another
+     * multiset, going once through the entries of the other multiset.
+     *
+     * @param other
+     *                  the multiset whose occurrences are added
+     * @return {@code true} if this multiset changed
+     * @throws IllegalArgumentException
+     *                                      if an element would have more than
+     *                                      {@code Integer.MAX_VALUE}
+     *                                      occurrences
+     * @throws NullPointerException
+     *                                      if {@code other} is null
+     */
+    public default boolean addAll(Multiset<? extends E> other) {
+        boolean[] changed = new boolean[1];
+        other.forEachEntry((element, count) -> {
+            add(element, count);
+            changed[0] = true;
+        });
+        return changed[0];
+    }
+
+    /**
+     * Removes from this multiset, for each element of another multiset, as
+     * many occurrences as the element has in the other multiset. Elements with
+     * fewer occurrences are removed completely.
+     *
+     * @param other
+     *                  the multiset whose occurrences are removed
+     * @return {@code true} if this multiset changed
+     * @throws NullPointerException
+     *                                  if {@code other} is null
+     */
+    public default boolean removeAll(Multiset<?> other) {
+        if (other == this) {
+            // Removing while going through the same entries is not allowed
+            boolean changed = !isEmpty();
+            clear();
+            return changed;
+        }
+        boolean[] changed = new boolean[1];
+        other.forEachEntry((element, count) -> {
+            if (remove(element, count) > 0) {
+                changed[0] = true;
+            }
+        });
+        return changed[0];
+    }
+
+    /**
+     * Keeps in this multiset, for each element, at most as many occurrences as
+     * the element has in another multiset: this multiset becomes the
+     * intersection of the two.
+     *
+     * @param other
+     *                  the multiset whose occurrences are kept
+     * @return {@code true} if this multiset changed
+     * @throws NullPointerException
+     *                                  if {@code other} is null
+     */
+    public default boolean retainAll(Multiset<?> other) {
+        if (other == null) {
+            throw new NullPointerException("Il multiset non può essere nullo");
+        }
+        // Collect first: changing counts while going through a view is not allowed
+        List<E> elements = new ArrayList<E>();
+        List<Integer> counts = new ArrayList<Integer>();
+        forEachEntry((element, count) -> {
+            int kept = Math.min(count, other.count(element));
+            if (kept < count) {
+                elements.add(element);
+                counts.add(kept);
+            }
+        });
+        for (int i = 0; i < elements.size(); i++) {
+            setCount(elements.get(i), counts.get(i));
+        }
+        return !elements.isEmpty();
+    }
+
+    /**
+     * Determines whether this multiset contains all the occurrences of
+     * another multiset, that is whether every element has at least as many
+     * occurrences here as in the other multiset.
+     *
+     * @param other
+     *                  the multiset to check
+     * @return {@code true} if the other multiset is contained in this one
+     * @throws NullPointerException
+     *                                  if {@code other} is null
+     */
+    public default boolean containsAll(Multiset<?> other) {
+        if (other.size() > size()) {
+            return false;
+        }
+        return other.entryStream().allMatch(entry -> count(entry.getElement()) >= entry.getCount());
+    }
+
+    /**
+     * Returns the {@code k} most frequent elements of this multiset with their
+     * counts, from the most frequent one. Elements with the same count are
+     * returned in an unspecified order; if the multiset has fewer than
+     * {@code k} distinct elements, all of them are returned. The entries are
+     * snapshots and do not follow later changes to the multiset.
+     *
+     * The default implementation goes once through the entries and keeps the
+     * best {@code k} in a min-heap, so it costs {@code O(d log k)} for
+     * {@code d} distinct elements. Implementations that keep their entries
+     * ordered by count, like {@link RankedMultiset}, answer in
+     * {@code O(k + log d)}.
+     *
+     * @param k
+     *              the number of elements to return
+     * @return the list of the {@code k} most frequent entries, in non
+     *         increasing order of count
+     * @throws IllegalArgumentException
+     *                                      if {@code k} is negative
+     */
+    public default List<Entry<E>> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Il numero di elementi non può essere negativo");
+        }
+        if (k == 0) {
+            return new ArrayList<Entry<E>>();
+        }
+        Comparator<Entry<E>> byCount = Comparator.comparingInt(Entry::getCount);
+        PriorityQueue<Entry<E>> heap = new PriorityQueue<Entry<E>>(Math.min(k, 1024), byCount);
+        forEachEntry((element, count) -> {
+            // An entry is created only when the element enters the heap
+            if (heap.size() < k) {
+                heap.add(new VoceMultiset<E>(element, count));
+            } else if (count > heap.peek().getCount()) {
+                heap.poll();
+                heap.add(new VoceMultiset<E>(element, count));
+            }
+        });
+        List<Entry<E>> result = new ArrayList<Entry<E>>(heap);
+        result.sort(byCount.reversed());
+        return result;
+    }
+
     /**
      * Compares the specified object with this multiset for equality. Returns
      * {@code true} if the given object is also a multiset and contains equal
@@ -0,0 +1,444 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Formato binario compatto per salvare e trasmettere multinsiemi di numeri e
+ * fattorizzazioni, senza scorrere le occorrenze una per una. Si scrive con un
+ * {@link Writer} e si legge con un {@link Reader}, legati a un canale NIO: i
+ * dati passano da un buffer di {@link #DIMENSIONE_BUFFER} byte, per cui anche
+ * tabelle molto grandi vengono scritte e lette a flusso, senza tenere in
+ * memoria tutta la loro forma binaria.
+ *
+ * Il flusso inizia con il numero magico {@link #MAGICO} e la versione
+ * {@link #VERSIONE}, seguiti da un numero qualsiasi di record. Ogni record ha
+ * un byte con il tipo ({@link #INTERI}, {@link #LUNGHI} o
+ * {@link #FATTORIZZAZIONE}) e poi:
+ * <ul>
+ * <li>solo per le fattorizzazioni, il numero fattorizzato;</li>
+ * <li>il numero di elementi distinti;</li>
+ * <li>per ogni elemento, in ordine crescente, la differenza dal precedente
+ * meno 1 (per il primo, il valore stesso) e la frequenza.</li>
+ * </ul>
+ * Tutti i numeri sono varint: 7 bit per byte, con il bit alto a 1 se seguono
+ * altri byte. I valori con segno, cioè il primo elemento e il numero
+ * fattorizzato, sono prima trasformati con la codifica zigzag, così anche i
+ * negativi piccoli occupano pochi byte. Con elementi vicini tra loro e
+ * frequenze piccole, come i fattori primi o le tabelle di frequenza dense, ogni
+ * voce occupa due o tre byte.
+ *
+ * @author Joel Sina
+ *
+ */
+public final class MultisetCodec {
+
+	/**
+	 * Numero magico all'inizio del flusso, "MSET" in ASCII.
+	 */
+	public static final int MAGICO = 0x4D534554;
+
+	/**
+	 * Versione del formato scritto da {@link Writer}.
+	 */
+	public static final int VERSIONE = 1;
+
+	/**
+	 * Tipo dei record con un multinsieme di {@code Integer}.
+	 */
+	public static final byte INTERI = 1;
+
+	/**
+	 * Tipo dei record con un multinsieme di {@code Long}.
+	 */
+	public static final byte LUNGHI = 2;
+
+	/**
+	 * Tipo dei record con una {@link Factorisation}.
+	 */
+	public static final byte FATTORIZZAZIONE = 3;
+
+	/**
+	 * Dimensione in byte del buffer usato da {@link Writer} e {@link Reader}.
+	 */
+	public static final int DIMENSIONE_BUFFER = 1 << 16;
+
+	// Byte massimi di un varint a 64 bit
+	private static final int MASSIMO_VARINT = 10;
+
+	private MultisetCodec() {
+	}
+
+	/**
+	 * Scrive record in un canale. I byte restano nel buffer finché non è pieno
+	 * o non viene chiamato {@link #flush()}, che va chiamato alla fine; il
+	 * canale non viene chiuso. Non è sincronizzato.
+	 */
+	public static final class Writer implements Flushable {
+
+		private final WritableByteChannel canale;
+		private final ByteBuffer buffer = ByteBuffer.allocate(DIMENSIONE_BUFFER);
+		private boolean iniziato = false;
+
+		/**
+		 * Crea uno scrittore su un canale.
+		 *
+		 * @param canale il canale in cui scrivere
+		 * @throws NullPointerException se il canale è nullo
+		 */
+		public Writer(WritableByteChannel canale) {
+			if (canale == null) {
+				throw new NullPointerException("Il canale non può essere nullo");
+			}
+			this.canale = canale;
+		}
+
+		/**
+		 * Scrive un multinsieme di interi. Se è un {@link IntMultiset} le voci
+		 * vengono lette e ordinate senza creare oggetti.
+		 *
+		 * @param multiset il multinsieme da scrivere
+		 * @throws IOException          se il canale non può essere scritto
+		 * @throws NullPointerException se il multinsieme è nullo
+		 */
+		public void writeInts(Multiset<Integer> multiset) throws IOException {
+			//Elemento e frequenza in un long: ordinando i long si ordinano gli elementi
+			Raccolta voci = new Raccolta();
+			if (multiset instanceof IntMultiset) {
+				((IntMultiset) multiset).forEachEntryInt((e, n) -> voci.aggiungi((long) e << 32 | n));
+			} else {
+				multiset.forEachEntry((e, n) -> voci.aggiungi((long) e << 32 | n));
+			}
+			long[] ordinate = voci.ordinati();
+			inizia(INTERI);
+			scriviVarint(ordinate.length);
+			long precedente = 0;
+			for (int i = 0; i < ordinate.length; i++) {
+				long elemento = ordinate[i] >> 32;
+				scriviVoce(i == 0, elemento, precedente, (int) ordinate[i]);
+				precedente = elemento;
+			}
+		}
+
+		/**
+		 * Scrive un multinsieme di {@code Long}.
+		 *
+		 * @param multiset il multinsieme da scrivere
+		 * @throws IOException          se il canale non può essere scritto
+		 * @throws NullPointerException se il multinsieme è nullo
+		 */
+		public void writeLongs(Multiset<Long> multiset) throws IOException {
+			Raccolta raccolta = new Raccolta();
+			multiset.forEachEntry((e, n) -> raccolta.aggiungi(e));
+			long[] elementi = raccolta.ordinati();
+			//Seconda passata per mettere le frequenze accanto agli elementi ordinati
+			int[] frequenze = new int[elementi.length];
+			multiset.forEachEntry((e, n) -> frequenze[Arrays.binarySearch(elementi, e)] = n);
+			inizia(LUNGHI);
+			scriviElementi(elementi, frequenze);
+		}
+
+		/**
+		 * Scrive una fattorizzazione. I primi sono già in ordine crescente,
+		 * per cui non serve ordinarli.
+		 *
+		 * @param fattorizzazione la fattorizzazione da scrivere
+		 * @throws IOException          se il canale non può essere scritto
+		 * @throws NullPointerException se la fattorizzazione è nulla
+		 */
+		public void writeFactorisation(Factorisation fattorizzazione) throws IOException {
+			inizia(FATTORIZZAZIONE);
+			scriviVarint(zigzag(fattorizzazione.getNumber()));
+			scriviElementi(fattorizzazione.getPrimes(), fattorizzazione.getExponents());
+		}
+
+		/**
+		 * Scrive nel canale tutti i byte ancora nel buffer.
+		 *
+		 * @throws IOException se il canale non può essere scritto
+		 */
+		public void flush() throws IOException {
+			//Il cast evita i metodi covarianti aggiunti dopo Java 8
+			((Buffer) buffer).flip();
+			while (buffer.hasRemaining()) {
+				canale.write(buffer);
+			}
+			((Buffer) buffer).clear();
+		}
+
+		private void inizia(byte tipo) throws IOException {
+			spazio(MASSIMO_VARINT);
+			if (!iniziato) {
+				buffer.putInt(MAGICO).put((byte) VERSIONE);
+				iniziato = true;
+			}
+			buffer.put(tipo);
+		}
+
+		private void scriviElementi(long[] elementi, int[] frequenze) throws IOException {
+			scriviVarint(elementi.length);
+			for (int i = 0; i < elementi.length; i++) {
+				scriviVoce(i == 0, elementi[i], i == 0 ? 0 : elementi[i - 1], frequenze[i]);
+			}
+		}
+
+		/*
+		 * La differenza tra due elementi crescenti può superare Long.MAX_VALUE,
+		 * ma come numero senza segno a 64 bit è sempre esatta.
+		 */
+		private void scriviVoce(boolean primo, long elemento, long precedente, int frequenza) throws IOException {
+			scriviVarint(primo ? zigzag(elemento) : elemento - precedente - 1);
+			scriviVarint(frequenza);
+		}
+
+		private void scriviVarint(long valore) throws IOException {
+			spazio(MASSIMO_VARINT);
+			while ((valore & ~0x7FL) != 0) {
+				buffer.put((byte) (valore | 0x80));
+				valore >>>= 7;
+			}
+			buffer.put((byte) valore);
+		}
+
+		private void spazio(int byteNecessari) throws IOException {
+			if (buffer.remaining() < byteNecessari) {
+				flush();
+			}
+		}
+	}
+
+	/**
+	 * Legge record da un canale scritto da un {@link Writer}. Dal canale
+	 * vengono letti blocchi di byte che possono comprendere anche i record
+	 * successivi, per cui tutti i record di un flusso vanno letti con lo
+	 * stesso lettore. Il canale non viene chiuso. Non è sincronizzato.
+	 */
+	public static final class Reader {
+
+		private final ReadableByteChannel canale;
+		private final ByteBuffer buffer = ByteBuffer.allocate(DIMENSIONE_BUFFER);
+		private boolean iniziato = false;
+
+		/**
+		 * Crea un lettore su un canale.
+		 *
+		 * @param canale il canale da cui leggere
+		 * @throws NullPointerException se il canale è nullo
+		 */
+		public Reader(ReadableByteChannel canale) {
+			if (canale == null) {
+				throw new NullPointerException("Il canale non può essere nullo");
+			}
+			this.canale = canale;
+			((Buffer) buffer).flip();
+		}
+
+		/**
+		 * Legge un multinsieme di interi scritto con
+		 * {@link Writer#writeInts(Multiset)}.
+		 *
+		 * @return il multinsieme letto, oppure {@code null} se il flusso è
+		 *         finito
+		 * @throws IOException se il canale non può essere letto o il record non
+		 *                     è valido o è di un altro tipo
+		 */
+		public IntMultiset readInts() throws IOException {
+			if (!inizia(INTERI)) {
+				return null;
+			}
+			int distinti = leggiDistinti();
+			//Il numero viene dal flusso: non preparo tabelle più grandi del buffer
+			IntMultiset multiset = new IntMultiset(Math.min(distinti, DIMENSIONE_BUFFER));
+			long elemento = 0;
+			for (int i = 0; i < distinti; i++) {
+				elemento = leggiElemento(i == 0, elemento);
+				if (elemento != (int) elemento) {
+					throw new IOException("Elemento fuori dall'intervallo degli int: " + elemento);
+				}
+				int frequenza = leggiFrequenza();
+				if ((long) multiset.size() + frequenza > Integer.MAX_VALUE) {
+					throw new IOException("Il multinsieme supera Integer.MAX_VALUE occorrenze");
+				}
+				multiset.addInt((int) elemento, frequenza);
+			}
+			return multiset;
+		}
+
+		/**
+		 * Legge un multinsieme di {@code Long} scritto con
+		 * {@link Writer#writeLongs(Multiset)}.
+		 *
+		 * @return il multinsieme letto, oppure {@code null} se il flusso è
+		 *         finito
+		 * @throws IOException se il canale non può essere letto o il record non
+		 *                     è valido o è di un altro tipo
+		 */
+		public Multiset<Long> readLongs() throws IOException {
+			if (!inizia(LUNGHI)) {
+				return null;
+			}
+			int distinti = leggiDistinti();
+			Multiset<Long> multiset = new MyMultiset<Long>();
+			long elemento = 0;
+			for (int i = 0; i < distinti; i++) {
+				elemento = leggiElemento(i == 0, elemento);
+				multiset.add(elemento, leggiFrequenza());
+			}
+			return multiset;
+		}
+
+		/**
+		 * Legge una fattorizzazione scritta con
+		 * {@link Writer#writeFactorisation(Factorisation)}.
+		 *
+		 * @return la fattorizzazione letta, oppure {@code null} se il flusso è
+		 *         finito
+		 * @throws IOException se il canale non può essere letto o il record non
+		 *                     è valido o è di un altro tipo
+		 */
+		public Factorisation readFactorisation() throws IOException {
+			if (!inizia(FATTORIZZAZIONE)) {
+				return null;
+			}
+			long numero = dezigzag(leggiVarint());
+			int distinti = leggiDistinti();
+			if (distinti > 64) {
+				throw new IOException("Troppi fattori primi distinti: " + distinti);
+			}
+			long[] primi = new long[distinti];
+			int[] esponenti = new int[distinti];
+			long primo = 0;
+			for (int i = 0; i < distinti; i++) {
+				primo = leggiElemento(i == 0, primo);
+				primi[i] = primo;
+				esponenti[i] = leggiFrequenza();
+			}
+			return new Factorisation(numero, primi, esponenti);
+		}
+
+		/*
+		 * Legge l'intestazione del flusso, se non è ancora stata letta, e il
+		 * tipo del record. Restituisce false se il flusso è finito prima del
+		 * record, anche se è vuoto.
+		 */
+		private boolean inizia(byte tipo) throws IOException {
+			if (!buffer.hasRemaining() && !riempi()) {
+				return false;
+			}
+			if (!iniziato) {
+				int magico = 0;
+				for (int i = 0; i < 4; i++) {
+					magico = magico << 8 | leggiByte() & 0xFF;
+				}
+				if (magico != MAGICO) {
+					throw new IOException("Il flusso non contiene multinsiemi");
+				}
+				int versione = leggiByte();
+				if (versione != VERSIONE) {
+					throw new IOException("Versione del formato non supportata: " + versione);
+				}
+				iniziato = true;
+			}
+			byte letto = leggiByte();
+			if (letto != tipo) {
+				throw new IOException("Tipo di record inatteso: " + letto + " invece di " + tipo);
+			}
+			return true;
+		}
+
+		private int leggiDistinti() throws IOException {
+			long distinti = leggiVarint();
+			if (distinti < 0 || distinti > Integer.MAX_VALUE - 8) {
+				throw new IOException("Numero di elementi non valido: " + distinti);
+			}
+			return (int) distinti;
+		}
+
+		private long leggiElemento(boolean primo, long precedente) throws IOException {
+			if (primo) {
+				return dezigzag(leggiVarint());
+			}
+			//Se la differenza va oltre Long.MAX_VALUE la somma torna indietro
+			long elemento = precedente + leggiVarint() + 1;
+			if (elemento <= precedente) {
+				throw new IOException("Elementi non in ordine crescente");
+			}
+			return elemento;
+		}
+
+		private int leggiFrequenza() throws IOException {
+			long frequenza = leggiVarint();
+			if (frequenza < 1 || frequenza > Integer.MAX_VALUE) {
+				throw new IOException("Frequenza non valida: " + frequenza);
+			}
+			return (int) frequenza;
+		}
+
+		private long leggiVarint() throws IOException {
+			long valore = 0;
+			for (int spostamento = 0; spostamento < 64; spostamento += 7) {
+				byte b = leggiByte();
+				valore |= (long) (b & 0x7F) << spostamento;
+				if (b >= 0) {
+					return valore;
+				}
+			}
+			throw new IOException("Varint troppo lungo");
+		}
+
+		private byte leggiByte() throws IOException {
+			if (!buffer.hasRemaining() && !riempi()) {
+				throw new EOFException("Il flusso è finito a metà di un record");
+			}
+			return buffer.get();
+		}
+
+		// Legge altri byte dal canale; restituisce false se il canale è finito
+		private boolean riempi() throws IOException {
+			((Buffer) buffer).clear();
+			int letti;
+			do {
+				letti = canale.read(buffer);
+			} while (letti == 0);
+			((Buffer) buffer).flip();
+			return letti > 0;
+		}
+	}
+
+	/*
+	 * Array di long che cresce man mano, per raccogliere le voci senza
+	 * sapere prima quante sono.
+	 */
+	private static final class Raccolta {
+		private long[] valori = new long[16];
+		private int quanti = 0;
+
+		void aggiungi(long valore) {
+			if (quanti == valori.length) {
+				valori = Arrays.copyOf(valori, quanti * 2);
+			}
+			valori[quanti++] = valore;
+		}
+
+		long[] ordinati() {
+			long[] risultato = Arrays.copyOf(valori, quanti);
+			Arrays.sort(risultato);
+			return risultato;
+		}
+	}
+
+	private static long zigzag(long n) {
+		return (n << 1) ^ (n >> 63);
+	}
+
+	private static long dezigzag(long n) {
+		return (n >>> 1) ^ -(n & 1);
+	}
+
+}
@@ -0,0 +1,209 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Operazioni tra multiset che restituiscono un multiset nuovo senza modificare
+ * quelli dati: unione (frequenza massima), intersezione (frequenza minima),
+ * somma e differenza. Ogni operazione scorre una sola volta le voci dei due
+ * multiset con {@link Multiset#forEachEntry}, per cui costa
+ * {@code O(elementi distinti)} e non dipende dal numero di occorrenze.
+ *
+ * Le varianti parallele scorrono le voci con uno stream parallelo e scrivono
+ * il risultato in un {@link ConcurrentMultiset}. Convengono solo con molte
+ * decine di migliaia di elementi distinti; i multiset dati non devono essere
+ * modificati durante l'operazione.
+ *
+ * Ad esempio il massimo comune divisore di due numeri ha come fattori
+ * l'intersezione dei loro fattori, il minimo comune multiplo l'unione e il
+ * prodotto la somma.
+ *
+ * @author Joel Sina
+ *
+ */
+public final class Multisets {
+
+	private Multisets() {
+	}
+
+	/**
+	 * Calcola l'unione di due multiset: ogni elemento ha la frequenza più alta
+	 * tra le due.
+	 *
+	 * @param <E> il tipo degli elementi
+	 * @param a   il primo multiset
+	 * @param b   il secondo multiset
+	 * @return un nuovo multiset con l'unione
+	 * @throws NullPointerException se uno dei multiset è nullo
+	 */
+	public static <E> Multiset<E> union(Multiset<? extends E> a, Multiset<? extends E> b) {
+		return combina(a, b, Math::max, b, new MyMultiset<E>());
+	}
+
+	/**
+	 * Calcola l'intersezione di due multiset: ogni elemento ha la frequenza più
+	 * bassa tra le due.
+	 *
+	 * @param <E> il tipo degli elementi
+	 * @param a   il primo multiset
+	 * @param b   il secondo multiset
+	 * @return un nuovo multiset con l'intersezione
+	 * @throws NullPointerException se uno dei multiset è nullo
+	 */
+	public static <E> Multiset<E> intersection(Multiset<? extends E> a, Multiset<? extends E> b) {
+		return combina(a, b, Math::min, null, new MyMultiset<E>());
+	}
+
+	/**
+	 * Calcola la somma di due multiset: ogni elemento ha la somma delle due
+	 * frequenze.
+	 *
+	 * @param <E> il tipo degli elementi
+	 * @param a   il primo multiset
+	 * @param b   il secondo multiset
+	 * @return un nuovo multiset con la somma
+	 * @throws IllegalArgumentException se un elemento supererebbe
+	 *                                  {@code Integer.MAX_VALUE} occorrenze
+	 * @throws NullPointerException     se uno dei multiset è nullo
+	 */
+	public static <E> Multiset<E> sum(Multiset<? extends E> a, Multiset<? extends E> b) {
+		return combina(a, b, Multisets::somma, b, new MyMultiset<E>());
+	}
+
+	/**
+	 * Calcola la differenza di due multiset: ogni elemento del primo ha la sua
+	 * frequenza meno quella nel secondo, se resta positiva.
+	 *
+	 * @param <E> il tipo degli elementi
+	 * @param a   il multiset da cui togliere
+	 * @param b   il multiset delle occorrenze da togliere
+	 * @return un nuovo multiset con la differenza
+	 * @throws NullPointerException se uno dei multiset è nullo
+	 */
+	public static <E> Multiset<E> difference(Multiset<? extends E> a, Multiset<?> b) {
+		return combina(a, b, (x, y) -> Math.max(0, x - y), null, new MyMultiset<E>());
+	}
+
+	/**
+	 * Calcola l'unione di due multiset come {@link #union}, in parallelo.
+	 *
+	 * @param <E> il tipo degli elementi
+	 * @param a   il primo multiset
+	 * @param b   il secondo multiset
+	 * @return un nuovo multiset concorrente con l'unione
+	 * @throws NullPointerException se uno dei multiset è nullo
+	 */
+	public static <E> Multiset<E> parallelUnion(Multiset<? extends E> a, Multiset<? extends E> b) {
+		return combinaInParallelo(a, b, Math::max, b);
+	}
+
+	/**
+	 * Calcola l'intersezione di due multiset come {@link #intersection}, in
+	 * parallelo.
+	 *
+	 * @param <E> il tipo degli elementi
+	 * @param a   il primo multiset
+	 * @param b   il secondo multiset
+	 * @return un nuovo multiset concorrente con l'intersezione
+	 * @throws NullPointerException se uno dei multiset è nullo
+	 */
+	public static <E> Multiset<E> parallelIntersection(Multiset<? extends E> a, Multiset<? extends E> b) {
+		return combinaInParallelo(a, b, Math::min, null);
+	}
+
+	/**
+	 * Calcola la somma di due multiset come {@link #sum}, in parallelo.
+	 *
+	 * @param <E> il tipo degli elementi
+	 * @param a   il primo multiset
+	 * @param b   il secondo multiset
+	 * @return un nuovo multiset concorrente con la somma
+	 * @throws IllegalArgumentException se un elemento supererebbe
+	 *                                  {@code Integer.MAX_VALUE} occorrenze
+	 * @throws NullPointerException     se uno dei multiset è nullo
+	 */
+	public static <E> Multiset<E> parallelSum(Multiset<? extends E> a, Multiset<? extends E> b) {
+		return combinaInParallelo(a, b, Multisets::somma, b);
+	}
+
+	/**
+	 * Calcola la differenza di due multiset come {@link #difference}, in
+	 * parallelo.
+	 *
+	 * @param <E> il tipo degli elementi
+	 * @param a   il multiset da cui togliere
+	 * @param b   il multiset delle occorrenze da togliere
+	 * @return un nuovo multiset concorrente con la differenza
+	 * @throws NullPointerException se uno dei multiset è nullo
+	 */
+	public static <E> Multiset<E> parallelDifference(Multiset<? extends E> a, Multiset<?> b) {
+		return combinaInParallelo(a, b, (x, y) -> Math.max(0, x - y), null);
+	}
+
+	/*
+	 * Mette nel risultato, per ogni elemento di a, la frequenza data dalla
+	 * funzione applicata alle frequenze in a e in b. Se soloB non è nullo (è b
+	 * stesso, per unione e somma) fa lo stesso per gli elementi che sono solo
+	 * in b, con frequenza 0 in a.
+	 */
+	private static <E> Multiset<E> combina(Multiset<? extends E> a, Multiset<?> b, IntBinaryOperator funzione,
+			Multiset<? extends E> soloB, Multiset<E> risultato) {
+		if (a == null || b == null) {
+			throw new NullPointerException("I multiset non possono essere nulli");
+		}
+		a.forEachEntry((elemento, frequenza) -> imposta(risultato, elemento,
+				funzione.applyAsInt(frequenza, b.count(elemento))));
+		if (soloB != null) {
+			//Gli elementi di b presenti anche in a sono già stati considerati
+			soloB.forEachEntry((elemento, frequenza) -> {
+				if (!a.contains(elemento)) {
+					imposta(risultato, elemento, funzione.applyAsInt(0, frequenza));
+				}
+			});
+		}
+		return risultato;
+	}
+
+	private static <E> Multiset<E> combinaInParallelo(Multiset<? extends E> a, Multiset<?> b,
+			IntBinaryOperator funzione, Multiset<? extends E> soloB) {
+		if (a == null || b == null) {
+			throw new NullPointerException("I multiset non possono essere nulli");
+		}
+		ConcurrentMultiset<E> risultato = new ConcurrentMultiset<E>();
+		a.entryStream().parallel().forEach(voce -> imposta(risultato, voce.getElement(),
+				funzione.applyAsInt(voce.getCount(), b.count(voce.getElement()))));
+		if (soloB != null) {
+			soloB.entryStream().parallel().forEach(voce -> {
+				if (!a.contains(voce.getElement())) {
+					imposta(risultato, voce.getElement(), funzione.applyAsInt(0, voce.getCount()));
+				}
+			});
+		}
+		return risultato;
+	}
+
+	private static <E> void imposta(Multiset<E> risultato, E elemento, int frequenza) {
+		if (frequenza > 0) {
+			risultato.setCount(elemento, frequenza);
+		}
+	}
+
+	/*
+	 * Determina se un oggetto può essere uguale a un multiset esatto: deve
+	 * essere un multiset e non uno sketch, le cui frequenze sono solo stime.
+	 * Lo usano gli equals delle implementazioni esatte, così l'uguaglianza
+	 * resta simmetrica anche quando l'altro oggetto è un CountMinMultiset.
+	 */
+	static boolean confrontabile(Object obj) {
+		return obj instanceof Multiset && !(obj instanceof CountMinMultiset);
+	}
+
+	//Somma di due frequenze, con lo stesso controllo di Multiset.add
+	private static int somma(int x, int y) {
+		if ((long) x + y > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Questo elemento ha già il numero massimo degli elementi!");
+		}
+		return x + y;
+	}
+
+}
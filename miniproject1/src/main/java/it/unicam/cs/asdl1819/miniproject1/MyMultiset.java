@@ -1,140 +1,93 @@
 package it.unicam.cs.asdl1819.miniproject1;
 
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet; // Utilizzare questa classe per i set
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.ObjIntConsumer;
 
 /**
- * 
- * 
- * MyMultiset utilizza un HashSet dove all'interno si salvano oggetti di una classe interna
- * chiamata {@code Node}. Dentro l'oggetto Node vengono salvati l'elemento e la frequenza
- * di questo elemento. Si utilizza il metodo {@code searchElement(Object el} per cercare se
- * un dato elemento esiste e fare operazioni di aggiunta o aggiornamenti
- * 
+ *
+ *
+ * MyMultiset utilizza una HashMap che associa a ogni elemento distinto un
+ * oggetto della classe interna {@code Voce}, con l'elemento e la sua frequenza,
+ * che viene aggiornato sul posto. Per questo {@code count}, {@code add},
+ * {@code remove}, {@code setCount} e {@code contains} costano {@code O(1)} in
+ * media, indipendentemente dal numero di elementi distinti, e inserire
+ * {@code n} elementi costa {@code O(n)}. Le voci sono anche quelle restituite da
+ * {@link #entrySet()} e {@link #forEachEntry}, per cui scorrere il multiset per
+ * elementi distinti non crea oggetti.
+ *
+ * Due multiset sono uguali se contengono gli stessi elementi con le stesse
+ * frequenze, anche se sono di classi diverse. Il codice hash è la somma, su
+ * tutti gli elementi distinti, di {@code elemento.hashCode() ^ frequenza}, per
+ * cui è lo stesso per tutte le implementazioni che seguono questa regola.
+ *
  * @author Luca Tesei (template) **Joel Sina** (implementazione)
  *
  * @param <E> il tipo degli elementi del multiset
- * 
+ *
  */
 public class MyMultiset<E> implements Multiset<E> {
-	
-	public Set<Node> set;
-	public int size = 0;
-
-	// L'iteratore personalizzato fa uso dell'iteratore dell'HashSet per ricevere gli elementi
-	// dalla lista. Una volta instanziato si controlla se la dimensione sia maggiore di 0 così
-	// ci accertiamo che esista almeno un elemento.
-	// Si mostra un elemento in base alla molteplicità
-	
+
+	private final Map<E, Voce<E>> mappa;
+	private int size = 0;
+
+	// L'iteratore scorre le voci della mappa e mostra ogni elemento tante volte
+	// quanto vale la sua frequenza, prima di passare alla voce successiva
+
 	private class Itr implements Iterator<E> {
-		private Node pointer;
-		private int cont = size; //Dichiaro cont uguale alla dimensione
-		private int frequenza;
-		private Iterator<Node> iter = set.iterator();
-		
-		private Itr() {
-			//Controllo se esistono degli elementi nel set passando il size
-			if(cont>0){
-				//Punto all'elemento salvando anche la frequenza per un check futuro
-				pointer = iter.next();
-				frequenza = pointer.getFrequenza();
-			}
-		}
+		private final Iterator<Voce<E>> iter = mappa.values().iterator();
+		private E elemento;
+		private int rimanenti = 0; //Occorrenze dell'elemento corrente ancora da mostrare
 
 		public boolean hasNext() {
-			//Controllo se il cont è diverso da 0 in caso positivo esiste un prossimo elemento
-			return cont!=0;
+			return rimanenti > 0 || iter.hasNext();
 		}
 
 		public E next() {
-			 if (!this.hasNext()) {
-				 throw new NoSuchElementException("Tentativo di ottenere il prossimo elemento che non esiste");
-			 }
-	                
-			//Prendo l'elemento da restituire
-			E elemento =  pointer.getElemento();
-			
-			//Controllo se la frequenza sia maggiore di 1 in quanto bisogna restituire lo stesso 
-			//elemento più volte di seguito in base alla loro frequenza
-			//Appena la frequenza va ad uno, si va nel blocco else e si punta al prossimo elemento
-			// Diminuisco cont ad ogni return dell'elemento così è più facile capire se esiste un prossimo elemento o no
-			if(frequenza > 1) {
-				frequenza --;
-			}else {	
-				if(cont>1) {
-					pointer = iter.next();
-	            	frequenza = pointer.getFrequenza();
+			if (rimanenti == 0) {
+				if (!iter.hasNext()) {
+					throw new NoSuchElementException("Tentativo di ottenere il prossimo elemento che non esiste");
 				}
-            	cont--;
-            	return elemento;
-            }     
-			cont--;
+				//Passo all'elemento successivo e ne salvo la frequenza
+				Voce<E> voce = iter.next();
+				elemento = voce.elemento;
+				rimanenti = voce.valore;
+			}
+			rimanenti--;
 			return elemento;
 		}
 	}
-	
+
 	/*
-	 * Si crea una classe Node con dentro l'elemento passato all'array list e la frequenza.
-	 * Viene istanziato un oggetto di questa classe per salvare dentro l'hashset del MyMultiset
+	 * Elemento con la sua frequenza, modificabile così aggiornare un elemento già
+	 * presente non richiede di reinserirlo nella mappa. La frequenza non è mai
+	 * minore di 1 finché la voce è nella mappa: gli elementi con frequenza 0
+	 * vengono tolti.
 	 */
 
-	private class Node {
-		private E elemento;
-		private int frequenza;
-
-		public Node(E el, int freq) {
-			this.setElemento(el);
-			this.setFrequenza(freq);
-		}
-
-		//Ritorno l'elemento
-		public E getElemento() {
-			return elemento;
-		}
+	private static final class Voce<E> extends VoceAstratta<E> {
+		private final E elemento;
+		private int valore;
 
-		//Setto l'elemento
-		public void setElemento(E elemento) {
+		private Voce(E elemento, int valore) {
 			this.elemento = elemento;
-		}
-		
-		//Ritorno la frequenza
-		public int getFrequenza() {
-			return frequenza;
-		}
-
-		//Setto la frequenza
-		public void setFrequenza(int frequenza) {
-			this.frequenza = frequenza;
-		}
-		//Faccio la somma della frequenza con il parametro in entrata
-		public void sumFrequenza(int frequenza) {
-			this.frequenza += frequenza;
+			this.valore = valore;
 		}
 
-		@Override
-		public int hashCode() {
-			return (Integer) this.elemento;
+		public E getElement() {
+			return elemento;
 		}
 
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			Node other = (Node) obj;
-			if (elemento == null) {
-				if (other.elemento != null)
-					return false;
-			} else if (!elemento.equals(other.elemento))
-				return false;
-			if (frequenza != other.frequenza)
-				return false;
-			return true;
+		public int getCount() {
+			return valore;
 		}
 	}
 
@@ -142,12 +95,12 @@ public class MyMultiset<E> implements Multiset<E> {
 	 * Crea un multiset vuoto.
 	 */
 	public MyMultiset() {
-		this.set = new HashSet<Node>();
+		this.mappa = new HashMap<E, Voce<E>>();
 	}
 
-	
+
 	public int size() {
-		//Ritorno il size che si modifica ad ogni aggiornamento del set
+		//Ritorno il size che si modifica ad ogni aggiornamento della mappa
 		return this.size;
 	}
 
@@ -156,14 +109,9 @@ public class MyMultiset<E> implements Multiset<E> {
 			throw new NullPointerException("L'elemento non può essere nullo");
 		}
 
-		
-		//Cerco se l'elemento esiste, in caso negativo viene ritornato null
-		Node nodo = this.searchElement(element);
-		if(nodo!=null) {
-			return nodo.getFrequenza();
-		}
-		
-		return 0;
+		//Se l'elemento non è nella mappa la frequenza è 0
+		Voce<E> voce = this.mappa.get(element);
+		return voce == null ? 0 : voce.valore;
 	}
 
 	public int add(E element, int occurrences) {
@@ -173,40 +121,26 @@ public class MyMultiset<E> implements Multiset<E> {
 		if (element == null) {
 			throw new NullPointerException("L'elemento non può essere nullo");
 		}
-		
-		boolean trovato = false;
-		
+
 		//Controllo se l'elemento esiste, in caso positivo aumento
-		//la frequenza con il numero delle occorrenze e aumentando la size
-		Node nodo = this.searchElement(element);
-		if(nodo!=null) {
-			int frequenza = nodo.getFrequenza();
-			// Se le occorrenze sono 0 allora ritorniamo la frequenza dell'elemento esistente
-			if (occurrences == 0) {
-				return frequenza;
-			}
-			// Si controlla se si ha già la frequenza massima oppure se la frequenza
-			// esistente + le occorrenze portino un valore maggiore della dimensione massima
-			if (frequenza+occurrences > Integer.MAX_VALUE || frequenza == Integer.MAX_VALUE) {
+		//la frequenza con il numero delle occorrenze e aumento la size
+		Voce<E> voce = this.mappa.get(element);
+		if (voce != null) {
+			int precedente = voce.valore;
+			// Si controlla se la frequenza esistente + le occorrenze porterebbe
+			// un valore maggiore della frequenza massima
+			if ((long) precedente + occurrences > Integer.MAX_VALUE) {
 				throw new IllegalArgumentException("Questo elemento ha già il numero massimo degli elementi!");
 			}
-			nodo.sumFrequenza(occurrences);
-			
+			voce.valore += occurrences;
 			this.size += occurrences;
-			trovato = true;
-			return frequenza;
+			return precedente;
 		}
-		
-		//In caso non sia stato trovato l'oggetto, lo creo e lo aggiungo come nuovo, aumentando la size
-		
-		if (!trovato) {
-			if (occurrences == 0) {
-				return 0;
-			}
 
-			this.set.add(new Node(element, occurrences));
+		//In caso non sia stato trovato l'elemento, lo aggiungo come nuovo, aumentando la size
+		if (occurrences > 0) {
+			this.mappa.put(element, new Voce<E>(element, occurrences));
 			this.size += occurrences;
-			return 0;
 		}
 		return 0;
 	}
@@ -215,7 +149,7 @@ public class MyMultiset<E> implements Multiset<E> {
 		if (element == null) {
 			throw new NullPointerException("L'elemento non può essere nullo");
 		}
-		
+
 		// Richiamo il metodo sopra creato passando come numero di occorrenze 1
 		this.add(element, 1);
 	}
@@ -227,45 +161,38 @@ public class MyMultiset<E> implements Multiset<E> {
 		if (element == null) {
 			throw new NullPointerException("L'elemento non può essere nullo");
 		}
-		
+
 		//Verifico che l'elemento esiste, se esiste si controlla
 		//se la frequenza meno le occorrenze porti minore di 1, in caso questo controllo
-		//risultasse true allora si rimuove l'oggetto del tutto e si diminuisce il size generale
-		Node nodo = this.searchElement(element);
-		if(nodo!=null) {
-			int frequenza = nodo.getFrequenza();
-			if (frequenza - occurrences < 1) {
-				this.set.remove(nodo);
-				this.size -= frequenza;
-				return frequenza;
-			}
-			//Sommiamo un valore negativo alla frequenza per diminuirlo
-			nodo.sumFrequenza(-occurrences);
-			this.size -= occurrences;
-			return frequenza;
+		//risultasse true allora si rimuove l'elemento del tutto e si diminuisce il size generale
+		Voce<E> voce = this.mappa.get(element);
+		if (voce == null) {
+			return 0;
 		}
-		
-		return 0;
+		int precedente = voce.valore;
+		if (precedente - occurrences < 1) {
+			this.mappa.remove(element);
+			this.size -= precedente;
+			return precedente;
+		}
+		voce.valore -= occurrences;
+		this.size -= occurrences;
+		return precedente;
 	}
 
 	public boolean remove(Object element) {
 		if (element == null) {
 			throw new NullPointerException("L'elemento non può essere nullo");
 		}
-		
+
 		//Si richiama il metodo remove sopra creato passando come numero per le occorrenze
 		//da rimuovere 1. Siccome il metodo sopra ritorna un intero con la frequenza precedente
 		// si fa un controllo sul valore restituito
-		int result = this.remove(element, 1);
-		if (result > 0) {
-			return true;
-		}
-		return false;
-
+		return this.remove(element, 1) > 0;
 	}
 
 	public int setCount(E element, int count) {
-		
+
 		if (count < 0) {
 			throw new IllegalArgumentException("Il secondo parametro non può essere negativo!");
 		}
@@ -273,44 +200,84 @@ public class MyMultiset<E> implements Multiset<E> {
 			throw new NullPointerException("L'elemento non può essere nullo");
 		}
 
-		boolean trovato = false;
-		int frequenza = 0;
-
-		//Si controlla se l'elemento esiste in caso positivo si fa uso del metodo
-		//setFrequenza() della classe Node per impostare la frequenza
-		//Si fa un controllo per capire se dobbiamo diminuire o aumentare il numero della size
-		Node nodo = this.searchElement(element);
-		if(nodo!=null) {
-			frequenza = nodo.getFrequenza();
-			nodo.setFrequenza(count);
-
-			if(frequenza <= count) {
-				this.size += count-frequenza;
-			}else {
-				this.size -= frequenza-count;
-			}
-			trovato = true;
+		//Si controlla se l'elemento esiste: con frequenza 0 lo si toglie dalla mappa,
+		//altrimenti si imposta la nuova frequenza e si aggiorna la size con la differenza
+		Voce<E> voce = this.mappa.get(element);
+		if (voce == null) {
+			return this.add(element, count);
 		}
-		if(!trovato) {
-			this.add(element,count);
+		int precedente = voce.valore;
+		if (count == 0) {
+			this.mappa.remove(element);
+		} else {
+			voce.valore = count;
 		}
-		return frequenza;
+		this.size += count - precedente;
+		return precedente;
 	}
 
 	public Set<E> elementSet() {
-		
-		Set<E> newSet = new HashSet<E>();
-		//Siccome dentro l'hashSet vengono salvati oggetti di tipo Node noi scorriamo
-		//il nostro set e aggiungiamo l'elemento che sta salvato dentro gli oggetti Node
-		//nel newSet da restituire
-		for (Node el : this.set) {
-			newSet.add(el.getElemento());
+		//Restituisco una copia delle chiavi della mappa, così modificare il set
+		//non modifica il multiset
+		return new HashSet<E>(this.mappa.keySet());
+	}
+
+	/**
+	 * Restituisce una vista in sola lettura delle voci del multiset. Le voci
+	 * sono quelle usate internamente, per cui non viene creato nessun oggetto
+	 * per elemento, e le loro frequenze seguono le modifiche successive del
+	 * multiset finché l'elemento resta presente.
+	 *
+	 * @return la vista delle voci del multiset
+	 */
+	@Override
+	public Set<Multiset.Entry<E>> entrySet() {
+		final Collection<Multiset.Entry<E>> voci = Collections.<Multiset.Entry<E>>unmodifiableCollection(this.mappa.values());
+		return new AbstractSet<Multiset.Entry<E>>() {
+			@Override
+			public int size() {
+				return voci.size();
+			}
+
+			@Override
+			public Iterator<Multiset.Entry<E>> iterator() {
+				return voci.iterator();
+			}
+
+			@Override
+			public Spliterator<Multiset.Entry<E>> spliterator() {
+				return voci.spliterator();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				if (!(o instanceof Multiset.Entry)) {
+					return false;
+				}
+				Multiset.Entry<?> voce = (Multiset.Entry<?>) o;
+				Object elemento = voce.getElement();
+				return elemento != null && voce.getCount() > 0 && count(elemento) == voce.getCount();
+			}
+		};
+	}
+
+	@Override
+	public void forEachEntry(ObjIntConsumer<? super E> action) {
+		if (action == null) {
+			throw new NullPointerException("L'azione non può essere nulla");
 		}
-		return newSet;
+		for (Voce<E> voce : this.mappa.values()) {
+			action.accept(voce.elemento, voce.valore);
+		}
+	}
+
+	@Override
+	public Spliterator<Multiset.Entry<E>> entrySpliterator() {
+		return Collections.<Multiset.Entry<E>>unmodifiableCollection(this.mappa.values()).spliterator();
 	}
 
 	public Iterator<E> iterator() {
-		//Si usa la classe Itr creato sopra
+		//Si usa la classe Itr creata sopra
 		return new Itr();
 	}
 
@@ -318,19 +285,15 @@ public class MyMultiset<E> implements Multiset<E> {
 		if (element == null) {
 			throw new NullPointerException("L'elemento non può essere nullo");
 		}
-		
-		//Si cerca se l'elemento esiste, in caso positivo viene restituito true, altrimenti false
-		Node nodo = this.searchElement(element);
-		if(nodo!=null) {
-			return true;
-		}
-		return false;
+
+		//Nella mappa ci sono solo elementi con frequenza almeno 1
+		return this.mappa.containsKey(element);
 	}
 
 	public void clear() {
-		//La classe HashSet implementa un metodo clear per pulire, uso quel metodo e imposto
+		//La classe HashMap implementa un metodo clear per pulire, uso quel metodo e imposto
 		//la variabile size = 0
-		this.set.clear();
+		this.mappa.clear();
 		this.size = 0;
 	}
 
@@ -341,62 +304,42 @@ public class MyMultiset<E> implements Multiset<E> {
 
   /*
   * (non-Javadoc)
-  * 
+  *
   * @see java.lang.Object#hashCode()
   */
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((set == null) ? 0 : set.hashCode());
-		result = prime * result + size;
+		//Somma su tutti gli elementi distinti, indipendente dall'ordine della mappa
+		int result = 0;
+		for (Voce<E> voce : this.mappa.values()) {
+			result += voce.hashCode();
+		}
 		return result;
 	}
   /*
   * (non-Javadoc)
-  * 
+  *
   * @see java.lang.Object#equals(java.lang.Object)
   */
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null) {
+		if (!Multisets.confrontabile(obj)) {
 			return false;
 		}
-		if (getClass() != obj.getClass()) {
+		Multiset<?> other = (Multiset<?>) obj;
+		if (size != other.size()) {
 			return false;
 		}
-		MyMultiset other = (MyMultiset) obj;
-			
-		if (set == null) {
-			if (other.set != null) {
+		//Con la stessa size, se ogni elemento di questo multiset ha la stessa
+		//frequenza nell'altro, l'altro non può avere altri elementi
+		for (Voce<E> voce : this.mappa.values()) {
+			if (other.count(voce.elemento) != voce.valore) {
 				return false;
 			}
-		} else if (!set.equals(other.set)) {
-			return false;
-		}
-		if (size != other.size) {
-			return false;
 		}
 		return true;
 	}
-	
-	/**
-	 * Metodo per cercare se un elemento esiste utilizzando un iteratore per scorrere la lista
-	 * 
-	 * @param el L'elemento che si vuole cercare
-	 * @return L'oggetto Node salvato nel nostro set oppure null se non esiste
-	 */
-	public Node searchElement(Object el) {
-	
-		for (Node elemento : this.set) {
-			if(elemento.getElemento().equals(el)) {
-				return elemento;
-			}
-		}
-		return null;
-	}
-
 
 }
@@ -0,0 +1,116 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+/**
+ * Ricerca di un fattore non banale di un numero composto con il metodo rho di
+ * Pollard nella variante di Brent. La successione {@code x -> x^2 + c mod n}
+ * viene calcolata in forma di {@link Montgomery}, e i massimi comun divisori
+ * vengono accumulati in un prodotto e calcolati solo ogni {@link #PASSO}
+ * iterazioni, per cui il costo è dominato da moltiplicazioni modulari senza
+ * divisioni. Il tempo atteso è {@code O(n^(1/4))} moltiplicazioni.
+ *
+ * @author Joel Sina
+ *
+ */
+final class PollardRho {
+
+	/**
+	 * Numero di differenze moltiplicate tra loro prima di calcolare un massimo
+	 * comun divisore.
+	 */
+	static final int PASSO = 128;
+
+	private PollardRho() {
+	}
+
+	/**
+	 * Trova un fattore non banale di un numero composto.
+	 *
+	 * @param n un numero composto maggiore di 3
+	 * @return un divisore di {@code n} strettamente compreso tra 1 e {@code n}
+	 */
+	static long fattore(long n) {
+		if ((n & 1) == 0) {
+			return 2;
+		}
+		Montgomery m = new Montgomery(n);
+		//Se una costante c porta a un ciclo senza fattori si riprova con la successiva
+		for (long c = 1;; c++) {
+			long g = brent(m, m.daNormale(c % n));
+			if (g != n) {
+				return g;
+			}
+		}
+	}
+
+	//Una esecuzione dell'algoritmo di Brent con la costante c in forma di Montgomery
+	private static long brent(Montgomery m, long c) {
+		long n = m.modulo();
+		long y = m.daNormale(2 % n);
+		long x = y;
+		long ys = y;
+		long q = m.uno();
+		long g = 1;
+		for (long r = 1; g == 1; r <<= 1) {
+			x = y;
+			for (long i = 0; i < r; i++) {
+				y = passo(m, y, c);
+			}
+			for (long k = 0; k < r && g == 1; k += PASSO) {
+				ys = y;
+				long fine = Math.min(PASSO, r - k);
+				for (long i = 0; i < fine; i++) {
+					y = passo(m, y, c);
+					q = m.moltiplica(q, differenza(x, y));
+				}
+				//q è in forma di Montgomery, ma R è primo con n e non cambia il massimo comun divisore
+				g = mcd(q, n);
+			}
+		}
+		if (g == n) {
+			//Il prodotto ha accumulato tutti i fattori: ripeto l'ultimo blocco un passo alla volta
+			do {
+				ys = passo(m, ys, c);
+				g = mcd(differenza(x, ys), n);
+			} while (g == 1);
+		}
+		return g;
+	}
+
+	private static long passo(Montgomery m, long y, long c) {
+		return m.somma(m.moltiplica(y, y), c);
+	}
+
+	private static long differenza(long x, long y) {
+		return x > y ? x - y : y - x;
+	}
+
+	/**
+	 * Calcola il massimo comun divisore di due numeri non negativi con
+	 * l'algoritmo binario di Stein.
+	 *
+	 * @param a il primo numero, non negativo
+	 * @param b il secondo numero, non negativo
+	 * @return il massimo comun divisore di {@code a} e {@code b}
+	 */
+	static long mcd(long a, long b) {
+		if (a == 0) {
+			return b;
+		}
+		if (b == 0) {
+			return a;
+		}
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>>= Long.numberOfTrailingZeros(a);
+		while (b != 0) {
+			b >>>= Long.numberOfTrailingZeros(b);
+			if (a > b) {
+				long t = a;
+				a = b;
+				b = t;
+			}
+			b -= a;
+		}
+		return a << shift;
+	}
+
+}
@@ -0,0 +1,313 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Multiset che tiene gli elementi ordinati per frequenza, pensato per i
+ * contatori a cui si chiedono spesso gli elementi più frequenti. Oltre alla
+ * mappa dagli elementi alle frequenze, come {@link MyMultiset}, c'è un indice
+ * ordinato che associa a ogni frequenza presente l'insieme degli elementi che
+ * hanno quella frequenza.
+ *
+ * Ogni modifica sposta l'elemento da un gruppo all'altro, per cui {@code add},
+ * {@code remove} e {@code setCount} costano {@code O(log f)}, con {@code f} il
+ * numero di frequenze distinte presenti (di solito molto minore del numero di
+ * elementi distinti), invece di {@code O(1)}. In cambio {@link #topK(int)}
+ * scorre i gruppi dalla frequenza più alta e costa {@code O(k + log f)},
+ * senza guardare gli altri elementi. Le letture ({@code count},
+ * {@code contains}) costano {@code O(1)} in media come in {@link MyMultiset}.
+ *
+ * Tra gli elementi con la stessa frequenza {@link #topK(int)} restituisce
+ * prima quelli che ci sono arrivati prima.
+ *
+ * @author Joel Sina
+ *
+ * @param <E> il tipo degli elementi del multiset
+ */
+public class RankedMultiset<E> implements Multiset<E> {
+
+	private final Map<E, Voce<E>> mappa = new HashMap<E, Voce<E>>();
+	// Per ogni frequenza presente, gli elementi con quella frequenza
+	private final NavigableMap<Integer, Set<E>> gruppi = new TreeMap<Integer, Set<E>>();
+	private int size = 0;
+
+	/*
+	 * Elemento con la sua frequenza, come in MyMultiset. La frequenza non è mai
+	 * minore di 1 finché la voce è nella mappa.
+	 */
+	private static final class Voce<E> extends VoceAstratta<E> {
+		private final E elemento;
+		private int valore;
+
+		private Voce(E elemento, int valore) {
+			this.elemento = elemento;
+			this.valore = valore;
+		}
+
+		public E getElement() {
+			return elemento;
+		}
+
+		public int getCount() {
+			return valore;
+		}
+	}
+
+	/**
+	 * Crea un multiset vuoto.
+	 */
+	public RankedMultiset() {
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int count(Object element) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		Voce<E> voce = mappa.get(element);
+		return voce == null ? 0 : voce.valore;
+	}
+
+	public int add(E element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il numero deve essere maggiore di 0");
+		}
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		Voce<E> voce = mappa.get(element);
+		int precedente = voce == null ? 0 : voce.valore;
+		if ((long) precedente + occurrences > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Questo elemento ha già il numero massimo degli elementi!");
+		}
+		if (occurrences > 0) {
+			aggiorna(element, voce, precedente + occurrences);
+		}
+		return precedente;
+	}
+
+	public void add(E element) {
+		add(element, 1);
+	}
+
+	public int remove(Object element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il secondo parametro non può essere negativo!");
+		}
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		Voce<E> voce = mappa.get(element);
+		if (voce == null) {
+			return 0;
+		}
+		int precedente = voce.valore;
+		if (occurrences > 0) {
+			aggiorna(voce.elemento, voce, Math.max(0, precedente - occurrences));
+		}
+		return precedente;
+	}
+
+	public boolean remove(Object element) {
+		return remove(element, 1) > 0;
+	}
+
+	public int setCount(E element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("Il secondo parametro non può essere negativo!");
+		}
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		Voce<E> voce = mappa.get(element);
+		int precedente = voce == null ? 0 : voce.valore;
+		if (occurrences != precedente) {
+			aggiorna(element, voce, occurrences);
+		}
+		return precedente;
+	}
+
+	/*
+	 * Porta la frequenza di un elemento a un nuovo valore, diverso dal
+	 * precedente, spostandolo di gruppo. La voce è null se l'elemento non c'è.
+	 */
+	private void aggiorna(E elemento, Voce<E> voce, int nuovo) {
+		if (voce == null) {
+			voce = new Voce<E>(elemento, 0);
+			mappa.put(elemento, voce);
+		} else {
+			Set<E> gruppo = gruppi.get(voce.valore);
+			gruppo.remove(elemento);
+			if (gruppo.isEmpty()) {
+				gruppi.remove(voce.valore);
+			}
+		}
+		size += nuovo - voce.valore;
+		voce.valore = nuovo;
+		if (nuovo == 0) {
+			mappa.remove(elemento);
+			return;
+		}
+		Set<E> gruppo = gruppi.get(nuovo);
+		if (gruppo == null) {
+			gruppo = new LinkedHashSet<E>();
+			gruppi.put(nuovo, gruppo);
+		}
+		gruppo.add(elemento);
+	}
+
+	/**
+	 * Restituisce i {@code k} elementi più frequenti con le loro frequenze,
+	 * dal più frequente, scorrendo l'indice dalla frequenza più alta. Costa
+	 * {@code O(k + log f)}, con {@code f} il numero di frequenze distinte.
+	 *
+	 * @param k il numero di elementi da restituire
+	 * @return le voci dei {@code k} elementi più frequenti, in ordine non
+	 *         crescente di frequenza
+	 * @throws IllegalArgumentException se {@code k} è negativo
+	 */
+	@Override
+	public List<Multiset.Entry<E>> topK(int k) {
+		if (k < 0) {
+			throw new IllegalArgumentException("Il numero di elementi non può essere negativo");
+		}
+		List<Multiset.Entry<E>> risultato = new ArrayList<Multiset.Entry<E>>(Math.min(k, mappa.size()));
+		for (Map.Entry<Integer, Set<E>> gruppo : gruppi.descendingMap().entrySet()) {
+			for (E elemento : gruppo.getValue()) {
+				if (risultato.size() == k) {
+					return risultato;
+				}
+				risultato.add(new VoceMultiset<E>(elemento, gruppo.getKey()));
+			}
+		}
+		return risultato;
+	}
+
+	/**
+	 * Restituisce quanti elementi distinti hanno almeno una certa frequenza.
+	 * Costa {@code O(f)} nel caso peggiore, con {@code f} il numero di
+	 * frequenze distinte almeno uguali a quella data.
+	 *
+	 * @param frequenza la frequenza minima
+	 * @return il numero di elementi con frequenza almeno {@code frequenza}
+	 * @throws IllegalArgumentException se la frequenza è minore di 1
+	 */
+	public int countAtLeast(int frequenza) {
+		if (frequenza < 1) {
+			throw new IllegalArgumentException("La frequenza deve essere almeno 1");
+		}
+		int quanti = 0;
+		for (Set<E> gruppo : gruppi.tailMap(frequenza, true).values()) {
+			quanti += gruppo.size();
+		}
+		return quanti;
+	}
+
+	public Set<E> elementSet() {
+		return new HashSet<E>(mappa.keySet());
+	}
+
+	@Override
+	public void forEachEntry(ObjIntConsumer<? super E> action) {
+		if (action == null) {
+			throw new NullPointerException("L'azione non può essere nulla");
+		}
+		for (Voce<E> voce : mappa.values()) {
+			action.accept(voce.elemento, voce.valore);
+		}
+	}
+
+	@Override
+	public Spliterator<Multiset.Entry<E>> entrySpliterator() {
+		return Collections.<Multiset.Entry<E>>unmodifiableCollection(mappa.values()).spliterator();
+	}
+
+	public Iterator<E> iterator() {
+		final Iterator<Voce<E>> iter = mappa.values().iterator();
+		return new Iterator<E>() {
+			private E elemento;
+			private int rimanenti = 0;
+
+			public boolean hasNext() {
+				return rimanenti > 0 || iter.hasNext();
+			}
+
+			public E next() {
+				if (rimanenti == 0) {
+					if (!iter.hasNext()) {
+						throw new NoSuchElementException("Tentativo di ottenere il prossimo elemento che non esiste");
+					}
+					Voce<E> voce = iter.next();
+					elemento = voce.elemento;
+					rimanenti = voce.valore;
+				}
+				rimanenti--;
+				return elemento;
+			}
+		};
+	}
+
+	public boolean contains(Object element) {
+		if (element == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		return mappa.containsKey(element);
+	}
+
+	public void clear() {
+		mappa.clear();
+		gruppi.clear();
+		size = 0;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		//Stessa regola di MyMultiset
+		int result = 0;
+		for (Voce<E> voce : mappa.values()) {
+			result += voce.hashCode();
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!Multisets.confrontabile(obj)) {
+			return false;
+		}
+		Multiset<?> other = (Multiset<?>) obj;
+		if (size != other.size()) {
+			return false;
+		}
+		for (Voce<E> voce : mappa.values()) {
+			if (other.count(voce.elemento) != voce.valore) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,154 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tabella di primalità compatta che memorizza solo i numeri dispari, un bit
+ * ciascuno, in un array di parole di tipo {@code long} sullo heap. Il bit
+ * {@code i} rappresenta il numero {@code 2i+1} e vale 1 se il numero è
+ * composto: in questo modo un array appena allocato rappresenta già "tutti
+ * candidati primi" e non serve il ciclo di inizializzazione. Le interrogazioni
+ * sono in {@link TabellaBitDispariAstratta}. Rispetto a {@link TabellaBooleana}
+ * occupa 16 volte meno memoria, per cui anche un crivello fino a
+ * {@code Integer.MAX_VALUE} richiede solo 128 MB.
+ *
+ * La tabella viene setacciata per segmenti di {@link #PAROLE_SEGMENTO} parole,
+ * come in {@link CrivelloSegmentato}, così ogni segmento resta in cache mentre
+ * vengono cancellati i multipli di tutti i primi base, e segmenti diversi
+ * possono essere setacciati in parallelo.
+ *
+ * I bit dell'ultima parola che superano la capacità sono impostati a 1, così la
+ * ricerca del primo successivo si ferma da sola alla fine della tabella.
+ *
+ * Per contare i primi fino a un numero e trovare l'i-esimo primo la tabella
+ * tiene un indice con il numero di primi dispari che precedono ogni blocco di
+ * {@link #PAROLE_BLOCCO_RANGO} parole: il conteggio richiede al più
+ * {@link #PAROLE_BLOCCO_RANGO} {@code Long.bitCount} e l'indice occupa circa il
+ * 6% della tabella.
+ *
+ * @author Joel Sina
+ *
+ */
+final class TabellaBitDispari extends TabellaBitDispariAstratta {
+
+	/**
+	 * Numero di parole setacciate insieme, 32 KB come un blocco di
+	 * {@link CrivelloSegmentato}. È anche la dimensione minima dei compiti in
+	 * cui viene divisa la costruzione parallela.
+	 */
+	static final int PAROLE_SEGMENTO = CrivelloSegmentato.DIMENSIONE_BLOCCO_PREDEFINITA >>> 3;
+
+	private final long[] composti;
+	// rango[b] è il numero di primi dispari nelle parole prima del blocco b
+	private final int[] rango;
+
+	/**
+	 * Costruisce la tabella eseguendo il crivello fino a {@code capacita} nel
+	 * thread corrente.
+	 *
+	 * @param capacita il numero più grande da rappresentare, almeno 2
+	 */
+	TabellaBitDispari(int capacita) {
+		this(capacita, null);
+	}
+
+	/**
+	 * Costruisce la tabella eseguendo il crivello fino a {@code capacita}. La
+	 * tabella viene divisa in segmenti indipendenti che, se è indicato un pool,
+	 * vengono setacciati in parallelo.
+	 *
+	 * @param capacita il numero più grande da rappresentare, almeno 2
+	 * @param pool     il pool su cui setacciare i segmenti, oppure null per
+	 *                 setacciarli nel thread corrente
+	 */
+	TabellaBitDispari(int capacita, ForkJoinPool pool) {
+		super(capacita);
+		int dispari = (capacita + 1) >>> 1;
+		composti = new long[numeroParole()];
+
+		//Ogni segmento viene setacciato con i primi dispari fino alla radice della capacità
+		int[] primiBase = primiDispari((int) CrivelloSegmentato.radice(capacita));
+		if (pool == null) {
+			for (int w = 0; w < composti.length; w += PAROLE_SEGMENTO) {
+				int parole = Math.min(PAROLE_SEGMENTO, composti.length - w);
+				CrivelloSegmentato.setacciaSegmento(composti, w, parole, (long) w << 6, primiBase);
+			}
+		} else {
+			pool.invoke(new Setaccia(composti, 0, composti.length, primiBase));
+		}
+
+		//Marco come composti i bit oltre la capacità
+		if ((dispari & 63) != 0) {
+			composti[composti.length - 1] |= -1L << (dispari & 63);
+		}
+
+		//Costruisco l'indice dei ranghi con una sola passata sulle parole
+		rango = new int[numeroRanghi()];
+		int primi = 0;
+		for (int w = 0; w < composti.length; w++) {
+			if (w % PAROLE_BLOCCO_RANGO == 0) {
+				rango[w / PAROLE_BLOCCO_RANGO] = primi;
+			}
+			primi += Long.bitCount(~composti[w]);
+		}
+	}
+
+	/*
+	 * Compito che divide a metà l'intervallo di parole finché non è abbastanza
+	 * piccolo da essere setacciato direttamente. I segmenti scrivono parole
+	 * disgiunte, quindi non serve sincronizzazione.
+	 */
+	private static final class Setaccia extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final long[] parole;
+		private final int primaParola;
+		private final int numeroParole;
+		private final int[] primiBase;
+
+		Setaccia(long[] parole, int primaParola, int numeroParole, int[] primiBase) {
+			this.parole = parole;
+			this.primaParola = primaParola;
+			this.numeroParole = numeroParole;
+			this.primiBase = primiBase;
+		}
+
+		@Override
+		protected void compute() {
+			if (numeroParole <= PAROLE_SEGMENTO) {
+				CrivelloSegmentato.setacciaSegmento(parole, primaParola, numeroParole, (long) primaParola << 6,
+						primiBase);
+				return;
+			}
+			//Taglio su un multiplo della dimensione del segmento
+			int meta = (numeroParole / PAROLE_SEGMENTO + 1) / 2 * PAROLE_SEGMENTO;
+			invokeAll(new Setaccia(parole, primaParola, meta, primiBase),
+					new Setaccia(parole, primaParola + meta, numeroParole - meta, primiBase));
+		}
+	}
+
+	//Restituisce i primi dispari fino a limite in ordine crescente
+	static int[] primiDispari(int limite) {
+		if (limite < 3) {
+			return new int[0];
+		}
+		TabellaBooleana piccola = new TabellaBooleana(limite);
+		int[] primi = new int[limite];
+		int quanti = 0;
+		for (int p = piccola.successivo(2); p != -1; p = piccola.successivo(p)) {
+			primi[quanti++] = p;
+		}
+		return Arrays.copyOf(primi, quanti);
+	}
+
+	long parola(int w) {
+		return composti[w];
+	}
+
+	int rango(int b) {
+		return rango[b];
+	}
+
+}
@@ -0,0 +1,297 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Parte comune delle tabelle che memorizzano solo i numeri dispari, un bit
+ * ciascuno, in parole di tipo {@code long}: il bit {@code i} rappresenta il
+ * numero {@code 2i+1} e vale 1 se il numero è composto, e i bit dell'ultima
+ * parola che superano la capacità sono impostati a 1. Accanto alle parole c'è
+ * un indice con il numero di primi dispari che precedono ogni blocco di
+ * {@link #PAROLE_BLOCCO_RANGO} parole.
+ *
+ * Le sottoclassi decidono solo dove stanno le parole e l'indice:
+ * {@link TabellaBitDispari} li tiene in array sullo heap,
+ * {@link TabellaBitDispariMappata} li legge da un file mappato in memoria.
+ * Tutte le interrogazioni sono implementate qui una volta sola.
+ *
+ * @author Joel Sina
+ *
+ */
+abstract class TabellaBitDispariAstratta implements TabellaPrimalita {
+
+	/**
+	 * Numero di parole coperte da ogni elemento dell'indice dei ranghi.
+	 */
+	static final int PAROLE_BLOCCO_RANGO = 8;
+
+	private final int capacita;
+	private final int numeroParole;
+
+	/**
+	 * Inizializza la parte comune della tabella.
+	 *
+	 * @param capacita il numero più grande rappresentato, almeno 2
+	 */
+	TabellaBitDispariAstratta(int capacita) {
+		this.capacita = capacita;
+		this.numeroParole = numeroParole(capacita);
+	}
+
+	/**
+	 * Calcola il numero di parole necessarie per i dispari fino alla capacità.
+	 *
+	 * @param capacita il numero più grande da rappresentare
+	 * @return il numero di parole della tabella
+	 */
+	static int numeroParole(int capacita) {
+		//Numero di dispari da 1 a capacita; lo shift senza segno gestisce anche
+		//il caso capacita == Integer.MAX_VALUE
+		int dispari = (capacita + 1) >>> 1;
+		return (dispari + 63) >>> 6;
+	}
+
+	/**
+	 * Calcola il numero di elementi dell'indice dei ranghi per un certo numero
+	 * di parole.
+	 *
+	 * @param numeroParole il numero di parole della tabella
+	 * @return il numero di blocchi dell'indice
+	 */
+	static int numeroRanghi(int numeroParole) {
+		return (numeroParole + PAROLE_BLOCCO_RANGO - 1) / PAROLE_BLOCCO_RANGO;
+	}
+
+	/**
+	 * Restituisce la parola di indice {@code w}.
+	 *
+	 * @param w l'indice della parola, da 0 al numero di parole escluso
+	 * @return i 64 bit dei dispari da {@code 128w+1} a {@code 128w+127}
+	 */
+	abstract long parola(int w);
+
+	/**
+	 * Restituisce il numero di primi dispari nelle parole che precedono il
+	 * blocco {@code b} dell'indice.
+	 *
+	 * @param b l'indice del blocco
+	 * @return il rango del blocco
+	 */
+	abstract int rango(int b);
+
+	/**
+	 * Restituisce il numero di parole della tabella.
+	 *
+	 * @return il numero di parole
+	 */
+	final int numeroParole() {
+		return numeroParole;
+	}
+
+	/**
+	 * Restituisce il numero di blocchi dell'indice dei ranghi.
+	 *
+	 * @return il numero di blocchi
+	 */
+	final int numeroRanghi() {
+		return numeroRanghi(numeroParole);
+	}
+
+	public int capacita() {
+		return capacita;
+	}
+
+	public boolean isPrimo(int k) {
+		if ((k & 1) == 0) {
+			return k == 2;
+		}
+		return !composto(k >>> 1);
+	}
+
+	public int successivo(int k) {
+		if (k < 2) {
+			return 2;
+		}
+		//Primo dispari strettamente maggiore di k, calcolato in long per evitare
+		//l'overflow quando k è vicino a Integer.MAX_VALUE
+		long bit = ((long) k + 1) >>> 1;
+		int parola = (int) (bit >>> 6);
+		if (parola >= numeroParole) {
+			return -1;
+		}
+		//Scorro una parola alla volta cercando il primo bit a 0
+		long primi = ~parola(parola) & (-1L << bit);
+		while (primi == 0) {
+			parola++;
+			if (parola == numeroParole) {
+				return -1;
+			}
+			primi = ~parola(parola);
+		}
+		return (int) ((((long) parola << 6) + Long.numberOfTrailingZeros(primi)) * 2 + 1);
+	}
+
+	public int precedente(int k) {
+		if (k <= 2) {
+			return -1;
+		}
+		if (k == 3) {
+			return 2;
+		}
+		//Indice dell'ultimo dispari strettamente minore di k
+		int bit = (k - 2) >>> 1;
+		int parola = bit >>> 6;
+		//Scorro all'indietro una parola alla volta cercando l'ultimo bit a 0
+		long primi = ~parola(parola) & (-1L >>> (63 - (bit & 63)));
+		while (primi == 0) {
+			parola--;
+			if (parola < 0) {
+				return 2;
+			}
+			primi = ~parola(parola);
+		}
+		return (int) ((((long) parola << 6) + 63 - Long.numberOfLeadingZeros(primi)) * 2 + 1);
+	}
+
+	public int conta(int k) {
+		if (k < 2) {
+			return 0;
+		}
+		//Indice dell'ultimo dispari minore o uguale a k
+		int bit = (k - 1) >>> 1;
+		int parola = bit >>> 6;
+		int blocco = parola / PAROLE_BLOCCO_RANGO;
+		//Parto dal rango del blocco e aggiungo le parole che mancano,
+		//più 1 per il primo 2
+		int primi = 1 + rango(blocco);
+		for (int w = blocco * PAROLE_BLOCCO_RANGO; w < parola; w++) {
+			primi += Long.bitCount(~parola(w));
+		}
+		return primi + Long.bitCount(~parola(parola) & (-1L >>> (63 - (bit & 63))));
+	}
+
+	public int ennesimo(int i) {
+		if (i == 1) {
+			return 2;
+		}
+		//Cerco l'(i-1)-esimo primo dispari: ricerca binaria dell'ultimo blocco
+		//preceduto da meno di i-1 primi
+		int cercato = i - 1;
+		int basso = 0;
+		int alto = numeroRanghi() - 1;
+		while (basso < alto) {
+			int medio = (basso + alto + 1) >>> 1;
+			if (rango(medio) < cercato) {
+				basso = medio;
+			} else {
+				alto = medio - 1;
+			}
+		}
+		int mancanti = cercato - rango(basso);
+		//Scorro le parole del blocco finché non trovo quella che contiene il primo
+		for (int w = basso * PAROLE_BLOCCO_RANGO; w < numeroParole; w++) {
+			long primi = ~parola(w);
+			int quanti = Long.bitCount(primi);
+			if (mancanti <= quanti) {
+				//Tolgo i primi bit a 1 finché il cercato non è il più basso
+				for (int j = 1; j < mancanti; j++) {
+					primi &= primi - 1;
+				}
+				return (int) ((((long) w << 6) + Long.numberOfTrailingZeros(primi)) * 2 + 1);
+			}
+			mancanti -= quanti;
+		}
+		return -1;
+	}
+
+	public int[] elenco() {
+		//Il numero di primi è noto dall'indice, quindi l'array ha già la dimensione giusta
+		final int[] primi = new int[conta(capacita)];
+		final int[] quanti = new int[1];
+		spliteratore().forEachRemaining((int p) -> primi[quanti[0]++] = p);
+		return primi;
+	}
+
+	public Spliterator.OfInt spliteratore() {
+		return new SpliteratorePrimi(0, numeroParole, 0L, 0, true);
+	}
+
+	/*
+	 * Spliterator che legge i primi direttamente dalle parole della tabella.
+	 * Copre le parole da parola a fine, più i bit rimasti nella parola già
+	 * letta (corrente, che inizia da base) e il primo 2 se due è vero. Si
+	 * divide a metà sulle parole ancora da leggere.
+	 */
+	private final class SpliteratorePrimi implements Spliterator.OfInt {
+		private int parola;
+		private final int fine;
+		private long corrente;
+		private int base;
+		private boolean due;
+
+		SpliteratorePrimi(int parola, int fine, long corrente, int base, boolean due) {
+			this.parola = parola;
+			this.fine = fine;
+			this.corrente = corrente;
+			this.base = base;
+			this.due = due;
+		}
+
+		public boolean tryAdvance(IntConsumer azione) {
+			if (due) {
+				due = false;
+				azione.accept(2);
+				return true;
+			}
+			while (corrente == 0) {
+				if (parola >= fine) {
+					return false;
+				}
+				corrente = ~parola(parola);
+				base = parola;
+				parola++;
+			}
+			long bit = ((long) base << 6) + Long.numberOfTrailingZeros(corrente);
+			corrente &= corrente - 1;
+			azione.accept((int) (bit * 2 + 1));
+			return true;
+		}
+
+		public OfInt trySplit() {
+			int resto = fine - parola;
+			if (resto < 2 * PAROLE_BLOCCO_RANGO) {
+				return null;
+			}
+			//La prima metà, con lo stato già letto, va al nuovo spliterator
+			int meta = parola + resto / 2;
+			SpliteratorePrimi prima = new SpliteratorePrimi(parola, meta, corrente, base, due);
+			parola = meta;
+			corrente = 0;
+			due = false;
+			return prima;
+		}
+
+		public long estimateSize() {
+			//Stima grossolana: circa un dispari su dieci è primo
+			return (long) (fine - parola) * 64 / 10 + Long.bitCount(corrente) + (due ? 1 : 0);
+		}
+
+		public int characteristics() {
+			return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+		}
+
+		@Override
+		public Comparator<? super Integer> getComparator() {
+			//I primi sono presentati nell'ordine naturale
+			return null;
+		}
+	}
+
+	//Restituisce true se il bit del dispari di indice i è impostato
+	private boolean composto(int i) {
+		return (parola(i >>> 6) & (1L << i)) != 0;
+	}
+
+}
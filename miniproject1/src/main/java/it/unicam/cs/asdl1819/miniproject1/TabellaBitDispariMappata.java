@@ -0,0 +1,183 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tabella dei dispari a bit letta da un file mappato in memoria. Le parole e
+ * l'indice dei ranghi non vengono copiati sullo heap: le interrogazioni leggono
+ * direttamente dalla cache delle pagine del sistema operativo, per cui aprire
+ * la tabella richiede solo di leggere l'intestazione e più processi che aprono
+ * lo stesso file condividono la stessa memoria fisica.
+ *
+ * Il file è composto da un'intestazione di {@link #DIMENSIONE_INTESTAZIONE}
+ * byte, seguita dalle parole della tabella e poi dall'indice dei ranghi, tutto
+ * in ordine little-endian. L'intestazione contiene, come {@code int}:
+ * <ol>
+ * <li>il numero magico {@link #MAGICO};</li>
+ * <li>la versione del formato, {@link #VERSIONE};</li>
+ * <li>la capacità della tabella;</li>
+ * <li>il numero di parole;</li>
+ * <li>il numero di blocchi dell'indice dei ranghi;</li>
+ * </ol>
+ * più byte a 0 fino a {@link #DIMENSIONE_INTESTAZIONE}, così le parole sono
+ * allineate a 8 byte.
+ *
+ * @author Joel Sina
+ *
+ */
+final class TabellaBitDispariMappata extends TabellaBitDispariAstratta {
+
+	/**
+	 * Numero magico all'inizio del file, "CRIV" in ASCII.
+	 */
+	static final int MAGICO = 0x43524956;
+
+	/**
+	 * Versione del formato del file scritto da {@link #scrivi}.
+	 */
+	static final int VERSIONE = 1;
+
+	/**
+	 * Dimensione in byte dell'intestazione del file.
+	 */
+	static final int DIMENSIONE_INTESTAZIONE = 32;
+
+	// Dimensione del buffer usato per scrivere il file
+	private static final int DIMENSIONE_BUFFER = 1 << 16;
+
+	private final LongBuffer parole;
+	private final IntBuffer ranghi;
+
+	private TabellaBitDispariMappata(int capacita, LongBuffer parole, IntBuffer ranghi) {
+		super(capacita);
+		this.parole = parole;
+		this.ranghi = ranghi;
+	}
+
+	long parola(int w) {
+		return parole.get(w);
+	}
+
+	int rango(int b) {
+		return ranghi.get(b);
+	}
+
+	/**
+	 * Apre un file scritto da {@link #scrivi} mappandolo in memoria in sola
+	 * lettura. Il canale viene chiuso subito, mentre la mappatura resta valida
+	 * finché la tabella è raggiungibile.
+	 *
+	 * @param file il file da aprire
+	 * @return la tabella letta dal file
+	 * @throws IOException se il file non può essere letto o non è un file di
+	 *                     crivello valido per questa versione
+	 */
+	static TabellaBitDispariMappata apri(Path file) throws IOException {
+		try (FileChannel canale = FileChannel.open(file, StandardOpenOption.READ)) {
+			long dimensione = canale.size();
+			if (dimensione < DIMENSIONE_INTESTAZIONE) {
+				throw new IOException("Il file è troppo corto per essere un crivello: " + file);
+			}
+			MappedByteBuffer mappa = canale.map(FileChannel.MapMode.READ_ONLY, 0, dimensione);
+			mappa.order(ByteOrder.LITTLE_ENDIAN);
+			if (mappa.getInt(0) != MAGICO) {
+				throw new IOException("Il file non è un crivello: " + file);
+			}
+			if (mappa.getInt(4) != VERSIONE) {
+				throw new IOException("Versione del file non supportata: " + mappa.getInt(4));
+			}
+			int capacita = mappa.getInt(8);
+			int numeroParole = mappa.getInt(12);
+			int numeroRanghi = mappa.getInt(16);
+			//Controllo che le dimensioni siano coerenti tra loro e con il file
+			if (capacita < 2 || numeroParole != numeroParole(capacita)
+					|| numeroRanghi != numeroRanghi(numeroParole)
+					|| dimensione != dimensioneFile(numeroParole, numeroRanghi)) {
+				throw new IOException("Intestazione del crivello non valida: " + file);
+			}
+			//I cast evitano i metodi covarianti aggiunti dopo Java 8
+			((Buffer) mappa).position(DIMENSIONE_INTESTAZIONE);
+			LongBuffer parole = ((ByteBuffer) mappa).slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+			((Buffer) mappa).position(DIMENSIONE_INTESTAZIONE + 8 * numeroParole);
+			IntBuffer ranghi = ((ByteBuffer) mappa).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			return new TabellaBitDispariMappata(capacita, parole, ranghi);
+		}
+	}
+
+	/**
+	 * Scrive una tabella in un file nel formato letto da {@link #apri}. Il file
+	 * viene prima scritto accanto a quello indicato e poi rinominato, così chi
+	 * apre il file nel frattempo trova la versione vecchia o quella nuova, mai
+	 * una scritta a metà.
+	 *
+	 * @param tabella la tabella da scrivere
+	 * @param file    il file da creare o sostituire
+	 * @throws IOException se il file non può essere scritto
+	 */
+	static void scrivi(TabellaBitDispariAstratta tabella, Path file) throws IOException {
+		Path assoluto = file.toAbsolutePath();
+		Path temporaneo = Files.createTempFile(assoluto.getParent(), assoluto.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel canale = FileChannel.open(temporaneo, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.allocateDirect(DIMENSIONE_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+				int numeroParole = tabella.numeroParole();
+				int numeroRanghi = tabella.numeroRanghi();
+				buffer.putInt(MAGICO).putInt(VERSIONE).putInt(tabella.capacita()).putInt(numeroParole)
+						.putInt(numeroRanghi);
+				while (buffer.position() < DIMENSIONE_INTESTAZIONE) {
+					buffer.put((byte) 0);
+				}
+				for (int w = 0; w < numeroParole; w++) {
+					if (buffer.remaining() < 8) {
+						svuota(buffer, canale);
+					}
+					buffer.putLong(tabella.parola(w));
+				}
+				for (int b = 0; b < numeroRanghi; b++) {
+					if (buffer.remaining() < 4) {
+						svuota(buffer, canale);
+					}
+					buffer.putInt(tabella.rango(b));
+				}
+				svuota(buffer, canale);
+				canale.force(true);
+			}
+			try {
+				Files.move(temporaneo, assoluto, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaneo, assoluto, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporaneo);
+		}
+	}
+
+	//Scrive sul canale tutto il contenuto del buffer e lo prepara per nuovi dati
+	private static void svuota(ByteBuffer buffer, FileChannel canale) throws IOException {
+		((Buffer) buffer).flip();
+		while (buffer.hasRemaining()) {
+			canale.write(buffer);
+		}
+		((Buffer) buffer).clear();
+	}
+
+	//Dimensione attesa del file per una tabella con le parole e i ranghi indicati
+	private static long dimensioneFile(int numeroParole, int numeroRanghi) {
+		return DIMENSIONE_INTESTAZIONE + 8L * numeroParole + 4L * numeroRanghi;
+	}
+
+}
@@ -0,0 +1,104 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+
+/**
+ * Tabella di primalità che usa un {@code boolean} per ogni numero da {@code 0}
+ * alla capacità. Occupa un byte per numero ma è la più semplice da consultare,
+ * per cui viene usata per i crivelli piccoli.
+ *
+ * Oltre all'array booleano la tabella tiene l'elenco ordinato dei primi, su cui
+ * le ricerche del primo successivo, del precedente e dell'i-esimo primo si
+ * fanno con una ricerca binaria o un accesso diretto.
+ *
+ * @author Joel Sina
+ *
+ */
+final class TabellaBooleana implements TabellaPrimalita {
+
+	// primi[i] vale true se e solo se i è primo
+	private final boolean[] primi;
+	// I numeri primi in ordine crescente
+	private final int[] elenco;
+
+	/**
+	 * Costruisce la tabella eseguendo il crivello fino a {@code capacita}.
+	 *
+	 * @param capacita il numero più grande da rappresentare, almeno 2 e minore
+	 *                 di {@code Integer.MAX_VALUE}
+	 */
+	TabellaBooleana(int capacita) {
+		primi = new boolean[capacita + 1];
+
+		//Imposto tutto a true a partire da 2
+		for (int i = 2; i <= capacita; i++) {
+			primi[i] = true;
+		}
+
+		//Per ogni primo i con i*i <= capacita imposto a false i suoi multipli,
+		//partendo da i*i perché quelli più piccoli sono già stati cancellati
+		for (int i = 2; i <= capacita / i; i++) {
+			if (primi[i]) {
+				for (int j = i; j <= capacita / i; j++) {
+					primi[i * j] = false;
+				}
+			}
+		}
+
+		//Conto i primi e poi li copio nell'elenco ordinato
+		int quanti = 0;
+		for (int i = 2; i <= capacita; i++) {
+			if (primi[i]) {
+				quanti++;
+			}
+		}
+		elenco = new int[quanti];
+		quanti = 0;
+		for (int i = 2; i <= capacita; i++) {
+			if (primi[i]) {
+				elenco[quanti++] = i;
+			}
+		}
+	}
+
+	public int capacita() {
+		return primi.length - 1;
+	}
+
+	public boolean isPrimo(int k) {
+		return primi[k];
+	}
+
+	public int successivo(int k) {
+		//Il primo successivo è il primo elemento dell'elenco maggiore di k
+		int i = conta(k);
+		return i < elenco.length ? elenco[i] : -1;
+	}
+
+	public int precedente(int k) {
+		//L'ultimo primo minore di k sta subito prima di quelli maggiori o uguali
+		int i = conta(k - 1);
+		return i > 0 ? elenco[i - 1] : -1;
+	}
+
+	public int conta(int k) {
+		//Se k è nell'elenco i primi <= k sono quelli fino a lui compreso,
+		//altrimenti quelli che precedono il suo punto di inserimento
+		int i = Arrays.binarySearch(elenco, k);
+		return i >= 0 ? i + 1 : -i - 1;
+	}
+
+	public int ennesimo(int i) {
+		return i <= elenco.length ? elenco[i - 1] : -1;
+	}
+
+	public int[] elenco() {
+		return elenco;
+	}
+
+	public Spliterator.OfInt spliteratore() {
+		return Arrays.spliterator(elenco);
+	}
+
+}
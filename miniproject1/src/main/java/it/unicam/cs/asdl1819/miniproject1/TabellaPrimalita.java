@@ -0,0 +1,86 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Spliterator;
+
+/**
+ * Rappresentazione interna della tabella calcolata da un
+ * {@link CrivelloDiEratostene}. Le diverse implementazioni differiscono solo
+ * per il modo in cui memorizzano l'informazione di primalità; il crivello si
+ * occupa dei controlli sui parametri e della convenzione sul numero
+ * {@code 1}, per cui le tabelle rispondono solo per numeri da {@code 2} alla
+ * loro capacità.
+ *
+ * @author Joel Sina
+ *
+ */
+interface TabellaPrimalita {
+
+	/**
+	 * Restituisce il numero più grande rappresentato nella tabella.
+	 *
+	 * @return la capacità della tabella
+	 */
+	int capacita();
+
+	/**
+	 * Controlla se un numero compreso tra {@code 2} e la capacità della tabella
+	 * è primo.
+	 *
+	 * @param k il numero da controllare
+	 * @return true se {@code k} è primo
+	 */
+	boolean isPrimo(int k);
+
+	/**
+	 * Cerca il più piccolo numero primo strettamente maggiore di un numero dato.
+	 *
+	 * @param k il numero da cui partire, non negativo
+	 * @return il primo successivo a {@code k} oppure -1 se nella tabella non ci
+	 *         sono primi maggiori di {@code k}
+	 */
+	int successivo(int k);
+
+	/**
+	 * Cerca il più grande numero primo strettamente minore di un numero dato.
+	 *
+	 * @param k il numero da cui partire, compreso tra 0 e la capacità
+	 * @return il primo precedente a {@code k} oppure -1 se non ci sono primi
+	 *         minori di {@code k}
+	 */
+	int precedente(int k);
+
+	/**
+	 * Conta i numeri primi minori o uguali a un numero dato.
+	 *
+	 * @param k il numero fino a cui contare, compreso tra 0 e la capacità
+	 * @return il numero di primi da {@code 2} a {@code k}
+	 */
+	int conta(int k);
+
+	/**
+	 * Restituisce l'i-esimo numero primo, contando {@code 2} come il primo.
+	 *
+	 * @param i la posizione del primo cercato, almeno 1
+	 * @return l'i-esimo primo oppure -1 se la tabella contiene meno di {@code i}
+	 *         primi
+	 */
+	int ennesimo(int i);
+
+	/**
+	 * Restituisce un array con tutti i primi della tabella in ordine crescente.
+	 * L'array può essere condiviso con la tabella e non deve essere modificato.
+	 *
+	 * @return i primi della tabella
+	 */
+	int[] elenco();
+
+	/**
+	 * Restituisce uno spliterator che presenta i primi della tabella in ordine
+	 * crescente senza costruirne l'elenco, e che può essere diviso per
+	 * elaborarli in parallelo.
+	 *
+	 * @return uno spliterator sui primi della tabella
+	 */
+	Spliterator.OfInt spliteratore();
+
+}
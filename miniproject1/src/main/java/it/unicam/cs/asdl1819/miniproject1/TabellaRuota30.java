@@ -0,0 +1,354 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Tabella di primalità basata sulla ruota modulo 30. Tra i numeri da
+ * {@code 30b} a {@code 30b+29} solo gli 8 che danno resto 1, 7, 11, 13, 17,
+ * 19, 23 o 29 possono essere primi, perché gli altri sono multipli di 2, 3 o
+ * 5: la tabella tiene quindi un byte per ogni 30 numeri, un bit per ciascuno
+ * degli 8 resti, e vale 1 se il numero è composto. Occupa 8 byte ogni 240
+ * numeri invece dei 15 di {@link TabellaBitDispari}, cioè circa il 47% in
+ * meno, e i primi 2, 3 e 5 vengono gestiti a parte.
+ *
+ * Anche il crivello lavora solo sui resti della ruota: per ogni primo base
+ * {@code p} i multipli {@code p*q} con {@code q} primo con 30 formano 8
+ * progressioni di passo {@code 30p}, cioè {@code p} byte, ciascuna su un bit
+ * fisso. Così vengono cancellati solo 8 multipli ogni {@code 30p} numeri,
+ * invece dei 15 della tabella dei dispari, e non servono divisioni. Il
+ * crivello procede per segmenti di
+ * {@link CrivelloSegmentato#DIMENSIONE_BLOCCO_PREDEFINITA} byte, ricordando
+ * per ogni progressione il prossimo byte da marcare, così ogni segmento resta
+ * in cache mentre viene setacciato.
+ *
+ * Il numero 1 e i bit dell'ultimo byte che superano la capacità sono
+ * impostati a 1, e come in {@link TabellaBitDispari} un indice dei ranghi ogni
+ * {@link #BYTE_BLOCCO_RANGO} byte permette di contare i primi e di trovare
+ * l'i-esimo primo senza scorrere tutta la tabella.
+ *
+ * @author Joel Sina
+ *
+ */
+final class TabellaRuota30 implements TabellaPrimalita {
+
+	/**
+	 * Numero di byte coperti da ogni elemento dell'indice dei ranghi.
+	 */
+	static final int BYTE_BLOCCO_RANGO = 64;
+
+	// Resti modulo 30 primi con 30, nell'ordine dei bit
+	private static final int[] RESTI = { 1, 7, 11, 13, 17, 19, 23, 29 };
+
+	// Primi che dividono 30, fuori dalla ruota
+	private static final int[] PICCOLI = { 2, 3, 5 };
+
+	// BIT[r] è la posizione del resto r nel byte, oppure -1 se r non è primo con 30
+	private static final int[] BIT = new int[30];
+
+	// DA[r] ha a 1 i bit dei resti maggiori o uguali a r, FINO[r] quelli minori o uguali
+	private static final int[] DA = new int[30];
+	private static final int[] FINO = new int[30];
+
+	static {
+		Arrays.fill(BIT, -1);
+		for (int j = 0; j < RESTI.length; j++) {
+			BIT[RESTI[j]] = j;
+		}
+		for (int r = 0; r < 30; r++) {
+			for (int j = 0; j < RESTI.length; j++) {
+				if (RESTI[j] >= r) {
+					DA[r] |= 1 << j;
+				}
+				if (RESTI[j] <= r) {
+					FINO[r] |= 1 << j;
+				}
+			}
+		}
+	}
+
+	private final byte[] composti;
+	// rango[b] è il numero di primi della ruota nei byte prima del blocco b
+	private final int[] rango;
+	private final int capacita;
+	// Quanti tra 2, 3 e 5 non superano la capacità
+	private final int piccoli;
+
+	/**
+	 * Costruisce la tabella eseguendo il crivello fino a {@code capacita}.
+	 *
+	 * @param capacita il numero più grande da rappresentare, almeno 2
+	 */
+	TabellaRuota30(int capacita) {
+		this.capacita = capacita;
+		this.piccoli = capacita >= 5 ? 3 : capacita >= 3 ? 2 : 1;
+		composti = new byte[capacita / 30 + 1];
+		//1 non è primo
+		composti[0] = 1;
+
+		//Preparo le 8 progressioni di ogni primo base da 7 alla radice della capacità
+		int[] dispari = TabellaBitDispari.primiDispari((int) CrivelloSegmentato.radice(capacita));
+		int primiBase = 0;
+		while (primiBase < dispari.length && dispari[primiBase] < 7) {
+			primiBase++;
+		}
+		int quante = (dispari.length - primiBase) * RESTI.length;
+		int[] passo = new int[quante];
+		int[] prossimo = new int[quante];
+		byte[] maschera = new byte[quante];
+		for (int k = primiBase, t = 0; k < dispari.length; k++) {
+			int p = dispari[k];
+			for (int r : RESTI) {
+				//Il più piccolo q >= p con resto r: parto da p*p per non marcare p stesso
+				long q = p - p % 30 + r;
+				if (q < p) {
+					q += 30;
+				}
+				long multiplo = p * q;
+				passo[t] = p;
+				prossimo[t] = (int) (multiplo / 30);
+				maschera[t] = (byte) (1 << BIT[(int) (multiplo % 30)]);
+				t++;
+			}
+		}
+
+		//Setaccio un segmento alla volta facendo avanzare tutte le progressioni
+		for (int inizio = 0; inizio < composti.length; inizio += CrivelloSegmentato.DIMENSIONE_BLOCCO_PREDEFINITA) {
+			int fine = (int) Math.min(composti.length, (long) inizio + CrivelloSegmentato.DIMENSIONE_BLOCCO_PREDEFINITA);
+			for (int t = 0; t < quante; t++) {
+				int b = prossimo[t];
+				int p = passo[t];
+				byte m = maschera[t];
+				for (; b < fine; b += p) {
+					composti[b] |= m;
+				}
+				prossimo[t] = b;
+			}
+		}
+
+		//Marco come composti i resti dell'ultimo byte oltre la capacità
+		long base = 30L * (composti.length - 1);
+		for (int j = 0; j < RESTI.length; j++) {
+			if (base + RESTI[j] > capacita) {
+				composti[composti.length - 1] |= 1 << j;
+			}
+		}
+
+		//Costruisco l'indice dei ranghi con una sola passata sui byte
+		rango = new int[(composti.length + BYTE_BLOCCO_RANGO - 1) / BYTE_BLOCCO_RANGO];
+		int primi = 0;
+		for (int b = 0; b < composti.length; b++) {
+			if (b % BYTE_BLOCCO_RANGO == 0) {
+				rango[b / BYTE_BLOCCO_RANGO] = primi;
+			}
+			primi += liberi(b);
+		}
+	}
+
+	public int capacita() {
+		return capacita;
+	}
+
+	public boolean isPrimo(int k) {
+		int bit = BIT[k % 30];
+		if (bit < 0) {
+			return k == 2 || k == 3 || k == 5;
+		}
+		return (composti[k / 30] & (1 << bit)) == 0;
+	}
+
+	public int successivo(int k) {
+		if (k < 5) {
+			//2, 3 e 5 vengono prima della ruota
+			for (int j = 0; j < piccoli; j++) {
+				if (PICCOLI[j] > k) {
+					return PICCOLI[j];
+				}
+			}
+			return -1;
+		}
+		//Primo candidato strettamente maggiore di k, in long per evitare l'overflow
+		long x = (long) k + 1;
+		int b = (int) (x / 30);
+		if (b >= composti.length) {
+			return -1;
+		}
+		int primi = ~composti[b] & DA[(int) (x % 30)] & 0xFF;
+		while (primi == 0) {
+			b++;
+			if (b == composti.length) {
+				return -1;
+			}
+			primi = ~composti[b] & 0xFF;
+		}
+		return 30 * b + RESTI[Integer.numberOfTrailingZeros(primi)];
+	}
+
+	public int precedente(int k) {
+		if (k <= 7) {
+			//Sotto 7 ci sono solo i primi fuori dalla ruota
+			for (int j = PICCOLI.length - 1; j >= 0; j--) {
+				if (PICCOLI[j] < k) {
+					return PICCOLI[j];
+				}
+			}
+			return -1;
+		}
+		int x = k - 1;
+		int b = x / 30;
+		int primi = ~composti[b] & FINO[x % 30] & 0xFF;
+		while (primi == 0) {
+			b--;
+			if (b < 0) {
+				return 5;
+			}
+			primi = ~composti[b] & 0xFF;
+		}
+		return 30 * b + RESTI[31 - Integer.numberOfLeadingZeros(primi)];
+	}
+
+	public int conta(int k) {
+		if (k < 7) {
+			int primi = 0;
+			for (int p : PICCOLI) {
+				if (p <= k) {
+					primi++;
+				}
+			}
+			return primi;
+		}
+		int b = k / 30;
+		int blocco = b / BYTE_BLOCCO_RANGO;
+		//Parto dal rango del blocco e aggiungo i byte che mancano, più 2, 3 e 5
+		int primi = PICCOLI.length + rango[blocco];
+		for (int i = blocco * BYTE_BLOCCO_RANGO; i < b; i++) {
+			primi += liberi(i);
+		}
+		return primi + Integer.bitCount(~composti[b] & FINO[k % 30] & 0xFF);
+	}
+
+	public int ennesimo(int i) {
+		if (i <= piccoli) {
+			return PICCOLI[i - 1];
+		}
+		//Cerco il primo della ruota di posizione i-3: ricerca binaria dell'ultimo
+		//blocco preceduto da meno di i-3 primi
+		int cercato = i - PICCOLI.length;
+		if (cercato < 1) {
+			return -1;
+		}
+		int basso = 0;
+		int alto = rango.length - 1;
+		while (basso < alto) {
+			int medio = (basso + alto + 1) >>> 1;
+			if (rango[medio] < cercato) {
+				basso = medio;
+			} else {
+				alto = medio - 1;
+			}
+		}
+		int mancanti = cercato - rango[basso];
+		for (int b = basso * BYTE_BLOCCO_RANGO; b < composti.length; b++) {
+			int primi = ~composti[b] & 0xFF;
+			int quanti = Integer.bitCount(primi);
+			if (mancanti <= quanti) {
+				for (int j = 1; j < mancanti; j++) {
+					primi &= primi - 1;
+				}
+				return 30 * b + RESTI[Integer.numberOfTrailingZeros(primi)];
+			}
+			mancanti -= quanti;
+		}
+		return -1;
+	}
+
+	public int[] elenco() {
+		//Il numero di primi è noto dall'indice, quindi l'array ha già la dimensione giusta
+		final int[] primi = new int[conta(capacita)];
+		final int[] quanti = new int[1];
+		spliteratore().forEachRemaining((int p) -> primi[quanti[0]++] = p);
+		return primi;
+	}
+
+	public Spliterator.OfInt spliteratore() {
+		return new SpliteratorePrimi(0, composti.length, 0, 0, 0);
+	}
+
+	/*
+	 * Spliterator che legge i primi direttamente dai byte della tabella. Copre i
+	 * byte da prossimo a fine, più i bit rimasti nel byte già letto
+	 * (corrente, che inizia da base) e i primi fuori dalla ruota da piccolo in
+	 * poi. Si divide a metà sui byte ancora da leggere.
+	 */
+	private final class SpliteratorePrimi implements Spliterator.OfInt {
+		private int prossimo;
+		private final int fine;
+		private int corrente;
+		private int base;
+		private int piccolo;
+
+		SpliteratorePrimi(int prossimo, int fine, int corrente, int base, int piccolo) {
+			this.prossimo = prossimo;
+			this.fine = fine;
+			this.corrente = corrente;
+			this.base = base;
+			this.piccolo = piccolo;
+		}
+
+		public boolean tryAdvance(IntConsumer azione) {
+			if (piccolo < piccoli) {
+				azione.accept(PICCOLI[piccolo++]);
+				return true;
+			}
+			while (corrente == 0) {
+				if (prossimo >= fine) {
+					return false;
+				}
+				corrente = ~composti[prossimo] & 0xFF;
+				base = prossimo;
+				prossimo++;
+			}
+			int bit = Integer.numberOfTrailingZeros(corrente);
+			corrente &= corrente - 1;
+			azione.accept(30 * base + RESTI[bit]);
+			return true;
+		}
+
+		public OfInt trySplit() {
+			int resto = fine - prossimo;
+			if (resto < 2 * BYTE_BLOCCO_RANGO) {
+				return null;
+			}
+			//La prima metà, con lo stato già letto, va al nuovo spliterator
+			int meta = prossimo + resto / 2;
+			SpliteratorePrimi prima = new SpliteratorePrimi(prossimo, meta, corrente, base, piccolo);
+			prossimo = meta;
+			corrente = 0;
+			piccolo = piccoli;
+			return prima;
+		}
+
+		public long estimateSize() {
+			//Stima grossolana: circa un candidato della ruota su quattro è primo
+			return (long) (fine - prossimo) * 2 + Integer.bitCount(corrente) + (piccoli - piccolo);
+		}
+
+		public int characteristics() {
+			return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+		}
+
+		@Override
+		public Comparator<? super Integer> getComparator() {
+			//I primi sono presentati nell'ordine naturale
+			return null;
+		}
+	}
+
+	//Numero di primi nel byte b
+	private int liberi(int b) {
+		return Integer.bitCount(~composti[b] & 0xFF);
+	}
+
+}
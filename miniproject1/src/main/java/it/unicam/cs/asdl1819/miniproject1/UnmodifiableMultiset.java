@@ -0,0 +1,147 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Vista in sola lettura di un altro multiset. Le operazioni di lettura vengono
+ * passate al multiset sottostante, quelle di modifica lanciano
+ * {@link UnsupportedOperationException}. Se nessuno tiene un riferimento al
+ * multiset sottostante la vista è di fatto immutabile e può essere condivisa
+ * tra più chiamanti e più thread, come fa {@link CachingFactoriser}.
+ *
+ * @author Joel Sina
+ *
+ * @param <E> il tipo degli elementi del multiset
+ */
+final class UnmodifiableMultiset<E> implements Multiset<E> {
+
+	private final Multiset<E> multiset;
+
+	/**
+	 * Crea una vista in sola lettura di un multiset.
+	 *
+	 * @param multiset il multiset da rendere non modificabile
+	 * @throws NullPointerException se il multiset è nullo
+	 */
+	UnmodifiableMultiset(Multiset<E> multiset) {
+		if (multiset == null) {
+			throw new NullPointerException("Il multiset non può essere nullo");
+		}
+		this.multiset = multiset;
+	}
+
+	public int size() {
+		return multiset.size();
+	}
+
+	public int count(Object element) {
+		return multiset.count(element);
+	}
+
+	public int add(E element, int occurrences) {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public void add(E element) {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public int remove(Object element, int occurrences) {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public boolean remove(Object element) {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public int setCount(E element, int occurrences) {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public boolean addAll(Multiset<? extends E> other) {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public boolean removeAll(Multiset<?> other) {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public boolean retainAll(Multiset<?> other) {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public Set<E> elementSet() {
+		return Collections.unmodifiableSet(multiset.elementSet());
+	}
+
+	public Iterator<E> iterator() {
+		final Iterator<E> iteratore = multiset.iterator();
+		//Avvolgo l'iteratore perché anche remove deve essere vietata
+		return new Iterator<E>() {
+			public boolean hasNext() {
+				return iteratore.hasNext();
+			}
+
+			public E next() {
+				return iteratore.next();
+			}
+		};
+	}
+
+	public Set<Multiset.Entry<E>> entrySet() {
+		return Collections.unmodifiableSet(multiset.entrySet());
+	}
+
+	public void forEachEntry(ObjIntConsumer<? super E> action) {
+		multiset.forEachEntry(action);
+	}
+
+	public Spliterator<Multiset.Entry<E>> entrySpliterator() {
+		return multiset.entrySpliterator();
+	}
+
+	public List<Multiset.Entry<E>> topK(int k) {
+		//Le voci sono copie, per cui non permettono di modificare il multiset
+		return multiset.topK(k);
+	}
+
+	public boolean contains(Object element) {
+		return multiset.contains(element);
+	}
+
+	public void clear() {
+		throw new UnsupportedOperationException("Il multiset non è modificabile");
+	}
+
+	public boolean isEmpty() {
+		return multiset.isEmpty();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		//Due viste sono uguali se lo sono i multiset sottostanti
+		if (obj instanceof UnmodifiableMultiset) {
+			obj = ((UnmodifiableMultiset<?>) obj).multiset;
+		}
+		return multiset.equals(obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return multiset.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return multiset.toString();
+	}
+
+}
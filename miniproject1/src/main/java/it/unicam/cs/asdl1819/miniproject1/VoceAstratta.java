@@ -0,0 +1,36 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+/**
+ * Base delle voci dei multiset, con l'uguaglianza, il codice hash e la
+ * rappresentazione come stringa richiesti da {@link Multiset.Entry}. Le
+ * sottoclassi forniscono solo l'elemento e la frequenza.
+ *
+ * @author Joel Sina
+ *
+ * @param <E> il tipo dell'elemento
+ */
+abstract class VoceAstratta<E> implements Multiset.Entry<E> {
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Multiset.Entry)) {
+			return false;
+		}
+		Multiset.Entry<?> other = (Multiset.Entry<?>) obj;
+		return getCount() == other.getCount() && getElement().equals(other.getElement());
+	}
+
+	@Override
+	public int hashCode() {
+		return getElement().hashCode() ^ getCount();
+	}
+
+	@Override
+	public String toString() {
+		return getElement() + " x " + getCount();
+	}
+
+}
@@ -0,0 +1,39 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+/**
+ * Voce immutabile di un multiset: un elemento con la frequenza che aveva
+ * quando la voce è stata creata.
+ *
+ * @author Joel Sina
+ *
+ * @param <E> il tipo dell'elemento
+ */
+final class VoceMultiset<E> extends VoceAstratta<E> {
+
+	private final E elemento;
+	private final int frequenza;
+
+	/**
+	 * Crea una voce.
+	 *
+	 * @param elemento  l'elemento
+	 * @param frequenza la sua frequenza
+	 * @throws NullPointerException se l'elemento è nullo
+	 */
+	VoceMultiset(E elemento, int frequenza) {
+		if (elemento == null) {
+			throw new NullPointerException("L'elemento non può essere nullo");
+		}
+		this.elemento = elemento;
+		this.frequenza = frequenza;
+	}
+
+	public E getElement() {
+		return elemento;
+	}
+
+	public int getCount() {
+		return frequenza;
+	}
+
+}
@@ -0,0 +1,139 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CachingFactoriserTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCapacitaNonValida() {
+        new CachingFactoriser(0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testGetFactorsLessThanOne() {
+        new CachingFactoriser(10).getFactors(0);
+    }
+
+    @Test
+    public void testRisultatiCondivisi() {
+        CachingFactoriser f = new CachingFactoriser(100);
+        Multiset<Integer> m1 = f.getFactors(360);
+        assertSame(m1, f.getFactors(360));
+        Multiset<Integer> atteso = new MyMultiset<Integer>();
+        atteso.add(2, 3);
+        atteso.add(3, 2);
+        atteso.add(5);
+        assertEquals(true, m1.equals(atteso));
+        assertSame(f.getFactors(360L), f.getFactors(360L));
+        assertEquals(3, f.getFactors(360L).count(2L));
+        assertSame(f.factorise(360L), f.factorise(360));
+        assertEquals(1, f.getMisses());
+        assertEquals(6, f.getHits());
+        assertEquals(6.0 / 7, f.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testUgualeFactoriser() {
+        Factoriser base = new Factoriser();
+        CachingFactoriser f = new CachingFactoriser(50);
+        for (int n = 1; n < 2000; n++) {
+            assertEquals(true, f.getFactors(n).equals(base.getFactors(n)));
+            assertEquals(base.factorise(n), f.factorise(n));
+        }
+        long semiprimo = 1000000007L * 998244353L;
+        assertEquals(true, f.getFactors(semiprimo).equals(base.getFactors(semiprimo)));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testNonModificabile() {
+        new CachingFactoriser(10).getFactors(12).add(7);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testIteratoreNonModificabile() {
+        Iterator<Long> itr = new CachingFactoriser(10).getFactors(12L).iterator();
+        itr.next();
+        itr.remove();
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testElementSetNonModificabile() {
+        new CachingFactoriser(10).getFactors(12).elementSet().clear();
+    }
+
+    @Test
+    public void testRimozioneLRU() {
+        // Con capacità 1 c'è un solo segmento e l'ordine LRU è esatto
+        CachingFactoriser f = new CachingFactoriser(1);
+        Multiset<Integer> primo = f.getFactors(12);
+        f.getFactors(18);
+        assertEquals(1, f.getEvictions());
+        assertEquals(1, f.getSize());
+        assertNotSame(primo, f.getFactors(12));
+        assertEquals(3, f.getMisses());
+
+        CachingFactoriser g = new CachingFactoriser(100);
+        for (int n = 1; n <= 1000; n++) {
+            g.getFactors(n);
+        }
+        assertTrue(g.getSize() <= 100);
+        assertEquals(1000 - g.getSize(), g.getEvictions());
+        g.clear();
+        assertEquals(0, g.getSize());
+    }
+
+    @Test
+    public void testConcorrenza() throws InterruptedException {
+        final CachingFactoriser f = new CachingFactoriser(64);
+        final Factoriser base = new Factoriser();
+        final List<Throwable> errori = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final Random r = new Random(t);
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 2000; i++) {
+                            int n = 1 + r.nextInt(200);
+                            assertEquals(base.factorise(n), f.factorise(n));
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errori) {
+                            errori.add(e);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(new ArrayList<Throwable>(), errori);
+        assertEquals(16000, f.getHits() + f.getMisses());
+        assertTrue(f.getSize() <= 64);
+    }
+
+    @Test
+    public void testGetIntFactors() {
+        CachingFactoriser f = new CachingFactoriser(10);
+        IntMultiset m1 = f.getIntFactors(360);
+        m1.addInt(7);
+        IntMultiset m2 = f.getIntFactors(360);
+        assertNotSame(m1, m2);
+        assertEquals(0, m2.countInt(7));
+        assertEquals(3, m2.countInt(2));
+        assertEquals(1, f.getMisses());
+        assertEquals(1, f.getHits());
+    }
+
+}
@@ -0,0 +1,156 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ConcurrentMultisetTest {
+
+    @Test
+    public void testOperazioni() {
+        ConcurrentMultiset<String> m = new ConcurrentMultiset<String>();
+        assertEquals(true, m.isEmpty());
+        assertEquals(0, m.add("a", 3));
+        m.add("b");
+        assertEquals(3, m.add("a", 0));
+        assertEquals(4, m.size());
+        assertEquals(3, m.remove("a", 2));
+        assertEquals(1, m.count("a"));
+        assertEquals(true, m.remove("a"));
+        assertEquals(false, m.contains("a"));
+        assertEquals(false, m.remove("a"));
+        assertEquals(1, m.setCount("b", 5));
+        assertEquals(0, m.setCount("c", 2));
+        assertEquals(7, m.size());
+        Set<String> s = new HashSet<String>();
+        s.add("b");
+        s.add("c");
+        assertEquals(s, m.elementSet());
+        m.clear();
+        assertEquals(true, m.isEmpty());
+        assertEquals(0, m.size());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAddNull() {
+        new ConcurrentMultiset<Integer>().add(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRemoveNegativo() {
+        new ConcurrentMultiset<Integer>().remove(1, -1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddOltreMassimo() {
+        ConcurrentMultiset<Integer> m = new ConcurrentMultiset<Integer>();
+        m.add(3, Integer.MAX_VALUE);
+        m.add(3);
+    }
+
+    @Test
+    public void testIteratoreEUguaglianza() {
+        ConcurrentMultiset<Integer> m = new ConcurrentMultiset<Integer>();
+        MyMultiset<Integer> atteso = new MyMultiset<Integer>();
+        for (int i = 0; i < 100; i++) {
+            m.add(i % 7, i % 3 + 1);
+            atteso.add(i % 7, i % 3 + 1);
+        }
+        MyMultiset<Integer> letti = new MyMultiset<Integer>();
+        Iterator<Integer> itr = m.iterator();
+        while (itr.hasNext()) {
+            letti.add(itr.next());
+        }
+        assertEquals(true, letti.equals(atteso));
+        assertEquals(true, m.equals(atteso));
+        assertEquals(true, atteso.equals(m));
+        assertEquals(atteso.hashCode(), m.hashCode());
+    }
+
+    @Test
+    public void testIteratoreDuranteModifiche() {
+        ConcurrentMultiset<Integer> m = new ConcurrentMultiset<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            m.add(i);
+        }
+        Iterator<Integer> itr = m.iterator();
+        Set<Integer> iniziali = new HashSet<Integer>();
+        while (itr.hasNext()) {
+            int n = itr.next();
+            m.remove(n);
+            m.add(n + 1000);
+            //Gli elementi aggiunti durante la visita possono comparire o no
+            if (n < 1000) {
+                assertTrue("Elemento visto due volte: " + n, iniziali.add(n));
+            }
+        }
+        //Ogni elemento iniziale è stato visto una volta sola
+        for (int i = 0; i < 1000; i++) {
+            assertTrue("Elemento mai visto: " + i, iniziali.contains(i));
+        }
+        assertEquals(1000, m.size());
+    }
+
+    @Test
+    public void testConcorrenza() throws InterruptedException {
+        final ConcurrentMultiset<Integer> m = new ConcurrentMultiset<Integer>();
+        final int thread = 4;
+        final int giri = 50000;
+        List<Thread> lavoratori = new ArrayList<Thread>();
+        for (int t = 0; t < thread; t++) {
+            final int id = t;
+            lavoratori.add(new Thread(new Runnable() {
+                public void run() {
+                    //Pochi elementi, così i contatori arrivano spesso a 0 e
+                    //vengono tolti mentre altri thread li aggiornano
+                    for (int i = 0; i < giri; i++) {
+                        int e = (i + id) % 8;
+                        m.add(e, 2);
+                        m.remove(e);
+                        m.remove(e);
+                    }
+                    for (int i = 0; i < giri; i++) {
+                        m.add(i % 8);
+                    }
+                }
+            }));
+        }
+        for (Thread t : lavoratori) {
+            t.start();
+        }
+        for (Thread t : lavoratori) {
+            t.join();
+        }
+        assertEquals(thread * giri, m.size());
+        int totale = 0;
+        for (int e = 0; e < 8; e++) {
+            assertEquals(thread * giri / 8, m.count(e));
+            totale += m.count(e);
+        }
+        assertEquals(thread * giri, totale);
+    }
+
+    @Test
+    public void testVoci() {
+        ConcurrentMultiset<Integer> m = new ConcurrentMultiset<Integer>();
+        MyMultiset<Integer> atteso = new MyMultiset<Integer>();
+        for (int i = 0; i < 3000; i++) {
+            m.add(i, i % 3 + 1);
+            atteso.add(i, i % 3 + 1);
+        }
+        m.remove(7, 100);
+        atteso.remove(7, 100);
+        final MyMultiset<Integer> copia = new MyMultiset<Integer>();
+        m.forEachEntry((e, n) -> copia.add(e, n));
+        assertEquals(true, copia.equals(atteso));
+        assertEquals(2999, m.entryStream().parallel().count());
+        assertEquals(atteso.entrySet(), m.entrySet());
+    }
+
+}
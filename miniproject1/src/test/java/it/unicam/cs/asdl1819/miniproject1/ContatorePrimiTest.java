@@ -0,0 +1,56 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ContatorePrimiTest {
+
+    @Test
+    public void testPiccoli() {
+        assertEquals(0, ContatorePrimi.primeCount(-5));
+        assertEquals(0, ContatorePrimi.primeCount(1));
+        assertEquals(1, ContatorePrimi.primeCount(2));
+        assertEquals(2, ContatorePrimi.primeCount(3));
+        assertEquals(2, ContatorePrimi.primeCount(4));
+        assertEquals(4, ContatorePrimi.primeCount(10));
+    }
+
+    @Test
+    public void testUgualeCrivello() {
+        // Confronto con il crivello anche a cavallo dei quadrati e delle quarte potenze dei primi
+        CrivelloDiEratostene c = new CrivelloDiEratostene(2000000);
+        for (int x = 2; x <= 20000; x++) {
+            assertEquals(c.primeCount(x), ContatorePrimi.primeCount(x));
+        }
+        for (int x = 20000; x <= 2000000; x += 997) {
+            assertEquals(c.primeCount(x), ContatorePrimi.primeCount(x));
+        }
+    }
+
+    @Test
+    public void testPotenzeDiDieci() {
+        long[] attesi = {4, 25, 168, 1229, 9592, 78498, 664579, 5761455, 50847534, 455052511, 4118054813L,
+                37607912018L};
+        long x = 1;
+        for (long pi : attesi) {
+            x *= 10;
+            assertEquals(pi, ContatorePrimi.primeCount(x));
+        }
+    }
+
+    @Test
+    public void testVicinoAQuadrati() {
+        // 2^31 - 1 è primo e 10^12 + 39 è il primo successivo a 10^12
+        assertEquals(105097565, ContatorePrimi.primeCount(Integer.MAX_VALUE));
+        assertEquals(105097564, ContatorePrimi.primeCount(Integer.MAX_VALUE - 1));
+        assertEquals(37607912018L, ContatorePrimi.primeCount(1000000000038L));
+        assertEquals(37607912019L, ContatorePrimi.primeCount(1000000000039L));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOltreMassimo() {
+        ContatorePrimi.primeCount(ContatorePrimi.MASSIMO + 1);
+    }
+
+}
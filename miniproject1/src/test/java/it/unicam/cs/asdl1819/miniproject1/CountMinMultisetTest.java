@@ -0,0 +1,146 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CountMinMultisetTest {
+
+    @Test
+    public void testDimensioni() {
+        CountMinMultiset<Integer> m = new CountMinMultiset<Integer>(0.001, 0.01);
+        assertEquals(2719, m.getWidth());
+        assertEquals(5, m.getDepth());
+        assertEquals(0, m.getCandidates());
+        assertEquals(true, m.isEmpty());
+    }
+
+    @Test
+    public void testStimeEntroErrore() {
+        double epsilon = 0.001;
+        CountMinMultiset<Integer> m = new CountMinMultiset<Integer>(epsilon, 0.001);
+        MyMultiset<Integer> esatto = new MyMultiset<Integer>();
+        Random r = new Random(20181125);
+        for (int i = 0; i < 200000; i++) {
+            //Pochi elementi molto frequenti e tanti rari
+            int e = r.nextInt(10) < 3 ? r.nextInt(20) : r.nextInt(50000);
+            assertEquals(true, m.add(e, 1) >= esatto.add(e, 1));
+        }
+        assertEquals(200000, m.size());
+        assertEquals(200000L, m.totalCount());
+        double limite = epsilon * m.totalCount();
+        int oltre = 0;
+        for (int e = 0; e < 50000; e++) {
+            int stima = m.count(e);
+            assertEquals(true, stima >= esatto.count(e));
+            if (stima - esatto.count(e) > limite) {
+                oltre++;
+            }
+        }
+        //Con delta = 0.001 ci si aspettano al più poche decine di eccezioni
+        assertEquals(true, oltre < 100);
+    }
+
+    @Test
+    public void testMerge() {
+        CountMinMultiset<String> a = new CountMinMultiset<String>(0.01, 0.01, 5);
+        CountMinMultiset<String> b = new CountMinMultiset<String>(0.01, 0.01, 5);
+        MyMultiset<String> esatto = new MyMultiset<String>();
+        for (int i = 0; i < 5000; i++) {
+            String e = "e" + (i % 97) * (i % 7);
+            (i % 2 == 0 ? a : b).add(e);
+            esatto.add(e);
+        }
+        a.merge(b);
+        assertEquals(5000L, a.totalCount());
+        for (String e : esatto.elementSet()) {
+            assertEquals(true, a.count(e) >= esatto.count(e));
+        }
+        assertEquals("e0", a.topK(1).get(0).getElement());
+        assertEquals(true, a.topK(1).get(0).getCount() >= esatto.count("e0"));
+    }
+
+    @Test
+    public void testTopK() {
+        CountMinMultiset<Integer> m = new CountMinMultiset<Integer>(0.001, 0.01, 20);
+        Random r = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            m.add(r.nextInt(100000));
+            if (i % 10 == 0) {
+                m.add(-(i / 10 % 5) - 1);
+            }
+        }
+        List<Multiset.Entry<Integer>> primi = m.topK(5);
+        assertEquals(5, primi.size());
+        for (Multiset.Entry<Integer> voce : primi) {
+            assertEquals(true, voce.getElement() < 0);
+            assertEquals(true, voce.getCount() >= 2000);
+        }
+        assertEquals(20, m.topK(100).size());
+    }
+
+    @Test
+    public void testClear() {
+        CountMinMultiset<Integer> m = new CountMinMultiset<Integer>(100, 3, 2);
+        m.add(1, 10);
+        assertEquals(true, m.contains(1));
+        assertEquals(false, m.equals(new CountMinMultiset<Integer>(100, 3, 2)));
+        m.clear();
+        assertEquals(0, m.count(1));
+        assertEquals(0, m.topK(1).size());
+        assertEquals(new CountMinMultiset<Integer>(100, 3, 0), m);
+    }
+
+    @Test
+    public void testUguaglianzaConMultisetEsatti() {
+        CountMinMultiset<Integer> s = new CountMinMultiset<Integer>(100, 3, 0);
+        s.add(1);
+        List<Multiset<Integer>> esatti = Arrays.<Multiset<Integer>>asList(new MyMultiset<Integer>(),
+                new IntMultiset(), new RankedMultiset<Integer>(), new ConcurrentMultiset<Integer>());
+        for (Multiset<Integer> m : esatti) {
+            m.add(1);
+            assertEquals(false, m.equals(s));
+            assertEquals(false, s.equals(m));
+        }
+        //Tra i multiset esatti l'uguaglianza resta quella di sempre
+        assertEquals(true, esatti.get(0).equals(esatti.get(1)));
+        assertEquals(true, esatti.get(3).equals(esatti.get(2)));
+    }
+
+    @Test
+    public void testSaturazione() {
+        CountMinMultiset<Integer> m = new CountMinMultiset<Integer>(10, 2, 0);
+        m.add(1, Integer.MAX_VALUE);
+        m.add(1, 5);
+        assertEquals(Integer.MAX_VALUE, m.count(1));
+        assertEquals(Integer.MAX_VALUE, m.size());
+        assertEquals(Integer.MAX_VALUE + 5L, m.totalCount());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemove() {
+        CountMinMultiset<Integer> m = new CountMinMultiset<Integer>(0.1, 0.1);
+        m.add(1);
+        m.remove(1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTopKSenzaCandidati() {
+        new CountMinMultiset<Integer>(0.1, 0.1).topK(1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDimensioniDiverse() {
+        new CountMinMultiset<Integer>(100, 3, 0).merge(new CountMinMultiset<Integer>(100, 4, 0));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testErroreNonValido() {
+        new CountMinMultiset<Integer>(0, 0.1);
+    }
+
+}
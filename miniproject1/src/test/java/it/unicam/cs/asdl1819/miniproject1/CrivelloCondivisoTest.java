@@ -0,0 +1,82 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CrivelloCondivisoTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCapacitaInizialeNonValida() {
+        new CrivelloCondiviso(1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCrivelloCapacitaNonValida() {
+        new CrivelloCondiviso(16).crivello(1);
+    }
+
+    @Test
+    public void testHit() {
+        CrivelloCondiviso c = new CrivelloCondiviso(100);
+        CrivelloDiEratostene primo = c.crivello(50);
+        assertSame(primo, c.crivello(100));
+        assertEquals(100, c.getCapacity());
+        assertEquals(2, c.getHits());
+        assertEquals(0, c.getMisses());
+        assertEquals(0, c.getGrowths());
+    }
+
+    @Test
+    public void testCrescitaRaddoppia() {
+        CrivelloCondiviso c = new CrivelloCondiviso(100);
+        assertEquals(200, c.crivello(101).getCapacity());
+        assertEquals(1000, c.crivello(1000).getCapacity());
+        assertEquals(1000, c.crivello(900).getCapacity());
+        assertEquals(1, c.getHits());
+        assertEquals(2, c.getMisses());
+        assertEquals(2, c.getGrowths());
+    }
+
+    @Test
+    public void testConcorrenza() throws InterruptedException {
+        final CrivelloCondiviso c = new CrivelloCondiviso(16);
+        final List<Throwable> errori = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final Random r = new Random(t);
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 200; i++) {
+                            int richiesta = 2 + r.nextInt(100000);
+                            CrivelloDiEratostene crivello = c.crivello(richiesta);
+                            assertTrue(crivello.getCapacity() >= richiesta);
+                            // L'array dei primi viene costruito mentre altri thread lo leggono
+                            assertEquals(crivello.primeCount(crivello.getCapacity()),
+                                    crivello.primesAsIntArray().length);
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errori) {
+                            errori.add(e);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(new ArrayList<Throwable>(), errori);
+        assertEquals(1600, c.getHits() + c.getMisses());
+        assertTrue(c.getGrowths() <= c.getMisses());
+    }
+
+}
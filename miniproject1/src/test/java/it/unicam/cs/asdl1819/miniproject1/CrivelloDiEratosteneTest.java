@@ -2,13 +2,24 @@ package it.unicam.cs.asdl1819.miniproject1;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class CrivelloDiEratosteneTest {
 
+    @Rule
+    public TemporaryFolder cartella = new TemporaryFolder();
+
     @Test(expected=IllegalArgumentException.class)
     public void testCrivelloDiEratostene() {
         CrivelloDiEratostene c = new CrivelloDiEratostene(1);
@@ -80,4 +91,294 @@ public class CrivelloDiEratosteneTest {
         assertEquals(true, c.isPrime(33));
     }
     
+    @Test
+    public void testModalitaAutomatica() {
+        CrivelloDiEratostene c1 = new CrivelloDiEratostene(CrivelloDiEratostene.SOGLIA_BIT_DISPARI);
+        assertEquals(CrivelloDiEratostene.Modalita.BOOLEANA, c1.getModalita());
+        CrivelloDiEratostene c2 = new CrivelloDiEratostene(CrivelloDiEratostene.SOGLIA_BIT_DISPARI + 1);
+        assertEquals(CrivelloDiEratostene.Modalita.BIT_DISPARI, c2.getModalita());
+    }
+
+    @Test
+    public void testNextPrimeBitDispari() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(7, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+        assertEquals(2,c.nextPrime(1));
+        assertEquals(3,c.nextPrime(2));
+        assertEquals(5,c.nextPrime(3));
+        assertEquals(7,c.nextPrime(6));
+        assertEquals(-1,c.nextPrime(7));
+    }
+
+    @Test
+    public void testGetPrimesBitDispari() {
+        // Capacità che cadono a cavallo delle parole da 64 bit
+        for (int n = 2; n < 300; n++) {
+            CrivelloDiEratostene b = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BOOLEANA);
+            CrivelloDiEratostene d = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+            assertEquals(b.getPrimes(), d.getPrimes());
+            assertEquals(n, d.getCapacity());
+        }
+    }
+
+    @Test
+    public void testBitDispariUgualeBooleana() {
+        int n = 100000;
+        CrivelloDiEratostene b = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BOOLEANA);
+        CrivelloDiEratostene d = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+        assertEquals(9592, d.getPrimes().size());
+        for (int i = 1; i <= n; i++) {
+            assertEquals(b.nextPrime(i), d.nextPrime(i));
+        }
+    }
+
+    @Test
+    public void testRuota30() {
+        // Capacità piccole, vicine a 2, 3, 5 e a cavallo dei byte da 30 numeri
+        for (int n = 2; n < 300; n++) {
+            CrivelloDiEratostene b = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BOOLEANA);
+            CrivelloDiEratostene r = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.RUOTA_30);
+            assertEquals(b.getPrimes(), r.getPrimes());
+            assertEquals(CrivelloDiEratostene.Modalita.RUOTA_30, r.getModalita());
+            for (int i = 1; i <= n; i++) {
+                assertEquals(b.nextPrime(i), r.nextPrime(i));
+                assertEquals(b.previousPrime(i), r.previousPrime(i));
+                assertEquals(b.primeCount(i), r.primeCount(i));
+            }
+            assertEquals(-1, r.nthPrime(b.primeCount(n) + 1));
+        }
+    }
+
+    @Test
+    public void testRuota30UgualeBitDispari() {
+        int n = 3000000;
+        CrivelloDiEratostene d = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+        CrivelloDiEratostene r = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.RUOTA_30);
+        assertArrayEquals(d.primesAsIntArray(), r.primesAsIntArray());
+        assertArrayEquals(d.primesAsIntArray(),
+                new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.RUOTA_30).primes().parallel().toArray());
+        assertEquals(216816, r.primeCount(n));
+        assertEquals(2999999, r.nthPrime(216816));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testModalitaNulla() {
+        new CrivelloDiEratostene(32, (CrivelloDiEratostene.Modalita) null);
+    }
+
+    @Test
+    public void testCrivelloParallelo() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Abbastanza grande da essere diviso in più segmenti
+            int n = 5000000;
+            CrivelloDiEratostene p = new CrivelloDiEratostene(n, pool);
+            CrivelloDiEratostene s = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+            assertEquals(CrivelloDiEratostene.Modalita.BIT_DISPARI, p.getModalita());
+            assertEquals(n, p.getCapacity());
+            assertEquals(s.getPrimes(), p.getPrimes());
+            assertEquals(348513, p.getPrimes().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testCrivelloParalleloPoolNullo() {
+        new CrivelloDiEratostene(32, (ForkJoinPool) null);
+    }
+
+    @Test
+    public void testPreviousPrime() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(32);
+        assertEquals(-1,c.previousPrime(1));
+        assertEquals(-1,c.previousPrime(2));
+        assertEquals(2,c.previousPrime(3));
+        assertEquals(5,c.previousPrime(7));
+        assertEquals(31,c.previousPrime(32));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPreviousPrimeExceptions() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(7);
+        c.previousPrime(8);
+    }
+
+    @Test
+    public void testPrimeCount() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(32);
+        assertEquals(0,c.primeCount(1));
+        assertEquals(1,c.primeCount(2));
+        assertEquals(4,c.primeCount(10));
+        assertEquals(11,c.primeCount(32));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPrimeCountExceptions() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(7);
+        c.primeCount(0);
+    }
+
+    @Test
+    public void testNthPrime() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(32);
+        assertEquals(2,c.nthPrime(1));
+        assertEquals(3,c.nthPrime(2));
+        assertEquals(31,c.nthPrime(11));
+        assertEquals(-1,c.nthPrime(12));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNthPrimeExceptions() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(7);
+        c.nthPrime(0);
+    }
+
+    @Test
+    public void testIndicePrimiModalita() {
+        // Le due tabelle devono dare le stesse risposte, anche ai confini dei blocchi
+        int n = 20000;
+        for (CrivelloDiEratostene.Modalita m : new CrivelloDiEratostene.Modalita[] {
+                CrivelloDiEratostene.Modalita.BOOLEANA, CrivelloDiEratostene.Modalita.BIT_DISPARI,
+                CrivelloDiEratostene.Modalita.RUOTA_30 }) {
+            CrivelloDiEratostene c = new CrivelloDiEratostene(n, m);
+            SortedSet<Integer> primi = c.getPrimes();
+            int precedente = -1;
+            int contati = 0;
+            for (int i = 1; i <= n; i++) {
+                assertEquals(precedente, c.previousPrime(i));
+                if (primi.contains(i)) {
+                    contati++;
+                    precedente = i;
+                    assertEquals(i, c.nthPrime(contati));
+                }
+                assertEquals(contati, c.primeCount(i));
+            }
+            assertEquals(-1, c.nthPrime(contati + 1));
+        }
+    }
+
+    @Test
+    public void testPrimesAsIntArray() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(32);
+        int[] attesi = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31};
+        assertArrayEquals(attesi, c.primesAsIntArray());
+        // Ogni chiamata restituisce una copia che si può modificare
+        c.primesAsIntArray()[0] = 4;
+        assertArrayEquals(attesi, c.primesAsIntArray());
+    }
+
+    @Test
+    public void testPrimesStream() {
+        for (CrivelloDiEratostene.Modalita m : new CrivelloDiEratostene.Modalita[] {
+                CrivelloDiEratostene.Modalita.BOOLEANA, CrivelloDiEratostene.Modalita.BIT_DISPARI,
+                CrivelloDiEratostene.Modalita.RUOTA_30 }) {
+            CrivelloDiEratostene c = new CrivelloDiEratostene(100000, m);
+            assertArrayEquals(c.primesAsIntArray(), new CrivelloDiEratostene(100000, m).primes().toArray());
+            assertEquals(9592, c.primes().parallel().count());
+            assertEquals(c.primes().asLongStream().sum(), c.primes().parallel().asLongStream().sum());
+        }
+    }
+
+    @Test
+    public void testPrimesStreamParalleloBitDispari() {
+        // Lo stream viene diviso direttamente sulla tabella, senza costruire l'array
+        CrivelloDiEratostene c = new CrivelloDiEratostene(2000000, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+        assertArrayEquals(c.primesAsIntArray(),
+                new CrivelloDiEratostene(2000000, CrivelloDiEratostene.Modalita.BIT_DISPARI).primes().parallel().toArray());
+    }
+
+    @Test
+    public void testPrimeIterator() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(32, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+        PrimitiveIterator.OfInt itr = c.primeIterator();
+        for (int p : new int[] {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31}) {
+            assertEquals(true, itr.hasNext());
+            assertEquals(p, itr.nextInt());
+        }
+        assertEquals(false, itr.hasNext());
+    }
+
+    @Test
+    public void testIsPrimeTabella() {
+        for (CrivelloDiEratostene.Modalita m : new CrivelloDiEratostene.Modalita[] {
+                CrivelloDiEratostene.Modalita.BOOLEANA, CrivelloDiEratostene.Modalita.BIT_DISPARI,
+                CrivelloDiEratostene.Modalita.RUOTA_30 }) {
+            CrivelloDiEratostene c = new CrivelloDiEratostene(10000, m);
+            SortedSet<Integer> primi = c.getPrimes();
+            assertEquals(true, c.isPrime(1));
+            for (int i = 2; i <= 10000; i++) {
+                assertEquals(primi.contains(i), c.isPrime(i));
+            }
+        }
+    }
+
+    @Test
+    public void testIsPrimeLong() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(32);
+        assertEquals(true, c.isPrime(1L));
+        assertEquals(true, c.isPrime(31L));
+        assertEquals(false, c.isPrime(32L));
+        // Oltre la capacità risponde Miller-Rabin
+        assertEquals(true, c.isPrime(37L));
+        assertEquals(false, c.isPrime(33L));
+        assertEquals(true, c.isPrime(10000000019L));
+        assertEquals(false, c.isPrime(10000000021L));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIsPrimeLongExceptions() {
+        CrivelloDiEratostene c = new CrivelloDiEratostene(32);
+        c.isPrime(0L);
+    }
+
+    @Test
+    public void testSaveOpen() throws IOException {
+        Path file = cartella.getRoot().toPath().resolve("crivello.bin");
+        for (int n : new int[] {2, 3, 127, 128, 129, 1025, 100000}) {
+            CrivelloDiEratostene c = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+            c.save(file);
+            CrivelloDiEratostene m = CrivelloDiEratostene.open(file);
+            assertEquals(n, m.getCapacity());
+            assertEquals(CrivelloDiEratostene.Modalita.BIT_DISPARI, m.getModalita());
+            assertArrayEquals(c.primesAsIntArray(), m.primesAsIntArray());
+            for (int i = 1; i <= n; i++) {
+                assertEquals(c.isPrime(i), m.isPrime(i));
+                assertEquals(c.nextPrime(i), m.nextPrime(i));
+                assertEquals(c.primeCount(i), m.primeCount(i));
+            }
+            assertEquals(-1, m.nthPrime(c.primeCount(n) + 1));
+        }
+    }
+
+    @Test
+    public void testSaveAltreModalita() throws IOException {
+        Path file = cartella.getRoot().toPath().resolve("crivello.bin");
+        for (CrivelloDiEratostene.Modalita modalita : new CrivelloDiEratostene.Modalita[] {
+                CrivelloDiEratostene.Modalita.BOOLEANA, CrivelloDiEratostene.Modalita.RUOTA_30 }) {
+            CrivelloDiEratostene c = new CrivelloDiEratostene(50000, modalita);
+            c.save(file);
+            CrivelloDiEratostene m = CrivelloDiEratostene.open(file);
+            assertArrayEquals(c.primesAsIntArray(), m.primes().parallel().toArray());
+            assertEquals(c.nthPrime(5000), m.nthPrime(5000));
+        }
+        // Il file sostituito non lascia temporanei nella cartella
+        assertEquals(1, cartella.getRoot().list().length);
+    }
+
+    @Test(expected=IOException.class)
+    public void testOpenFileNonValido() throws IOException {
+        Path file = cartella.newFile("vuoto.bin").toPath();
+        Files.write(file, new byte[64]);
+        CrivelloDiEratostene.open(file);
+    }
+
+    @Test(expected=IOException.class)
+    public void testOpenFileTroncato() throws IOException {
+        Path file = cartella.getRoot().toPath().resolve("crivello.bin");
+        new CrivelloDiEratostene(100000, CrivelloDiEratostene.Modalita.BIT_DISPARI).save(file);
+        byte[] contenuto = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(contenuto, contenuto.length - 8));
+        CrivelloDiEratostene.open(file);
+    }
+
 }
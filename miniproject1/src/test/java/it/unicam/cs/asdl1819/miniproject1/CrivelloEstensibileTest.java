@@ -0,0 +1,96 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CrivelloEstensibileTest {
+
+    @Test
+    public void testCapacitaIniziale() {
+        CrivelloEstensibile c = new CrivelloEstensibile();
+        assertEquals(CrivelloEstensibile.NUMERI_SEGMENTO - 1, c.getCapacity());
+        CrivelloEstensibile d = new CrivelloEstensibile(3 * CrivelloEstensibile.NUMERI_SEGMENTO);
+        assertEquals(4 * CrivelloEstensibile.NUMERI_SEGMENTO - 1, d.getCapacity());
+    }
+
+    @Test
+    public void testCresceSuRichiesta() {
+        CrivelloEstensibile c = new CrivelloEstensibile();
+        int capacita = c.getCapacity();
+        // Fino alla capacità non cresce
+        assertEquals(true, c.isPrime(c.previousPrime(capacita)));
+        assertEquals(capacita, c.getCapacity());
+        assertEquals(true, c.isPrime(1000003));
+        assertTrue(c.getCapacity() >= 1000003);
+        assertEquals(false, c.isPrime(1000001));
+        // nextPrime aggiunge segmenti finché non trova il successivo
+        assertEquals(524309, new CrivelloEstensibile().nextPrime(524287));
+    }
+
+    @Test
+    public void testUgualeCrivelloDiEratostene() {
+        int n = 3000000;
+        CrivelloDiEratostene d = new CrivelloDiEratostene(n, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+        CrivelloEstensibile c = new CrivelloEstensibile();
+        // Interrogo in ordine crescente, così il crivello cresce un segmento alla volta
+        for (int i = 1; i < n; i++) {
+            assertEquals(i == 1 ? false : d.isPrime(i), c.isPrime(i));
+            if (d.nextPrime(i) != -1) {
+                assertEquals(d.nextPrime(i), c.nextPrime(i));
+            }
+            assertEquals(d.previousPrime(i), c.previousPrime(i));
+            assertEquals(d.primeCount(i), c.primeCount(i));
+        }
+    }
+
+    @Test
+    public void testConcorrenza() throws InterruptedException {
+        final CrivelloEstensibile c = new CrivelloEstensibile();
+        final CrivelloDiEratostene d = new CrivelloDiEratostene(8000000, CrivelloDiEratostene.Modalita.BIT_DISPARI);
+        final List<Throwable> errori = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final Random r = new Random(t);
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        // I lettori interrogano mentre altri thread fanno crescere il crivello
+                        for (int i = 0; i < 2000; i++) {
+                            int n = 2 + r.nextInt(7999990);
+                            assertEquals(d.isPrime(n), c.isPrime(n));
+                            assertEquals(d.nextPrime(n), c.nextPrime(n));
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errori) {
+                            errori.add(e);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(new ArrayList<Throwable>(), errori);
+        assertEquals(d.primeCount(8000000), c.primeCount(8000000));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIsPrimeNonValido() {
+        new CrivelloEstensibile().isPrime(0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testEnsureCapacityNonValida() {
+        new CrivelloEstensibile().ensureCapacity(-5);
+    }
+
+}
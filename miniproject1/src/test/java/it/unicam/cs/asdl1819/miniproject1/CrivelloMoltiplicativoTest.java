@@ -0,0 +1,64 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CrivelloMoltiplicativoTest {
+
+    @Test
+    public void testPiccoli() {
+        CrivelloMoltiplicativo c = new CrivelloMoltiplicativo(12);
+        int[] divisori = {0, 1, 2, 2, 3, 2, 4, 2, 4, 3, 4, 2, 6};
+        long[] somme = {0, 1, 3, 4, 7, 6, 12, 8, 15, 13, 18, 12, 28};
+        int[] phi = {0, 1, 1, 2, 2, 4, 2, 6, 4, 6, 4, 10, 4};
+        for (int n = 1; n <= 12; n++) {
+            assertEquals(divisori[n], c.divisorCount(n));
+            assertEquals(somme[n], c.divisorSum(n));
+            assertEquals(phi[n], c.totient(n));
+        }
+        assertEquals(12, c.getLimit());
+    }
+
+    @Test
+    public void testUgualeAFactorisation() {
+        int limite = 100000;
+        CrivelloMoltiplicativo c = new CrivelloMoltiplicativo(limite);
+        Factoriser f = new Factoriser();
+        for (int n = 1; n <= limite; n += 7) {
+            Factorisation fattorizzazione = f.factorise(n);
+            assertEquals(fattorizzazione.divisorCount(), c.divisorCount(n));
+            assertEquals(fattorizzazione.divisorSum(), c.divisorSum(n));
+            assertEquals(fattorizzazione.totient(), c.totient(n));
+        }
+        //Potenze di primi e numeri con molti divisori
+        assertEquals(17, c.divisorCount(65536));
+        assertEquals(131071, c.divisorSum(65536));
+        assertEquals(32768, c.totient(65536));
+        assertEquals(128, c.divisorCount(83160));
+    }
+
+    @Test
+    public void testLimiteUno() {
+        CrivelloMoltiplicativo c = new CrivelloMoltiplicativo(1);
+        assertEquals(1, c.divisorCount(1));
+        assertEquals(1, c.divisorSum(1));
+        assertEquals(1, c.totient(1));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOltreLimite() {
+        new CrivelloMoltiplicativo(10).totient(11);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZero() {
+        new CrivelloMoltiplicativo(10).divisorCount(0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testLimiteNonValido() {
+        new CrivelloMoltiplicativo(0);
+    }
+
+}
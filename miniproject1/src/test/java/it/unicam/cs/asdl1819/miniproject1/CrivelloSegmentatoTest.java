@@ -0,0 +1,90 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.SortedSet;
+
+import org.junit.Test;
+
+public class CrivelloSegmentatoTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCrivelloSegmentatoBloccoNonValido() {
+        new CrivelloSegmentato(0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCrivelloSegmentatoBloccoTroppoGrande() {
+        new CrivelloSegmentato(CrivelloSegmentato.DIMENSIONE_BLOCCO_MASSIMA + 1);
+    }
+
+    @Test
+    public void testPrimesBetweenPiccoli() {
+        CrivelloSegmentato s = new CrivelloSegmentato();
+        assertArrayEquals(new long[] {}, s.primesBetween(0, 1));
+        assertArrayEquals(new long[] {2}, s.primesBetween(0, 2));
+        assertArrayEquals(new long[] {2, 3, 5, 7}, s.primesBetween(0, 10));
+        assertArrayEquals(new long[] {11, 13, 17, 19, 23, 29, 31}, s.primesBetween(10, 31));
+        assertArrayEquals(new long[] {}, s.primesBetween(24, 28));
+        assertArrayEquals(new long[] {}, s.primesBetween(10, 5));
+    }
+
+    @Test
+    public void testPrimesBetweenUgualeCrivello() {
+        int n = 200000;
+        CrivelloDiEratostene c = new CrivelloDiEratostene(n);
+        SortedSet<Integer> primi = c.getPrimes();
+        // Blocchi piccoli per attraversare molti confini di segmento
+        CrivelloSegmentato s = new CrivelloSegmentato(8);
+        Random r = new Random(42);
+        for (int k = 0; k < 50; k++) {
+            int from = r.nextInt(n);
+            int to = from + r.nextInt(n - from + 1);
+            long[] attesi = toLongArray(primi.subSet(from, to + 1));
+            assertArrayEquals(attesi, s.primesBetween(from, to));
+            assertEquals(attesi.length, s.countPrimes(from, to));
+        }
+    }
+
+    @Test
+    public void testCountPrimes() {
+        CrivelloSegmentato s = new CrivelloSegmentato();
+        assertEquals(664579, s.countPrimes(0, 10000000));
+        assertEquals(0, s.countPrimes(1000000, 999999));
+    }
+
+    @Test
+    public void testOltreInteger() {
+        CrivelloSegmentato s = new CrivelloSegmentato();
+        long dieciAllaDieci = 10000000000L;
+        assertArrayEquals(new long[] {9999999967L}, s.primesBetween(dieciAllaDieci - 40, dieciAllaDieci));
+        assertArrayEquals(new long[] {10000000019L}, s.primesBetween(dieciAllaDieci, dieciAllaDieci + 20));
+        assertArrayEquals(new long[] {1000000000039L}, s.primesBetween(1000000000000L, 1000000000040L));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInizioNegativo() {
+        new CrivelloSegmentato().countPrimes(-1, 10);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFineTroppoGrande() {
+        new CrivelloSegmentato().countPrimes(0, CrivelloSegmentato.MASSIMO + 1);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testForEachPrimeAzioneNulla() {
+        new CrivelloSegmentato().forEachPrime(0, 10, null);
+    }
+
+    private static long[] toLongArray(SortedSet<Integer> s) {
+        long[] a = new long[s.size()];
+        int i = 0;
+        for (Integer p : s) {
+            a[i++] = p;
+        }
+        return a;
+    }
+
+}
@@ -0,0 +1,97 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FactorisationTest {
+
+    @Test
+    public void testAccessori() {
+        Factorisation f = new Factorisation(360, new long[] {2, 3, 5}, new int[] {3, 2, 1});
+        assertEquals(360, f.getNumber());
+        assertEquals(3, f.distinctPrimes());
+        assertEquals(3, f.getPrime(1));
+        assertEquals(3, f.getExponent(0));
+        assertEquals("360 = 2^3 * 3^2 * 5", f.toString());
+        assertEquals("1 = 1", new Factorisation(1, new long[0], new int[0]).toString());
+    }
+
+    @Test
+    public void testImmutabile() {
+        long[] primi = {2, 7};
+        int[] esponenti = {1, 1};
+        Factorisation f = new Factorisation(14, primi, esponenti);
+        primi[0] = 3;
+        f.getExponents()[1] = 5;
+        assertEquals(2, f.getPrime(0));
+        assertEquals(1, f.getExponent(1));
+    }
+
+    @Test
+    public void testToMultiset() {
+        Multiset<Long> m = new Factorisation(360, new long[] {2, 3, 5}, new int[] {3, 2, 1}).toMultiset();
+        assertEquals(6, m.size());
+        assertEquals(3, m.count(2L));
+        assertEquals(2, m.count(3L));
+        assertEquals(1, m.count(5L));
+    }
+
+    @Test
+    public void testEquals() {
+        Factorisation f1 = new Factorisation(12, new long[] {2, 3}, new int[] {2, 1});
+        Factorisation f2 = new Factorisation(12, new long[] {2, 3}, new int[] {2, 1});
+        assertEquals(f1, f2);
+        assertEquals(f1.hashCode(), f2.hashCode());
+        assertFalse(f1.equals(new Factorisation(18, new long[] {2, 3}, new int[] {1, 2})));
+    }
+
+    @Test
+    public void testFunzioniDivisori() {
+        Factorisation f = new Factorisation(360, new long[] {2, 3, 5}, new int[] {3, 2, 1});
+        assertEquals(24, f.divisorCount());
+        assertEquals(1170, f.divisorSum());
+        assertEquals(96, f.totient());
+        long[] divisori = f.divisors();
+        assertEquals(24, divisori.length);
+        assertEquals(1, divisori[0]);
+        assertEquals(2, divisori[1]);
+        assertEquals(180, divisori[22]);
+        assertEquals(360, divisori[23]);
+        for (int i = 1; i < divisori.length; i++) {
+            assertTrue(divisori[i - 1] < divisori[i]);
+            assertEquals(0, 360 % divisori[i]);
+        }
+        Factorisation uno = new Factorisation(1, new long[0], new int[0]);
+        assertEquals(1, uno.divisorCount());
+        assertEquals(1, uno.divisorSum());
+        assertEquals(1, uno.totient());
+        assertArrayEquals(new long[] {1}, uno.divisors());
+    }
+
+    @Test
+    public void testFunzioniPrimoGrande() {
+        Factorisation f = new Factoriser().factorise(4611686018427387847L);
+        assertEquals(2, f.divisorCount());
+        assertEquals(4611686018427387848L, f.divisorSum());
+        assertEquals(4611686018427387846L, f.totient());
+    }
+
+    @Test(expected=ArithmeticException.class)
+    public void testSommaDivisoriTroppoGrande() {
+        //La somma dei divisori di 2^62 è 2^63 - 1, quella di 3 * 2^61 non sta in un long
+        assertEquals(Long.MAX_VALUE, new Factoriser().factorise(1L << 62).divisorSum());
+        new Factoriser().factorise(3L << 61).divisorSum();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testLunghezzeDiverse() {
+        new Factorisation(12, new long[] {2, 3}, new int[] {2});
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testPosizioneNonValida() {
+        new Factorisation(12, new long[] {2, 3}, new int[] {2, 1}).getPrime(2);
+    }
+
+}
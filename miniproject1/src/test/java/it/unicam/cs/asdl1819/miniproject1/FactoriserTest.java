@@ -2,6 +2,8 @@ package it.unicam.cs.asdl1819.miniproject1;
 
 import static org.junit.Assert.*;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -64,4 +66,226 @@ public class FactoriserTest {
         assertEquals(true, m1.equals(m2));
     }
 
+    @Test
+    public void testGetFactorsUsaCrivelloCondiviso() {
+        CrivelloCondiviso crivelli = new CrivelloCondiviso(2);
+        Factoriser f2 = new Factoriser(crivelli);
+        Multiset<Integer> m1 = f2.getFactors(2134440);
+        Multiset<Integer> m2 = f2.getFactors(2134440);
+        assertEquals(true, m1.equals(m2));
+        assertEquals(1, crivelli.getHits());
+        assertEquals(1, crivelli.getMisses());
+        // Un numero più piccolo riusa il crivello già costruito
+        f2.getFactors(42890);
+        assertEquals(2, crivelli.getHits());
+        assertEquals(1, crivelli.getGrowths());
+    }
+
+    @Test
+    public void testFactoriseConCrivelloCondivisoGrande() {
+        Factoriser piccolo = new Factoriser(new CrivelloCondiviso(Factoriser.LIMITE_DIVISIONI));
+        CrivelloCondiviso crivelli = new CrivelloCondiviso(Factoriser.LIMITE_DIVISIONI);
+        Factoriser grande = new Factoriser(crivelli);
+        // Un altro utente della cache la fa crescere molto oltre il limite delle divisioni
+        crivelli.crivello(5000000);
+        long[] numeri = { 999999999999999989L, 600851475143L, 4099L * 4099 * 1000003,
+                1000003L * 1000033, 2L * 3 * 4093 * 4099, (1L << 62) - 57 };
+        for (long n : numeri) {
+            assertEquals(piccolo.factorise(n), grande.factorise(n));
+        }
+        assertEquals(5000000, crivelli.getCapacity());
+        Factorisation[] tutte = grande.factoriseAll(numeri, 2);
+        for (int i = 0; i < numeri.length; i++) {
+            assertEquals(piccolo.factorise(numeri[i]), tutte[i]);
+        }
+        assertArrayEquals(tutte, grande.factoriseAll(numeri, 1));
+    }
+
+    @Test
+    public void testGetFactorsPrimoGrande() {
+        Multiset<Integer> m1 = f.getFactors(Integer.MAX_VALUE);
+        Multiset<Integer> m2 = new MyMultiset<Integer>();
+        m2.add(Integer.MAX_VALUE);
+        assertEquals(true, m1.equals(m2));
+    }
+
+    @Test
+    public void testGetFactorsQuadratoDiPrimo() {
+        Multiset<Integer> m1 = f.getFactors(46337 * 46337);
+        Multiset<Integer> m2 = new MyMultiset<Integer>();
+        m2.add(46337, 2);
+        assertEquals(true, m1.equals(m2));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testFactoriserCacheNulla() {
+        new Factoriser(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testGetFactorsLongLessThanOne() {
+        f.getFactors(0L);
+    }
+
+    @Test
+    public void testGetFactorsLongOne() {
+        assertEquals(true, f.getFactors(1L).isEmpty());
+    }
+
+    @Test
+    public void testGetFactorsLongUgualeInt() {
+        for (int n = 1; n <= 5000; n++) {
+            Multiset<Integer> mi = f.getFactors(n);
+            Multiset<Long> ml = f.getFactors((long) n);
+            assertEquals(mi.size(), ml.size());
+            for (Integer p : mi.elementSet()) {
+                assertEquals(mi.count(p), ml.count(Long.valueOf(p)));
+            }
+        }
+    }
+
+    @Test
+    public void testGetFactorsLongSemiprimo() {
+        Multiset<Long> m1 = f.getFactors(1000000007L * 998244353L);
+        Multiset<Long> m2 = new MyMultiset<Long>();
+        m2.add(1000000007L);
+        m2.add(998244353L);
+        assertEquals(true, m1.equals(m2));
+    }
+
+    @Test
+    public void testGetFactorsLongGrande() {
+        // 2^62 - 1 = 3 * 715827883 * 2147483647
+        Multiset<Long> m1 = f.getFactors((1L << 62) - 1);
+        Multiset<Long> m2 = new MyMultiset<Long>();
+        m2.add(3L);
+        m2.add(715827883L);
+        m2.add(2147483647L);
+        assertEquals(true, m1.equals(m2));
+        // Primo vicino a 2^63
+        Multiset<Long> m3 = f.getFactors(Long.MAX_VALUE - 24);
+        assertEquals(1, m3.count(Long.MAX_VALUE - 24));
+        assertEquals(1, m3.size());
+    }
+
+    @Test
+    public void testGetFactorsLongPotenze() {
+        Multiset<Long> m1 = f.getFactors(1000003L * 1000003L * 1000003L);
+        assertEquals(3, m1.count(1000003L));
+        assertEquals(3, m1.size());
+        Multiset<Long> m2 = f.getFactors(1L << 62);
+        assertEquals(62, m2.count(2L));
+    }
+
+    @Test
+    public void testFactorise() {
+        Factorisation fa = f.factorise(360L);
+        assertArrayEquals(new long[] {2, 3, 5}, fa.getPrimes());
+        assertArrayEquals(new int[] {3, 2, 1}, fa.getExponents());
+        assertEquals(0, f.factorise(1L).distinctPrimes());
+        Factorisation fb = f.factorise(999983L * 999983L * 4099L);
+        assertArrayEquals(new long[] {4099, 999983}, fb.getPrimes());
+        assertArrayEquals(new int[] {1, 2}, fb.getExponents());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFactoriseLessThanOne() {
+        f.factorise(0L);
+    }
+
+    @Test
+    public void testFactoriseAllInt() {
+        int[] numeri = new int[1000];
+        for (int i = 0; i < numeri.length; i++) {
+            numeri[i] = Integer.MAX_VALUE - i;
+        }
+        Factorisation[] sequenziale = f.factoriseAll(numeri, 1);
+        Factorisation[] parallelo = f.factoriseAll(numeri, 4);
+        assertEquals(numeri.length, parallelo.length);
+        for (int i = 0; i < numeri.length; i++) {
+            assertEquals(numeri[i], parallelo[i].getNumber());
+            assertEquals(sequenziale[i], parallelo[i]);
+            assertEquals(f.getFactors(numeri[i]).size(), parallelo[i].toMultiset().size());
+        }
+    }
+
+    @Test
+    public void testFactoriseAllLong() {
+        long[] numeri = new long[300];
+        for (int i = 0; i < numeri.length; i++) {
+            numeri[i] = (1L << 62) - 1 - 2 * i;
+        }
+        Factorisation[] parallelo = f.factoriseAll(numeri, 3);
+        for (int i = 0; i < numeri.length; i++) {
+            assertEquals(f.factorise(numeri[i]), parallelo[i]);
+        }
+        assertEquals(0, f.factoriseAll(new long[0], 2).length);
+    }
+
+    @Test
+    public void testFactoriseAllRiusaIPool() {
+        int[] numeri = { 12, 97, 1001, 65536 };
+        f.factoriseAll(numeri, 3);
+        int thread = Thread.activeCount();
+        //Le chiamate successive riusano lo stesso pool invece di crearne uno nuovo
+        for (int i = 0; i < 200; i++) {
+            assertEquals(f.factorise(1001), f.factoriseAll(numeri, 3)[2]);
+        }
+        assertEquals(true, Thread.activeCount() <= thread + 3);
+    }
+
+    @Test
+    public void testFactoriseAllParallelismoGrande() {
+        //Il parallelismo viene limitato al numero di processori
+        int[] numeri = { 12, 97, 1001, 65536 };
+        assertArrayEquals(f.factoriseAll(numeri, 1), f.factoriseAll(numeri, 100000));
+        assertArrayEquals(f.factoriseAll(numeri, 1), f.factoriseAll(numeri, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testFactoriseAllConPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            long[] numeri = { 600851475143L, 1000003L * 1000033, 97 };
+            assertArrayEquals(f.factoriseAll(numeri, 1), f.factoriseAll(numeri, pool));
+            assertArrayEquals(f.factoriseAll(new int[] { 360 }, 1), f.factoriseAll(new int[] { 360 }, pool));
+            //Il pool resta utilizzabile da chi lo ha passato
+            assertEquals(false, pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testFactoriseAllPoolNullo() {
+        f.factoriseAll(new long[] { 6 }, (ForkJoinPool) null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFactoriseAllParallelismoNonValido() {
+        f.factoriseAll(new int[] {6}, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFactoriseAllNumeroNonValido() {
+        f.factoriseAll(new long[] {6, 0, 10}, 2);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testFactoriseAllNull() {
+        f.factoriseAll((int[]) null, 2);
+    }
+
+    @Test
+    public void testGetIntFactors() {
+        IntMultiset m1 = f.getIntFactors(2134440);
+        assertEquals(3, m1.countInt(2));
+        assertEquals(2, m1.countInt(3));
+        assertEquals(1, m1.countInt(5));
+        assertEquals(2, m1.countInt(11));
+        assertEquals(10, m1.size());
+        assertEquals(true, m1.equals(f.getFactors(2134440)));
+        assertEquals(true, f.getIntFactors(1).isEmpty());
+    }
+
 }
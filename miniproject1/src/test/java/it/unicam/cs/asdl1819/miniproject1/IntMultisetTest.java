@@ -0,0 +1,194 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class IntMultisetTest {
+
+    @Test
+    public void testVuoto() {
+        IntMultiset m = new IntMultiset();
+        assertEquals(true, m.isEmpty());
+        assertEquals(0, m.size());
+        assertEquals(0, m.countInt(0));
+        assertEquals(false, m.iterator().hasNext());
+    }
+
+    @Test
+    public void testAddCount() {
+        IntMultiset m = new IntMultiset();
+        assertEquals(0, m.addInt(0, 3));
+        assertEquals(3, m.addInt(0, 2));
+        m.addInt(-7);
+        m.add(Integer.MIN_VALUE);
+        assertEquals(5, m.countInt(0));
+        assertEquals(1, m.count(-7));
+        assertEquals(1, m.countInt(Integer.MIN_VALUE));
+        assertEquals(0, m.count("0"));
+        assertEquals(7, m.size());
+        assertEquals(3, m.distinctElements());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testCountNull() {
+        new IntMultiset().count(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAddNull() {
+        new IntMultiset().add(null, 2);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNegativo() {
+        new IntMultiset().addInt(3, -1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddOltreMassimo() {
+        IntMultiset m = new IntMultiset();
+        m.addInt(3, Integer.MAX_VALUE);
+        m.addInt(3);
+    }
+
+    @Test
+    public void testRemove() {
+        IntMultiset m = new IntMultiset();
+        m.addInt(2, 5);
+        assertEquals(5, m.removeInt(2, 3));
+        assertEquals(2, m.countInt(2));
+        assertEquals(2, m.remove(2, 7));
+        assertEquals(false, m.containsInt(2));
+        assertEquals(false, m.remove(2));
+        assertEquals(0, m.remove("2", 1));
+        assertEquals(true, m.isEmpty());
+    }
+
+    @Test
+    public void testSetCount() {
+        IntMultiset m = new IntMultiset();
+        assertEquals(0, m.setCount(4, 3));
+        assertEquals(3, m.setCountInt(4, 1));
+        assertEquals(1, m.size());
+        assertEquals(1, m.setCount(4, 0));
+        assertEquals(false, m.contains(4));
+        assertEquals(0, m.distinctElements());
+    }
+
+    @Test
+    public void testIteratore() {
+        IntMultiset m = new IntMultiset();
+        m.addInt(1, 3);
+        m.addInt(3, 2);
+        PrimitiveIterator.OfInt itr = m.intIterator();
+        int primo = itr.nextInt();
+        int occorrenze = primo == 1 ? 3 : 2;
+        for (int i = 1; i < occorrenze; i++) {
+            assertEquals(primo, itr.nextInt());
+        }
+        int secondo = itr.nextInt();
+        assertEquals(4, primo + secondo);
+        assertEquals(true, itr.hasNext());
+        while (itr.hasNext()) {
+            assertEquals(secondo, itr.nextInt());
+        }
+    }
+
+    @Test
+    public void testElementSet() {
+        IntMultiset m = new IntMultiset();
+        m.addInt(1);
+        m.addInt(2, 3);
+        m.addInt(-13, 7);
+        Set<Integer> s = new HashSet<Integer>();
+        s.add(1);
+        s.add(2);
+        s.add(-13);
+        assertEquals(s, m.elementSet());
+    }
+
+    @Test
+    public void testUgualeMyMultiset() {
+        //Operazioni casuali su pochi elementi, così ci sono molte collisioni e rimozioni
+        Random random = new Random(42);
+        IntMultiset m = new IntMultiset();
+        MyMultiset<Integer> atteso = new MyMultiset<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            int e = random.nextInt(300) * 1024;
+            int quante = random.nextInt(4);
+            switch (random.nextInt(3)) {
+            case 0:
+                assertEquals(atteso.add(e, quante), m.addInt(e, quante));
+                break;
+            case 1:
+                assertEquals(atteso.remove(e, quante), m.removeInt(e, quante));
+                break;
+            default:
+                assertEquals(atteso.setCount(e, quante), m.setCountInt(e, quante));
+            }
+        }
+        assertEquals(atteso.size(), m.size());
+        assertEquals(atteso.elementSet().size(), m.distinctElements());
+        for (int e = 0; e < 300 * 1024; e += 1024) {
+            assertEquals(atteso.count(e), m.countInt(e));
+        }
+        assertEquals(true, m.equals(atteso));
+        assertEquals(true, atteso.equals(m));
+        assertEquals(atteso.hashCode(), m.hashCode());
+    }
+
+    @Test
+    public void testEquals() {
+        IntMultiset m1 = new IntMultiset();
+        m1.addInt(3, 5);
+        m1.addInt(4);
+        IntMultiset m2 = new IntMultiset(100);
+        m2.addInt(4);
+        m2.addInt(3, 5);
+        assertEquals(true, m1.equals(m2));
+        assertEquals(m1.hashCode(), m2.hashCode());
+        m2.addInt(5);
+        assertEquals(false, m1.equals(m2));
+    }
+
+    @Test
+    public void testClear() {
+        IntMultiset m = new IntMultiset();
+        m.addInt(2);
+        m.addInt(3, 4);
+        m.clear();
+        assertEquals(true, m.isEmpty());
+        assertEquals(0, m.countInt(3));
+        m.addInt(3);
+        assertEquals(1, m.size());
+    }
+
+    @Test
+    public void testVoci() {
+        IntMultiset m = new IntMultiset();
+        long atteso = 0;
+        for (int i = 0; i < 5000; i++) {
+            m.addInt(i * 31, i % 4 + 1);
+            atteso += (long) i * 31 * (i % 4 + 1);
+        }
+        assertEquals(5000, m.entrySet().size());
+        assertEquals(5000, m.entryStream().count());
+        long somma = m.entryStream().parallel().mapToLong(v -> (long) v.getElement() * v.getCount()).sum();
+        assertEquals(atteso, somma);
+        final long[] primitiva = new long[1];
+        m.forEachEntryInt((e, n) -> primitiva[0] += (long) e * n);
+        assertEquals(atteso, primitiva[0]);
+        MyMultiset<Integer> copia = new MyMultiset<Integer>();
+        m.forEachEntry((e, n) -> copia.add(e, n));
+        assertEquals(true, copia.equals(m));
+        assertEquals(true, m.entrySet().contains(new VoceMultiset<Integer>(31, 2)));
+        assertEquals(false, m.entrySet().contains(new VoceMultiset<Integer>(31, 1)));
+    }
+
+}
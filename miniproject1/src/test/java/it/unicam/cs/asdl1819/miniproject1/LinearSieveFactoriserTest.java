@@ -0,0 +1,104 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class LinearSieveFactoriserTest {
+
+    private static LinearSieveFactoriser f;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        f = new LinearSieveFactoriser(3000000);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testLimiteNonValido() {
+        new LinearSieveFactoriser(1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testGetFactorsLessThanOne() {
+        f.getFactors(0);
+    }
+
+    @Test
+    public void testGetFactorsOne() {
+        assertEquals(true, f.getFactors(1).isEmpty());
+    }
+
+    @Test
+    public void testGetFactors() {
+        Multiset<Integer> m1 = f.getFactors(2134440);
+        Multiset<Integer> m2 = new MyMultiset<Integer>();
+        m2.add(2,3);
+        m2.add(3,2);
+        m2.add(5);
+        m2.add(7,2);
+        m2.add(11,2);
+        assertEquals(true, m1.equals(m2));
+    }
+
+    @Test
+    public void testGetFactorsUgualeFactoriser() {
+        Factoriser base = new Factoriser();
+        for (int n = 1; n <= 20000; n++) {
+            assertEquals(true, base.getFactors(n).equals(f.getFactors(n)));
+        }
+    }
+
+    @Test
+    public void testGetFactorsOltreLimite() {
+        LinearSieveFactoriser piccolo = new LinearSieveFactoriser(100);
+        Multiset<Integer> m2 = new MyMultiset<Integer>();
+        m2.add(2);
+        m2.add(5);
+        m2.add(4289);
+        assertEquals(true, piccolo.getFactors(42890).equals(m2));
+        assertEquals(100, piccolo.getLimit());
+    }
+
+    @Test
+    public void testSmallestPrimeFactor() {
+        assertEquals(2, f.smallestPrimeFactor(2));
+        assertEquals(2, f.smallestPrimeFactor(1024));
+        assertEquals(3, f.smallestPrimeFactor(2999997));
+        assertEquals(1499, f.smallestPrimeFactor(1499 * 1999));
+        assertEquals(1721, f.smallestPrimeFactor(1721 * 1723));
+        assertEquals(2999999, f.smallestPrimeFactor(2999999));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSmallestPrimeFactorOltreLimite() {
+        f.smallestPrimeFactor(3000001);
+    }
+
+    @Test
+    public void testGetFactorsBatch() {
+        int[] numeri = {32, 2, 42890, 1, 2999999};
+        List<Multiset<Integer>> fattori = f.getFactors(numeri);
+        assertEquals(numeri.length, fattori.size());
+        for (int i = 0; i < numeri.length; i++) {
+            assertEquals(true, f.getFactors(numeri[i]).equals(fattori.get(i)));
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testGetFactorsBatchNonValido() {
+        f.getFactors(new int[] {4, 0});
+    }
+
+    @Test
+    public void testGetIntFactors() {
+        Factoriser base = new Factoriser();
+        for (int n = 1; n <= 5000; n++) {
+            assertEquals(true, base.getIntFactors(n).equals(f.getIntFactors(n)));
+        }
+        assertEquals(1, new LinearSieveFactoriser(100).getIntFactors(42890).countInt(4289));
+    }
+
+}
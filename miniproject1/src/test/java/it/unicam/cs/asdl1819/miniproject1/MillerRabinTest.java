@@ -0,0 +1,63 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MillerRabinTest {
+
+    @Test
+    public void testIsPrimeIntUgualeCrivello() {
+        int n = 1000000;
+        CrivelloDiEratostene c = new CrivelloDiEratostene(n);
+        for (int i = 2; i <= n; i++) {
+            assertEquals(c.isPrime(i), MillerRabin.isPrime(i));
+        }
+    }
+
+    @Test
+    public void testIsPrimeIntCasiLimite() {
+        assertEquals(false, MillerRabin.isPrime(1));
+        assertEquals(false, MillerRabin.isPrime(0));
+        assertEquals(false, MillerRabin.isPrime(-7));
+        assertEquals(true, MillerRabin.isPrime(Integer.MAX_VALUE));
+        assertEquals(false, MillerRabin.isPrime(Integer.MAX_VALUE - 2));
+        // Pseudoprimo forte in base 2
+        assertEquals(false, MillerRabin.isPrime(2047));
+    }
+
+    @Test
+    public void testIsPrimeLong() {
+        assertEquals(false, MillerRabin.isPrime(1L));
+        assertEquals(false, MillerRabin.isPrime(-3L));
+        assertEquals(true, MillerRabin.isPrime(10000000019L));
+        assertEquals(true, MillerRabin.isPrime(1000000000039L));
+        assertEquals(true, MillerRabin.isPrime(2305843009213693951L));
+        assertEquals(true, MillerRabin.isPrime(Long.MAX_VALUE - 24));
+        assertEquals(false, MillerRabin.isPrime(Long.MAX_VALUE));
+        // Pseudoprimi forti per molte basi piccole
+        assertEquals(false, MillerRabin.isPrime(3215031751L));
+        assertEquals(false, MillerRabin.isPrime(3825123056546413051L));
+        // Semiprimo con fattori grandi
+        assertEquals(false, MillerRabin.isPrime(1000000007L * 998244353L));
+        // Quadrato di un primo
+        assertEquals(false, MillerRabin.isPrime(1000000007L * 1000000007L));
+    }
+
+    @Test
+    public void testIsPrimeLongUgualeSegmentato() {
+        // Tutti i numeri in un intervallo oltre Integer.MAX_VALUE
+        long da = 1L << 40;
+        long a = da + 20000;
+        long[] primi = new CrivelloSegmentato().primesBetween(da, a);
+        int j = 0;
+        for (long i = da; i <= a; i++) {
+            boolean primo = j < primi.length && primi[j] == i;
+            if (primo) {
+                j++;
+            }
+            assertEquals(primo, MillerRabin.isPrime(i));
+        }
+    }
+
+}
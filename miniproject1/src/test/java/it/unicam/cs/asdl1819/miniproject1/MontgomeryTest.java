@@ -0,0 +1,56 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MontgomeryTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testModuloPari() {
+        new Montgomery(10);
+    }
+
+    @Test
+    public void testMoltiplicaAlto() {
+        Random r = new Random(1);
+        BigInteger dueAlla64 = BigInteger.ONE.shiftLeft(64);
+        for (int i = 0; i < 1000; i++) {
+            long x = r.nextLong();
+            long y = r.nextLong();
+            BigInteger prodotto = senzaSegno(x).multiply(senzaSegno(y));
+            assertEquals(prodotto.divide(dueAlla64).longValue(), Montgomery.moltiplicaAlto(x, y));
+        }
+    }
+
+    @Test
+    public void testMoltiplicaEPotenza() {
+        Random r = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            long n = (r.nextLong() >>> 1) | 1;
+            if (i % 4 == 0) {
+                n = (r.nextInt(1000) * 2 + 3);
+            }
+            Montgomery m = new Montgomery(n);
+            BigInteger bn = BigInteger.valueOf(n);
+            long a = Math.floorMod(r.nextLong(), n);
+            long b = Math.floorMod(r.nextLong(), n);
+            long e = r.nextLong() >>> 1;
+            long prodotto = m.aNormale(m.moltiplica(m.daNormale(a), m.daNormale(b)));
+            assertEquals(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).mod(bn).longValue(), prodotto);
+            long potenza = m.aNormale(m.potenza(m.daNormale(a), e));
+            assertEquals(BigInteger.valueOf(a).modPow(BigInteger.valueOf(e), bn).longValue(), potenza);
+            assertEquals(BigInteger.valueOf(a).add(BigInteger.valueOf(b)).mod(bn).longValue(), m.somma(a, b));
+            assertEquals(1 % n, m.aNormale(m.uno()));
+        }
+    }
+
+    private static BigInteger senzaSegno(long x) {
+        BigInteger b = BigInteger.valueOf(x & Long.MAX_VALUE);
+        return x < 0 ? b.setBit(63) : b;
+    }
+
+}
@@ -0,0 +1,111 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MultisetCodecTest {
+
+    private ByteArrayOutputStream uscita = new ByteArrayOutputStream();
+    private MultisetCodec.Writer scrittore = new MultisetCodec.Writer(Channels.newChannel(uscita));
+
+    private MultisetCodec.Reader lettore() throws IOException {
+        scrittore.flush();
+        return lettore(uscita.toByteArray());
+    }
+
+    private static MultisetCodec.Reader lettore(byte[] contenuto) {
+        return new MultisetCodec.Reader(Channels.newChannel(new ByteArrayInputStream(contenuto)));
+    }
+
+    @Test
+    public void testInteri() throws IOException {
+        IntMultiset interi = new IntMultiset();
+        interi.addInt(Integer.MIN_VALUE, 3);
+        interi.addInt(-1);
+        interi.addInt(0, 7);
+        interi.addInt(Integer.MAX_VALUE, Integer.MAX_VALUE - 11);
+        MyMultiset<Integer> mappa = new MyMultiset<Integer>();
+        mappa.add(42, 2);
+        mappa.add(-42);
+        scrittore.writeInts(interi);
+        scrittore.writeInts(mappa);
+        scrittore.writeInts(new IntMultiset());
+        MultisetCodec.Reader l = lettore();
+        assertEquals(interi, l.readInts());
+        assertEquals(mappa, l.readInts());
+        assertEquals(true, l.readInts().isEmpty());
+        assertNull(l.readInts());
+    }
+
+    @Test
+    public void testLunghi() throws IOException {
+        MyMultiset<Long> m = new MyMultiset<Long>();
+        m.add(Long.MIN_VALUE);
+        m.add(Long.MAX_VALUE, 2);
+        m.add(5000000000L, 9);
+        scrittore.writeLongs(m);
+        assertEquals(m, lettore().readLongs());
+    }
+
+    @Test
+    public void testFattorizzazioni() throws IOException {
+        Factoriser f = new Factoriser();
+        long[] numeri = { 1, 2, 360, 600851475143L, 9223372036854775783L, 1L << 62 };
+        for (long n : numeri) {
+            scrittore.writeFactorisation(f.factorise(n));
+        }
+        MultisetCodec.Reader l = lettore();
+        for (long n : numeri) {
+            assertEquals(f.factorise(n), l.readFactorisation());
+        }
+        assertNull(l.readFactorisation());
+    }
+
+    @Test
+    public void testTabellaGrande() throws IOException {
+        //Più grande del buffer, così si svuota e si riempie più volte
+        IntMultiset m = new IntMultiset();
+        for (int i = 0; i < 200000; i++) {
+            m.addInt(i * 3, i % 100 + 1);
+        }
+        scrittore.writeInts(m);
+        scrittore.flush();
+        //Differenze e frequenze piccole occupano un byte ciascuna
+        assertEquals(true, uscita.size() < 3 * 200000);
+        assertEquals(m, lettore(uscita.toByteArray()).readInts());
+    }
+
+    @Test
+    public void testFlussoVuoto() throws IOException {
+        assertNull(lettore(new byte[0]).readLongs());
+    }
+
+    @Test(expected=IOException.class)
+    public void testTipoSbagliato() throws IOException {
+        scrittore.writeLongs(new MyMultiset<Long>());
+        lettore().readInts();
+    }
+
+    @Test(expected=EOFException.class)
+    public void testTroncato() throws IOException {
+        Factoriser f = new Factoriser();
+        scrittore.writeFactorisation(f.factorise(600851475143L));
+        scrittore.flush();
+        byte[] contenuto = uscita.toByteArray();
+        lettore(Arrays.copyOf(contenuto, contenuto.length - 1)).readFactorisation();
+    }
+
+    @Test(expected=IOException.class)
+    public void testNumeroMagicoSbagliato() throws IOException {
+        lettore(new byte[] { 1, 2, 3, 4, 1, 1, 0 }).readInts();
+    }
+
+}
@@ -0,0 +1,123 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MultisetsTest {
+
+    private static Multiset<Integer> multiset(int... elementiEFrequenze) {
+        Multiset<Integer> m = new MyMultiset<Integer>();
+        for (int i = 0; i < elementiEFrequenze.length; i += 2) {
+            m.add(elementiEFrequenze[i], elementiEFrequenze[i + 1]);
+        }
+        return m;
+    }
+
+    @Test
+    public void testOperazioni() {
+        Multiset<Integer> a = multiset(1, 3, 2, 1, 4, 2);
+        Multiset<Integer> b = multiset(1, 1, 2, 5, 7, 1);
+        assertEquals(multiset(1, 3, 2, 5, 4, 2, 7, 1), Multisets.union(a, b));
+        assertEquals(multiset(1, 1, 2, 1), Multisets.intersection(a, b));
+        assertEquals(multiset(1, 4, 2, 6, 4, 2, 7, 1), Multisets.sum(a, b));
+        assertEquals(multiset(1, 2, 4, 2), Multisets.difference(a, b));
+        assertEquals(multiset(2, 4, 7, 1), Multisets.difference(b, a));
+        //I multiset dati non cambiano
+        assertEquals(multiset(1, 3, 2, 1, 4, 2), a);
+    }
+
+    @Test
+    public void testMcdEMcm() {
+        Factoriser f = new Factoriser();
+        //mcd(360, 756) = 36 e mcm(360, 756) = 7560
+        Multiset<Integer> mcd = Multisets.intersection(f.getFactors(360), f.getFactors(756));
+        Multiset<Integer> mcm = Multisets.union(f.getFactors(360), f.getFactors(756));
+        assertEquals(f.getFactors(36), mcd);
+        assertEquals(f.getFactors(7560), mcm);
+        assertEquals(f.getFactors(360 * 756), Multisets.sum(f.getFactors(360), f.getFactors(756)));
+    }
+
+    @Test
+    public void testParallele() {
+        Multiset<Integer> a = new MyMultiset<Integer>();
+        IntMultiset b = new IntMultiset();
+        for (int i = 0; i < 50000; i++) {
+            a.add(i, i % 4 + 1);
+            b.addInt(i + 25000, i % 3 + 1);
+        }
+        assertEquals(Multisets.union(a, b), Multisets.parallelUnion(a, b));
+        assertEquals(Multisets.intersection(a, b), Multisets.parallelIntersection(a, b));
+        assertEquals(Multisets.sum(a, b), Multisets.parallelSum(a, b));
+        assertEquals(Multisets.difference(a, b), Multisets.parallelDifference(a, b));
+        assertEquals(a.size() + b.size(), Multisets.parallelSum(a, b).size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSommaOltreMassimo() {
+        Multisets.sum(multiset(1, Integer.MAX_VALUE), multiset(1, 1));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNull() {
+        Multisets.union(multiset(1, 1), null);
+    }
+
+    @Test
+    public void testOperazioniSulPosto() {
+        Multiset<Integer> a = multiset(1, 3, 2, 1, 4, 2);
+        assertEquals(true, a.addAll(multiset(1, 1, 7, 2)));
+        assertEquals(multiset(1, 4, 2, 1, 4, 2, 7, 2), a);
+        assertEquals(false, a.addAll(new IntMultiset()));
+        assertEquals(true, a.removeAll(multiset(1, 2, 2, 5, 9, 1)));
+        assertEquals(multiset(1, 2, 4, 2, 7, 2), a);
+        assertEquals(false, a.removeAll(multiset(9, 1)));
+        assertEquals(true, a.retainAll(multiset(1, 1, 7, 5)));
+        assertEquals(multiset(1, 1, 7, 2), a);
+        assertEquals(false, a.retainAll(multiset(1, 1, 7, 5)));
+        assertEquals(true, a.containsAll(multiset(7, 2)));
+        assertEquals(false, a.containsAll(multiset(7, 3)));
+        assertEquals(false, a.containsAll(multiset(8, 1)));
+        assertEquals(true, a.containsAll(new MyMultiset<Integer>()));
+    }
+
+    @Test
+    public void testRemoveAllSeStesso() {
+        List<Multiset<Integer>> multiset = Arrays.<Multiset<Integer>>asList(new MyMultiset<Integer>(),
+                new RankedMultiset<Integer>(), new IntMultiset(), new ConcurrentMultiset<Integer>());
+        for (Multiset<Integer> m : multiset) {
+            for (int i = 0; i < 100; i++) {
+                m.add(i, i % 3 + 1);
+            }
+            assertEquals(true, m.removeAll(m));
+            assertEquals(true, m.isEmpty());
+            assertEquals(false, m.removeAll(m));
+        }
+    }
+
+    @Test
+    public void testAddAllIntMultiset() {
+        IntMultiset a = new IntMultiset();
+        a.addInt(3, 2);
+        IntMultiset b = new IntMultiset();
+        b.addInt(3);
+        b.addInt(5, 4);
+        assertEquals(true, a.addAll(b));
+        assertEquals(3, a.countInt(3));
+        assertEquals(4, a.countInt(5));
+        a.addAll(a);
+        assertEquals(6, a.countInt(3));
+        assertEquals(14, a.size());
+        a.addAll(multiset(5, 1));
+        assertEquals(9, a.countInt(5));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testNonModificabile() {
+        new CachingFactoriser(10).getFactors(12).retainAll(new MyMultiset<Integer>());
+    }
+
+}
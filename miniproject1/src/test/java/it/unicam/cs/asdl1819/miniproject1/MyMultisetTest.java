@@ -497,4 +497,148 @@ public class MyMultisetTest {
         assertEquals(true,m1.equals(m2));
     }
 
+    @Test
+    public void testSetCountZeroRimuove() {
+        MyMultiset<Integer> m = new MyMultiset<Integer>();
+        m.add(2,3);
+        m.add(5);
+        m.setCount(2, 0);
+        assertEquals(false,m.contains(2));
+        assertEquals(1,m.size());
+        assertEquals(1,m.elementSet().size());
+    }
+
+    @Test
+    public void testAltriTipi() {
+        MyMultiset<String> m = new MyMultiset<String>();
+        m.add("a", 2);
+        m.add("b");
+        m.add(new String("a"));
+        assertEquals(3,m.count("a"));
+        assertEquals(1,m.count("b"));
+        assertEquals(0,m.count(7));
+        assertEquals(true,m.remove("b"));
+        assertEquals(3,m.size());
+    }
+
+    @Test
+    public void testMoltiElementi() {
+        MyMultiset<Integer> m = new MyMultiset<Integer>();
+        for (int i = 0; i < 200000; i++) {
+            m.add(i, i % 3 + 1);
+        }
+        assertEquals(399999,m.size());
+        assertEquals(3,m.count(199997));
+        int occorrenze = 0;
+        Iterator<Integer> itr = m.iterator();
+        while (itr.hasNext()) {
+            itr.next();
+            occorrenze++;
+        }
+        assertEquals(399999,occorrenze);
+    }
+
+    @Test
+    public void testHashCode() {
+        MyMultiset<Integer> m1 = new MyMultiset<Integer>();
+        m1.add(3,5);
+        m1.add(4);
+        MyMultiset<Integer> m2 = new MyMultiset<Integer>();
+        m2.add(4);
+        m2.add(3,5);
+        assertEquals(m1.hashCode(),m2.hashCode());
+        assertEquals((3 ^ 5) + (4 ^ 1),m1.hashCode());
+        assertEquals(0,new MyMultiset<Integer>().hashCode());
+    }
+
+    @Test
+    public void testEqualsAltraImplementazione() {
+        MyMultiset<Integer> m1 = new MyMultiset<Integer>();
+        m1.add(3,5);
+        m1.add(4);
+        MyMultiset<Integer> m2 = new MyMultiset<Integer>();
+        m2.add(3,5);
+        m2.add(4);
+        Multiset<Integer> nonModificabile = new UnmodifiableMultiset<Integer>(m2);
+        assertEquals(true,m1.equals(nonModificabile));
+        assertEquals(true,nonModificabile.equals(m1));
+        assertEquals(m1.hashCode(),nonModificabile.hashCode());
+        m2.add(4);
+        assertEquals(false,m1.equals(nonModificabile));
+        assertEquals(false,m1.equals(m1.elementSet()));
+    }
+
+    @Test
+    public void testEntrySet() {
+        MyMultiset<Integer> m = new MyMultiset<Integer>();
+        m.add(2, 1000000);
+        m.add(3, 2);
+        m.add(5);
+        Set<Multiset.Entry<Integer>> voci = m.entrySet();
+        assertEquals(3, voci.size());
+        int totale = 0;
+        for (Multiset.Entry<Integer> voce : voci) {
+            assertEquals(m.count(voce.getElement()), voce.getCount());
+            totale += voce.getCount();
+        }
+        assertEquals(m.size(), totale);
+        assertEquals(true, voci.contains(new VoceMultiset<Integer>(3, 2)));
+        assertEquals(false, voci.contains(new VoceMultiset<Integer>(3, 1)));
+        //La vista segue le modifiche del multiset
+        m.add(7);
+        assertEquals(4, voci.size());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testEntrySetNonModificabile() {
+        MyMultiset<Integer> m = new MyMultiset<Integer>();
+        m.add(2);
+        m.entrySet().clear();
+    }
+
+    @Test
+    public void testForEachEntry() {
+        MyMultiset<String> m = new MyMultiset<String>();
+        m.add("a", 3);
+        m.add("b", 2);
+        final MyMultiset<String> copia = new MyMultiset<String>();
+        m.forEachEntry((e, n) -> copia.add(e, n));
+        assertEquals(true, copia.equals(m));
+    }
+
+    @Test
+    public void testEntryStreamParallelo() {
+        MyMultiset<Integer> m = new MyMultiset<Integer>();
+        long atteso = 0;
+        for (int i = 0; i < 10000; i++) {
+            m.add(i, i % 5 + 1);
+            atteso += (long) i * (i % 5 + 1);
+        }
+        long somma = m.entryStream().parallel().mapToLong(v -> (long) v.getElement() * v.getCount()).sum();
+        assertEquals(atteso, somma);
+        assertEquals(10000, m.entryStream().count());
+    }
+
+    @Test
+    public void testTopK() {
+        Multiset<String> m = new MyMultiset<String>();
+        m.add("a", 3);
+        m.add("b", 7);
+        m.add("c", 1);
+        m.add("d", 5);
+        List<Multiset.Entry<String>> primi = m.topK(2);
+        assertEquals(2, primi.size());
+        assertEquals("b", primi.get(0).getElement());
+        assertEquals(7, primi.get(0).getCount());
+        assertEquals("d", primi.get(1).getElement());
+        assertEquals(4, m.topK(10).size());
+        assertEquals("c", m.topK(10).get(3).getElement());
+        assertEquals(true, m.topK(0).isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTopKNegativo() {
+        new MyMultiset<String>().topK(-1);
+    }
+
 }
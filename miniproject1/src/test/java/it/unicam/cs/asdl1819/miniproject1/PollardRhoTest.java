@@ -0,0 +1,37 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PollardRhoTest {
+
+    @Test
+    public void testMcd() {
+        assertEquals(6, PollardRho.mcd(12, 18));
+        assertEquals(7, PollardRho.mcd(0, 7));
+        assertEquals(7, PollardRho.mcd(7, 0));
+        assertEquals(1, PollardRho.mcd(17, 31));
+        Random r = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            long a = r.nextLong() >>> 1;
+            long b = r.nextLong() >>> 1;
+            assertEquals(BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).longValue(), PollardRho.mcd(a, b));
+        }
+    }
+
+    @Test
+    public void testFattore() {
+        long[] composti = {4, 9, 15, 1000000007L * 998244353L, 4294967291L * 2147483647L,
+                1000003L * 1000003L, 3825123056546413051L};
+        for (long n : composti) {
+            long d = PollardRho.fattore(n);
+            assertTrue(d > 1 && d < n);
+            assertEquals(0, n % d);
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package it.unicam.cs.asdl1819.miniproject1;
+
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RankedMultisetTest {
+
+    @Test
+    public void testOperazioni() {
+        RankedMultiset<String> m = new RankedMultiset<String>();
+        assertEquals(true, m.isEmpty());
+        assertEquals(0, m.add("a", 3));
+        m.add("b");
+        assertEquals(3, m.add("a", 2));
+        assertEquals(5, m.count("a"));
+        assertEquals(6, m.size());
+        assertEquals(5, m.remove("a", 10));
+        assertEquals(false, m.contains("a"));
+        assertEquals(1, m.size());
+        assertEquals(1, m.setCount("b", 4));
+        assertEquals(4, m.setCount("b", 0));
+        assertEquals(true, m.isEmpty());
+        assertEquals(0, m.remove("c", 1));
+    }
+
+    @Test
+    public void testTopK() {
+        RankedMultiset<Integer> m = new RankedMultiset<Integer>();
+        for (int i = 1; i <= 1000; i++) {
+            m.add(i, i % 100 + 1);
+        }
+        List<Multiset.Entry<Integer>> primi = m.topK(5);
+        assertEquals(5, primi.size());
+        for (Multiset.Entry<Integer> voce : primi) {
+            assertEquals(100, voce.getCount());
+            assertEquals(99, voce.getElement() % 100);
+        }
+        //A parità di frequenza vengono prima gli elementi arrivati prima
+        assertEquals(Integer.valueOf(99), primi.get(0).getElement());
+        assertEquals(Integer.valueOf(199), primi.get(1).getElement());
+        m.add(5, 500);
+        assertEquals(new VoceMultiset<Integer>(5, 506), m.topK(1).get(0));
+        assertEquals(1000, m.topK(5000).size());
+        assertEquals(0, m.topK(0).size());
+        assertEquals(11, m.countAtLeast(100));
+        m.setCount(5, 0);
+        assertEquals(10, m.countAtLeast(100));
+    }
+
+    @Test
+    public void testTopKUgualeAlDefault() {
+        RankedMultiset<Integer> m = new RankedMultiset<Integer>();
+        MyMultiset<Integer> atteso = new MyMultiset<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            int e = (i * 7919) % 3001;
+            m.add(e, i % 13 + 1);
+            atteso.add(e, i % 13 + 1);
+            if (i % 5 == 0) {
+                m.remove(e / 2, 3);
+                atteso.remove(e / 2, 3);
+            }
+        }
+        assertEquals(atteso, m);
+        assertEquals(atteso.hashCode(), m.hashCode());
+        List<Multiset.Entry<Integer>> ordinati = m.topK(50);
+        List<Multiset.Entry<Integer>> attesi = atteso.topK(50);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(attesi.get(i).getCount(), ordinati.get(i).getCount());
+            assertEquals(ordinati.get(i).getCount(), m.count(ordinati.get(i).getElement()));
+        }
+    }
+
+    @Test
+    public void testIteratore() {
+        RankedMultiset<Integer> m = new RankedMultiset<Integer>();
+        m.add(1, 2);
+        m.add(2);
+        MyMultiset<Integer> copia = new MyMultiset<Integer>();
+        Iterator<Integer> it = m.iterator();
+        while (it.hasNext()) {
+            copia.add(it.next());
+        }
+        assertEquals(m, copia);
+        m.clear();
+        assertEquals(0, m.size());
+        assertEquals(0, m.topK(3).size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTopKNegativo() {
+        new RankedMultiset<Integer>().topK(-1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOltreMassimo() {
+        RankedMultiset<Integer> m = new RankedMultiset<Integer>();
+        m.add(1, Integer.MAX_VALUE);
+        m.add(1);
+    }
+
+}